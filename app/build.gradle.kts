@@ -18,8 +18,18 @@ android {
         testInstrumentationRunner = "androidx.test.runner.AndroidJUnitRunner"
     }
 
+    buildFeatures {
+        buildConfig = true
+    }
+
     buildTypes {
+        debug {
+            // 点击日志编译期级别（android.util.Log 常量）：3 = DEBUG
+            buildConfigField("int", "CLICK_LOG_LEVEL", "3")
+        }
         release {
+            // release 只保留 INFO 及以上：热路径的 debug 日志在判断 ClickLog.debug() 时就跳过，不拼接消息
+            buildConfigField("int", "CLICK_LOG_LEVEL", "4")
             isMinifyEnabled = false
             proguardFiles(
                 getDefaultProguardFile("proguard-android-optimize.txt"),
@@ -34,6 +44,7 @@ android {
 }
 
 dependencies {
+    implementation(project(":core"))
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.activity)
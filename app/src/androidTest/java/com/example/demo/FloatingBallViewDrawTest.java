@@ -0,0 +1,167 @@
+package com.example.demo;
+
+import android.app.Instrumentation;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
+import android.os.Debug;
+import android.view.View;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.*;
+
+/**
+ * 浮窗视图的绘制开销：稳定状态下（状态和位置都不变）每帧不分配对象，录制一帧的耗时在预算内。
+ * 和硬件加速窗口一样录制到 RenderNode，工具栏走 RenderNode 重放路径；一帧包括工具栏和标记层两个窗口的内容。
+ */
+@RunWith(AndroidJUnit4.class)
+public class FloatingBallViewDrawTest {
+    private static final int WIDTH = 1080;
+    private static final int HEIGHT = 2400;
+    private static final int WARMUP_FRAMES = 50;
+    private static final int FRAMES = 300;
+
+    private final Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+    private final PositionStore store = PositionStore.getInstance();
+    private FloatingBallView view;
+    private MarkerOverlayView markerView;
+    private RenderNode frame;
+
+    @Before
+    public void setUp() {
+        store.clear();
+        for (int i = 0; i < 10; i++) {
+            ClickPosition pos = new ClickPosition(300 + i * 60, 400 + i * 150);
+            pos.setRepeat(1 + i % 3);
+            store.add(pos);
+        }
+        instrumentation.runOnMainSync(() -> {
+            view = new FloatingBallView(instrumentation.getTargetContext());
+            view.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                    View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+            view.layout(0, 0, WIDTH, HEIGHT);
+            view.setStartLatency("首击 1.2 ms");
+            view.setScheduledTime("12:00:00");
+            markerView = newMarkerView();
+            frame = new RenderNode("frame");
+            frame.setPosition(0, 0, WIDTH, HEIGHT);
+        });
+    }
+
+    @After
+    public void tearDown() {
+        store.clear();
+    }
+
+    private void recordFrame() {
+        RecordingCanvas canvas = frame.beginRecording();
+        try {
+            view.draw(canvas);
+            markerView.draw(canvas);
+        } finally {
+            frame.endRecording();
+        }
+    }
+
+    @Test
+    public void steadyStateFrames_allocateNothing() {
+        long[] allocations = new long[1];
+        instrumentation.runOnMainSync(() -> {
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                recordFrame();
+            }
+            Debug.startAllocCounting();
+            Debug.resetThreadAllocCount();
+            for (int i = 0; i < FRAMES; i++) {
+                recordFrame();
+            }
+            allocations[0] = Debug.getThreadAllocCount();
+            Debug.stopAllocCounting();
+        });
+        assertEquals("allocations in " + FRAMES + " frames", 0, allocations[0]);
+    }
+
+    @Test
+    public void steadyStateFrames_recordWithinBudget() {
+        long[] best = {Long.MAX_VALUE};
+        long[] total = new long[1];
+        instrumentation.runOnMainSync(() -> {
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                recordFrame();
+            }
+            for (int i = 0; i < FRAMES; i++) {
+                long start = System.nanoTime();
+                recordFrame();
+                long elapsed = System.nanoTime() - start;
+                best[0] = Math.min(best[0], elapsed);
+                total[0] += elapsed;
+            }
+        });
+        long average = total[0] / FRAMES;
+        // 16ms 一帧里留给录制的预算；平均值放宽，避免模拟器上的偶发抖动误报
+        assertTrue("best frame " + best[0] + " ns", best[0] < 1_000_000L);
+        assertTrue("average frame " + average + " ns", average < 4_000_000L);
+    }
+
+    @Test
+    public void maxMarkers_recordWithinBudget() {
+        store.clear();
+        ClickPosition[] grid = new ClickPosition[PositionStore.MAX_POSITIONS];
+        for (int i = 0; i < grid.length; i++) {
+            grid[i] = new ClickPosition(20 + (i % 50) * 21, 60 + (i / 50) * 23);
+            grid[i].setRepeat(1 + i % 3);
+        }
+        store.replaceAll(grid);
+        long[] elapsed = new long[1];
+        instrumentation.runOnMainSync(() -> {
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                newMarkerView().draw(frame.beginRecording());
+                frame.endRecording();
+            }
+            // 新视图的第一帧要录制全部标记：圆圈一次 drawPoints，标签一次 drawGlyphs
+            MarkerOverlayView fresh = newMarkerView();
+            long start = System.nanoTime();
+            fresh.draw(frame.beginRecording());
+            frame.endRecording();
+            elapsed[0] = System.nanoTime() - start;
+        });
+        // 位置上限下的最坏情况，只在位置变化时发生一次；平时每帧只重放录制好的 RenderNode
+        assertTrue("recording " + PositionStore.MAX_POSITIONS + " markers took " + elapsed[0] + " ns",
+                elapsed[0] < 8_000_000L);
+    }
+
+    private MarkerOverlayView newMarkerView() {
+        MarkerOverlayView markers = new MarkerOverlayView(instrumentation.getTargetContext());
+        markers.measure(View.MeasureSpec.makeMeasureSpec(WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(HEIGHT, View.MeasureSpec.EXACTLY));
+        markers.layout(0, 0, WIDTH, HEIGHT);
+        return markers;
+    }
+
+    @Test
+    public void toolbarStateChange_rerecordsOnlyOnce() {
+        long[] allocations = new long[1];
+        instrumentation.runOnMainSync(() -> {
+            for (int i = 0; i < WARMUP_FRAMES; i++) {
+                recordFrame();
+            }
+            // 状态变化后的第一帧重新录制工具栏，之后回到零分配
+            view.setClicking(true);
+            recordFrame();
+            Debug.startAllocCounting();
+            Debug.resetThreadAllocCount();
+            for (int i = 0; i < FRAMES; i++) {
+                recordFrame();
+            }
+            allocations[0] = Debug.getThreadAllocCount();
+            Debug.stopAllocCounting();
+        });
+        assertEquals(0, allocations[0]);
+    }
+}
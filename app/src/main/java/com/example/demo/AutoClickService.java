@@ -2,42 +2,165 @@ package com.example.demo;
 
 import android.accessibilityservice.AccessibilityService;
 import android.accessibilityservice.GestureDescription;
+import android.content.Context;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.graphics.Path;
 import android.os.Handler;
+import android.os.HandlerThread;
 import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
 import android.util.Log;
 import android.view.accessibility.AccessibilityEvent;
-import java.util.ArrayList;
-import java.util.List;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 public class AutoClickService extends AccessibilityService {
     private static final String TAG = "AutoClickService";
-    private Handler handler = new Handler(Looper.getMainLooper());
-    private Runnable clickRunnable;
-    private boolean isClicking = false;
-    private List<ClickPosition> clickPositions = new ArrayList<>();
-    private int currentClickIndex = 0;
-    private long minClickInterval = 150; // 最小间隔，默认150ms
-    private long maxClickInterval = 300; // 最大间隔，默认300ms
-    private int randomOffset = 10; // 随机偏移半径，默认5px
-    private java.util.Random random = new java.util.Random();
-    
-    public static class ClickPosition {
-        private float x;
-        private float y;
-        private boolean isActive;
+    private static final String CLICK_THREAD_NAME = "KeepClick-ClickEngine";
+    // 经验间隔分布的直方图文件，位于应用外部存储目录
+    public static final String EMPIRICAL_INTERVAL_FILE = "interval_histogram.csv";
+    // 批量模式下相邻两个点击的起始时间间隔
+    private static final long BURST_STAGGER_MS = 10;
+    // 已连接的服务实例，供进程内直接调用（见 ClickCommands）
+    private static volatile AutoClickService instance;
+    // 首次点击分发的监听者（浮窗），在主线程回调
+    private static volatile StartListener startListener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    // 点击循环所在的 Handler：独立线程模式下指向 clickThread，否则指向主线程
+    private volatile Handler handler = mainHandler;
+    // 只在切换命令中（旧的点击线程上）创建和退出；onDestroy 在主线程读取
+    private volatile HandlerThread clickThread;
+    // 目标线程模式：由调用方线程（主线程或 Binder 线程）读写，实际切换在点击线程上的命令中完成
+    private volatile boolean useDedicatedThread = false;
+    // 点击引擎：随机间隔/偏移和节拍排期，只在点击线程上访问；位置与浮窗共享同一个 PositionStore
+    private final PositionStore positionStore = PositionStore.getInstance();
+    private final ClickEngine clickEngine = new ClickEngine(new XoroshiroRandom(), positionStore);
+    private final ClickTimer clickTimer = clickEngine.getTimer();
+    private final ClickTrace clickTrace = clickEngine.getTrace();
+    // 手势分发：dispatchGesture 的结果回调投递到点击线程，带着手势序号转给点击循环
+    private GestureSink.Callback gestureCallback;
+    private final GestureSink gestureSink = new GestureSink() {
+        @Override
+        public boolean dispatchClick(int index, float x, float y, long holdMillis, long seq, Callback callback) {
+            gestureCallback = callback;
+            return performClick(index, x, y, holdMillis, obtainCallback(seq));
+        }
         
-        public ClickPosition(float x, float y) {
-            this.x = x;
-            this.y = y;
-            this.isActive = true;
+        @Override
+        public boolean dispatchBurst(ClickEngine engine, int count, long seq, Callback callback) {
+            gestureCallback = callback;
+            return performBurst(count, obtainCallback(seq));
+        }
+    };
+    // 点击循环（节拍、在途手势跟踪和指标），只在点击线程上访问；时间基准与 Handler.postAtTime 一致
+    private final ClickLoop clickLoop = new ClickLoop(clickEngine, SystemClock::uptimeMillis,
+            new HandlerClickScheduler(mainHandler), gestureSink);
+    private final GestureTracker gestureTracker = clickLoop.getGestureTracker();
+    private final ClickMetrics clickMetrics = clickLoop.getMetrics();
+    // 位置存储的变化可能来自任意线程（浮窗在主线程修改），作为命令排队，和线程切换保持先后顺序
+    private final PositionStore.Listener positionListener = snapshot -> enqueueCommand(this::onPositionsChanged);
+    // 命令（启动、停止、预备、设置和位置操作）按请求顺序排在这个队列里，由插到队首的消息在点击线程上依次执行：
+    // 命令仍排在已到期的点击节拍之前，彼此之间却不会乱序，先开始后暂停不会变成先暂停后开始
+    private final Queue<Runnable> pendingCommands = new ConcurrentLinkedQueue<>();
+    private final Runnable drainCommands = new Runnable() {
+        @Override
+        public void run() {
+            Handler current = handler;
+            if (!isOnClickThread()) {
+                // 线程已切换：交给新的点击线程执行
+                current.postAtFrontOfQueue(this);
+                return;
+            }
+            Runnable command;
+            while ((command = pendingCommands.poll()) != null) {
+                command.run();
+                if (handler != current) {
+                    // 刚执行的是线程切换命令：剩下的命令到新线程上继续，旧线程不再取命令
+                    handler.postAtFrontOfQueue(this);
+                    return;
+                }
+            }
         }
+    };
+    
+    // 点击热路径上复用的对象，避免每次点击产生垃圾
+    private final Path clickPath = new Path();
+    // 偏移半径为 0 的位置手势固定不变，按位置序号缓存；位置快照版本变化后整体失效
+    private GestureDescription[] gestureCache = new GestureDescription[0];
+    private long gestureCacheVersion = -1;
+    // 预备状态下提前构建好的第一次点击手势
+    private GestureDescription armedGesture;
+    
+    // 批量模式下，所有位置偏移都为 0 时按起始位置（在点击序列中的位置）缓存的批量手势，以及对应的笔画数
+    private GestureDescription[] burstGestureCache = new GestureDescription[0];
+    private int[] burstGestureCounts = new int[0];
+    
+    /**
+     * 首次点击分发回调
+     */
+    public interface StartListener {
+        /**
+         * @param triggerToDispatchNanos 从触发（点击开始按钮或预约到点）到第一次 dispatchGesture 返回的耗时
+         * @param armed 是否命中预备状态
+         */
+        void onFirstClickDispatched(long triggerToDispatchNanos, boolean armed);
+    }
+    
+    /**
+     * 带手势序号的结果回调。按序号取模复用：一个槽位要再分发 MAX_IN_FLIGHT 次才会被复用，
+     * 那时 GestureTracker 已把它原来的手势按溢出丢弃，迟到的回调会被忽略
+     */
+    private final class SequencedCallback extends GestureResultCallback {
+        long seq;
+        
+        // 线程切换前投递到旧线程的手势回调会在旧线程退出前执行，转给当前的点击线程
+        private final Runnable relayCompleted = () -> onCompleted(null);
+        private final Runnable relayCancelled = () -> onCancelled(null);
         
-        public float getX() { return x; }
-        public float getY() { return y; }
-        public boolean isActive() { return isActive; }
-        public void setActive(boolean active) { this.isActive = active; }
+        @Override
+        public void onCompleted(GestureDescription gestureDescription) {
+            super.onCompleted(gestureDescription);
+            if (!isOnClickThread()) {
+                handler.post(relayCompleted);
+                return;
+            }
+            if (ClickLog.debug()) {
+                Log.d(TAG, "✓ Click #" + seq + " COMPLETED at: (" + clickLoop.getLastClickX() + ", " + clickLoop.getLastClickY() + ")");
+            }
+            gestureCallback.onGestureCompleted(seq);
+        }
+        
+        @Override
+        public void onCancelled(GestureDescription gestureDescription) {
+            super.onCancelled(gestureDescription);
+            if (!isOnClickThread()) {
+                handler.post(relayCancelled);
+                return;
+            }
+            if (ClickLog.debug()) {
+                Log.d(TAG, "✗ Click #" + seq + " CANCELLED at: (" + clickLoop.getLastClickX() + ", " + clickLoop.getLastClickY() + ")");
+            }
+            gestureCallback.onGestureCancelled(seq);
+        }
+    }
+    
+    private final SequencedCallback[] callbackPool = new SequencedCallback[GestureTracker.MAX_IN_FLIGHT];
+    
+    private SequencedCallback obtainCallback(long seq) {
+        int slot = (int) (seq % callbackPool.length);
+        SequencedCallback callback = callbackPool[slot];
+        if (callback == null) {
+            callback = new SequencedCallback();
+            callbackPool[slot] = callback;
+        }
+        callback.seq = seq;
+        return callback;
     }
     
     @Override
@@ -90,213 +213,659 @@ public class AutoClickService extends AccessibilityService {
         } else {
             Log.e(TAG, "✗ Device does NOT support gesture dispatch (API < 24)");
         }
+        
+        // 根据保存的设置选择点击线程模式（默认使用独立的高优先级线程）
+        SharedPreferences prefs = getSharedPreferences("AutoClickerPrefs", MODE_PRIVATE);
+        setDedicatedThreadMode(prefs.getBoolean("dedicated_click_thread", true));
+        boolean fixedRate = prefs.getBoolean("fixed_rate_timing", true);
+        boolean catchUp = prefs.getBoolean("catch_up_late_ticks", false);
+        enqueueCommand(() -> updateTimingMode(fixedRate, catchUp));
+        boolean burst = prefs.getBoolean("burst_mode", false);
+        enqueueCommand(() -> updateBurstMode(burst));
+        String backpressure = prefs.getString("gesture_backpressure", GestureTracker.Mode.OFF.name());
+        enqueueCommand(() -> updateBackpressureMode(backpressure));
+        String distribution = prefs.getString("interval_distribution", IntervalDistribution.Kind.UNIFORM.name());
+        enqueueCommand(() -> updateIntervalDistribution(distribution));
+        updateDiagnostics(prefs.getBoolean("verbose_log", false), prefs.getBoolean("trace_buffer", false));
+        
+        // 浮窗直接修改位置存储，变化时在点击线程上重新预备
+        positionStore.addListener(positionListener);
+        
+        // 发布实例，之后的命令可以在进程内直接调用
+        instance = this;
+    }
+    
+    @Override
+    public boolean onUnbind(Intent intent) {
+        instance = null;
+        return super.onUnbind(intent);
+    }
+    
+    @Override
+    public void onDestroy() {
+        instance = null;
+        positionStore.removeListener(positionListener);
+        // 尚未执行的命令（包括线程切换）不再执行，避免在销毁后创建新的点击线程
+        pendingCommands.clear();
+        stopClicking();
+        quitClickThread();
+        super.onDestroy();
+    }
+    
+    /**
+     * 已连接的服务实例；服务未启用或已断开时返回 null
+     */
+    public static AutoClickService getInstance() {
+        return instance;
+    }
+    
+    public static void setStartListener(StartListener listener) {
+        startListener = listener;
     }
     
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
         if (intent != null) {
-            String action = intent.getStringExtra("action");
-            if ("start".equals(action)) {
-                startClicking();
-            } else if ("stop".equals(action)) {
-                stopClicking();
-            } else if ("add_position".equals(action)) {
-                float x = intent.getFloatExtra("x", -1);
-                float y = intent.getFloatExtra("y", -1);
-                if (x >= 0 && y >= 0) {
-                    addClickPosition(x, y);
-                }
-            } else if ("remove_position".equals(action)) {
-                int index = intent.getIntExtra("index", -1);
-                if (index >= 0) {
-                    removeClickPosition(index);
-                }
-            } else if ("clear_positions".equals(action)) {
-                clearClickPositions();
-            } else if ("update_interval".equals(action)) {
-                long minInterval = intent.getLongExtra("min_interval", 150);
-                long maxInterval = intent.getLongExtra("max_interval", 300);
-                updateClickInterval(minInterval, maxInterval);
-            } else if ("update_settings".equals(action)) {
-                long minInterval = intent.getLongExtra("min_interval", 150);
-                long maxInterval = intent.getLongExtra("max_interval", 300);
-                int offset = intent.getIntExtra("random_offset", 10);
-                updateSettings(minInterval, maxInterval, offset);
-            }
+            dispatchCommand(intent);
         }
         return START_STICKY;
     }
     
+    /**
+     * 分发一条命令 Intent。onStartCommand 和进程内调用（ClickCommands.send）共用这一入口。
+     */
+    public void dispatchCommand(Intent intent) {
+        if (ClickCommands.ACTION_UPDATE_SETTINGS.equals(intent.getStringExtra(ClickCommands.EXTRA_ACTION))
+                && intent.hasExtra("dedicated_thread")) {
+            // 线程切换命令排在这条设置命令之前，设置命令和之后的命令都在新线程上执行
+            setDedicatedThreadMode(intent.getBooleanExtra("dedicated_thread", true));
+        }
+        // 所有命令都交给点击线程执行，位置列表只在该线程上读写
+        enqueueCommand(() -> handleCommand(intent));
+    }
+    
+    // 进程内直接命令：不经过 Intent，直接投递到点击线程
+    
+    public void requestStart() {
+        requestStart(SystemClock.elapsedRealtimeNanos());
+    }
+    
+    /**
+     * @param triggerNanos 触发时刻（elapsedRealtimeNanos），用于统计到第一次分发的延迟
+     */
+    public void requestStart(long triggerNanos) {
+        // 排在之前的设置和位置命令之后：预备状态下第一次点击在这些命令执行完后立即分发
+        enqueueCommand(() -> startClicking(triggerNanos));
+    }
+    
+    public void requestStop() {
+        // 排在已到期的点击节拍之前，但不会越过之前的启动命令
+        enqueueCommand(this::stopClicking);
+    }
+    
+    /**
+     * 进入预备状态并预热手势管线：提前抽取第一次点击的随机值、构建各位置的手势，
+     * 使触发（预约到点）时的第一次点击无需冷启动
+     */
+    public void requestArm() {
+        enqueueCommand(() -> {
+            arm();
+            prewarm();
+        });
+    }
+    
+    /**
+     * 预备第一次点击：位置、偏移坐标、第一个间隔和手势都提前准备好。点击中调用无效。
+     */
+    private void arm() {
+        if (clickLoop.isRunning()) {
+            return;
+        }
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        int index = clickEngine.arm();
+        if (index == ClickEngine.RESULT_STOP) {
+            armedGesture = null;
+            return;
+        }
+        // 批量模式的第一批在触发时按整轮构建，这里只预先抽取随机值
+        try {
+            armedGesture = clickLoop.isBurstMode() ? null : buildGesture(clickEngine.getArmedX(), clickEngine.getArmedY(),
+                    clickEngine.getHoldDuration(index));
+        } catch (IllegalArgumentException e) {
+            // 预备失败不影响点击：触发时按正常路径构建手势
+            armedGesture = null;
+            Log.e(TAG, "Failed to arm first click at position " + index, e);
+            return;
+        }
+        if (ClickLog.debug()) {
+            Log.d(TAG, "Armed first click at position " + index + " (" + clickEngine.getArmedX() + ", "
+                    + clickEngine.getArmedY() + ") in " + (SystemClock.elapsedRealtimeNanos() - startNanos) / 1000 + " us");
+        }
+    }
+    
+    private void prewarm() {
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        int count = clickEngine.getPositionCount();
+        for (int i = 0; i < count; i++) {
+            ClickPosition pos = clickEngine.getPosition(i);
+            // 偏移为 0 时会填充手势缓存；否则只是让手势相关类提前加载和编译
+            try {
+                obtainGesture(i, pos.getX(), pos.getY(), clickEngine.getHoldDuration(i));
+            } catch (IllegalArgumentException e) {
+                Log.e(TAG, "Failed to prewarm gesture for position " + i, e);
+            }
+        }
+        Log.d(TAG, "Gesture pipeline prewarmed for " + count + " positions in "
+                + (SystemClock.elapsedRealtimeNanos() - startNanos) / 1000 + " us");
+    }
+    
+    private void handleCommand(Intent intent) {
+        String action = intent.getStringExtra("action");
+        if ("start".equals(action)) {
+            startClicking(intent.getLongExtra("trigger_nanos", SystemClock.elapsedRealtimeNanos()));
+        } else if ("stop".equals(action)) {
+            stopClicking();
+        } else if ("arm".equals(action)) {
+            arm();
+            prewarm();
+        } else if ("add_position".equals(action)) {
+            float x = intent.getFloatExtra("x", -1);
+            float y = intent.getFloatExtra("y", -1);
+            if (x >= 0 && y >= 0) {
+                addClickPosition(x, y);
+            }
+        } else if ("remove_position".equals(action)) {
+            int index = intent.getIntExtra("index", -1);
+            if (index >= 0) {
+                removeClickPosition(index);
+            }
+        } else if ("clear_positions".equals(action)) {
+            clearClickPositions();
+        } else if ("update_position".equals(action)) {
+            int index = intent.getIntExtra("index", -1);
+            if (index >= 0) {
+                updateClickPosition(index, ClickCommands.readPositionSpec(intent));
+            }
+        } else if ("dump_trace".equals(action)) {
+            dumpTrace();
+        } else if ("update_interval".equals(action)) {
+            long minInterval = intent.getLongExtra("min_interval", 150);
+            long maxInterval = intent.getLongExtra("max_interval", 300);
+            updateClickInterval(minInterval, maxInterval);
+        } else if ("update_settings".equals(action)) {
+            long minInterval = intent.getLongExtra("min_interval", 150);
+            long maxInterval = intent.getLongExtra("max_interval", 300);
+            int offset = intent.getIntExtra("random_offset", 10);
+            updateSettings(minInterval, maxInterval, offset);
+            if (intent.hasExtra("fixed_rate")) {
+                updateTimingMode(intent.getBooleanExtra("fixed_rate", true),
+                        intent.getBooleanExtra("catch_up", false));
+            }
+            if (intent.hasExtra("gesture_backpressure")) {
+                updateBackpressureMode(intent.getStringExtra("gesture_backpressure"));
+            }
+            if (intent.hasExtra("interval_distribution")) {
+                updateIntervalDistribution(intent.getStringExtra("interval_distribution"));
+            }
+            if (intent.hasExtra("burst")) {
+                updateBurstMode(intent.getBooleanExtra("burst", false));
+            }
+            if (intent.hasExtra("verbose_log")) {
+                updateDiagnostics(intent.getBooleanExtra("verbose_log", false),
+                        intent.getBooleanExtra("trace_buffer", false));
+            }
+        }
+    }
+    
+    /**
+     * 切换点击循环所在线程：独立的高优先级 HandlerThread 或主线程 Looper。
+     * 正在点击时会把循环迁移到新线程上继续执行。
+     */
+    public void setDedicatedThreadMode(boolean dedicated) {
+        if (dedicated == useDedicatedThread) {
+            return;
+        }
+        useDedicatedThread = dedicated;
+        // 切换作为一条命令排队，在当前的点击线程上执行：之前的命令在旧线程上执行完，之后的命令和节拍都进入新线程
+        enqueueCommand(() -> switchClickThread(dedicated));
+        Log.d(TAG, "Click thread mode: " + (dedicated ? "dedicated" : "main looper"));
+    }
+    
+    /**
+     * 在当前的点击线程上执行：创建新线程（如需要）、改指 handler 并迁移点击循环，最后才让旧线程退出。
+     * 旧线程上还没执行的任务（命令、手势回调）在 quitSafely 之后仍会在旧线程上执行，它们先检查 isOnClickThread()，
+     * 不是点击线程就转投到新线程，点击引擎和点击循环始终只在一个线程上被访问。
+     */
+    private void switchClickThread(boolean dedicated) {
+        HandlerThread oldThread = clickThread;
+        Handler newHandler;
+        if (dedicated) {
+            HandlerThread thread = new HandlerThread(CLICK_THREAD_NAME, Process.THREAD_PRIORITY_URGENT_DISPLAY);
+            thread.start();
+            clickThread = thread;
+            newHandler = new Handler(thread.getLooper());
+        } else {
+            clickThread = null;
+            newHandler = mainHandler;
+        }
+        handler = newHandler;
+        clickLoop.setScheduler(new HandlerClickScheduler(newHandler));
+        if (oldThread != null) {
+            oldThread.quitSafely();
+        }
+    }
+    
+    /**
+     * 把命令排进队列，由点击线程按请求顺序执行。可在任意线程调用。
+     */
+    private void enqueueCommand(Runnable command) {
+        pendingCommands.add(command);
+        if (!handler.postAtFrontOfQueue(drainCommands)) {
+            // 读取 handler 之后旧线程已退出，handler 已指向新的点击线程
+            handler.postAtFrontOfQueue(drainCommands);
+        }
+    }
+    
+    /**
+     * 当前线程是否是点击线程。线程切换之前投递到旧线程、在旧线程退出前仍会执行的任务用它判断是否要转投
+     */
+    private boolean isOnClickThread() {
+        return handler.getLooper() == Looper.myLooper();
+    }
+    
+    private void quitClickThread() {
+        HandlerThread thread = clickThread;
+        if (thread != null) {
+            clickThread = null;
+            thread.quitSafely();
+        }
+    }
+    
+    
+    // 以下为 Intent 命令的位置操作；改动写入共享的位置存储，预备和唤醒由 positionListener 统一处理
     
     public void addClickPosition(float x, float y) {
-        ClickPosition pos = new ClickPosition(x, y);
-        this.clickPositions.add(pos);
-        Log.d(TAG, "Click position added: " + x + ", " + y);
+        if (clickEngine.addPosition(x, y)) {
+            Log.d(TAG, "Click position added: " + x + ", " + y);
+        } else {
+            Log.e(TAG, "Click position limit (" + PositionStore.MAX_POSITIONS + ") reached, ignoring: " + x + ", " + y);
+        }
     }
     
     public void removeClickPosition(int index) {
-        if (index >= 0 && index < clickPositions.size()) {
-            clickPositions.remove(index);
+        if (clickEngine.removePosition(index)) {
             Log.d(TAG, "Click position removed at index: " + index);
         }
     }
     
     public void clearClickPositions() {
-        clickPositions.clear();
+        clickEngine.clearPositions();
         Log.d(TAG, "All click positions cleared.");
     }
     
+    /**
+     * 更新位置的点击参数（间隔、偏移半径、按下时长、每轮次数），点击中修改从下一次点击起生效
+     */
+    public void updateClickPosition(int index, ClickPosition spec) {
+        if (clickEngine.updatePositionSpec(index, spec)) {
+            Log.d(TAG, "Click position " + index + " updated: repeat=" + spec.getRepeat()
+                    + ", hold=" + spec.getHoldMillis() + ", offset=" + spec.getOffsetRadius()
+                    + ", interval=" + spec.getMinInterval() + "-" + spec.getMaxInterval());
+        }
+    }
+    
+    /**
+     * 位置存储变化后在点击线程上执行：未点击时按新位置重新预备，空闲中的点击循环恢复
+     */
+    private void onPositionsChanged() {
+        if (clickEngine.getPositionCount() == 0) {
+            armedGesture = null;
+        }
+        rearmIfIdle();
+        wakeIfIdle();
+    }
+    
+    /**
+     * 点击中清空（或停用）了所有位置时点击循环处于空闲，有了可点击的位置后从当前时间继续
+     */
+    private void wakeIfIdle() {
+        if (clickLoop.wake()) {
+            Log.d(TAG, "Click loop resumed from idle");
+        }
+    }
+    
     public void updateClickInterval(long minInterval, long maxInterval) {
-        this.minClickInterval = minInterval;
-        this.maxClickInterval = maxInterval;
+        clickEngine.updateSettings(minInterval, maxInterval, clickEngine.getRandomOffset());
+        rearmIfIdle();
         Log.d(TAG, "Click interval updated: " + minInterval + " - " + maxInterval + " ms");
     }
     
     public void updateSettings(long minInterval, long maxInterval, int offset) {
-        this.minClickInterval = minInterval;
-        this.maxClickInterval = maxInterval;
-        this.randomOffset = offset;
+        clickEngine.updateSettings(minInterval, maxInterval, offset);
+        invalidateGestureCache();
+        rearmIfIdle();
         Log.d(TAG, "Settings updated: interval " + minInterval + " - " + maxInterval + " ms, offset " + offset + " px");
     }
     
-    private long getRandomInterval() {
-        Log.d(TAG, "getRandomInterval: min=" + minClickInterval + ", max=" + maxClickInterval);
-        if (minClickInterval == maxClickInterval) {
-            return minClickInterval;
+    /**
+     * 设置节拍模式：fixedRate 为 true 时按绝对目标时间排期，catchUp 决定落后节拍是补点还是丢弃。
+     */
+    public void updateTimingMode(boolean fixedRate, boolean catchUp) {
+        clickTimer.setMode(fixedRate ? ClickTimer.Mode.FIXED_RATE : ClickTimer.Mode.FIXED_DELAY);
+        clickTimer.setLatePolicy(catchUp ? ClickTimer.LatePolicy.CATCH_UP : ClickTimer.LatePolicy.DROP);
+        Log.d(TAG, "Timing mode updated: " + clickTimer.getMode() + ", late policy " + clickTimer.getLatePolicy());
+    }
+    
+    /**
+     * 设置批量模式：开启后每个节拍把一轮位置合并为一个多笔画手势分发，
+     * 笔画数不超过系统上限（GestureDescription.getMaxStrokeCount()）。
+     */
+    public void updateBurstMode(boolean burst) {
+        int maxStrokes = 1;
+        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
+            maxStrokes = GestureDescription.getMaxStrokeCount();
         }
-        // 生成 [minClickInterval, maxClickInterval] 范围内的随机数
-        long range = maxClickInterval - minClickInterval + 1;
-        long result = minClickInterval + (long)(random.nextDouble() * range);
-        Log.d(TAG, "Generated interval: " + result + "ms");
-        return result;
+        clickLoop.setBurstMode(burst, maxStrokes);
+        Log.d(TAG, "Burst mode " + (burst ? "on, max " + clickLoop.getMaxBurstStrokes() + " strokes" : "off"));
     }
     
-    private float[] getRandomOffset(float x, float y) {
-        if (randomOffset == 0) {
-            return new float[]{x, y};
+    /**
+     * 设置手势限流模式（GestureTracker.Mode 的名称）：OFF 按节拍分发；WAIT 等上一个手势结束再分发；
+     * ADAPTIVE 另外按系统实际完成速度限制间隔。
+     */
+    public void updateBackpressureMode(String modeName) {
+        GestureTracker.Mode mode;
+        try {
+            mode = GestureTracker.Mode.valueOf(modeName);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            mode = GestureTracker.Mode.OFF;
         }
-        // 在圆形范围内生成随机偏移
-        double angle = random.nextDouble() * 2 * Math.PI;
-        double radius = random.nextDouble() * randomOffset;
-        float offsetX = (float)(radius * Math.cos(angle));
-        float offsetY = (float)(radius * Math.sin(angle));
-        return new float[]{x + offsetX, y + offsetY};
+        clickLoop.setBackpressureMode(mode);
+        Log.d(TAG, "Gesture backpressure mode: " + mode);
     }
     
-    public void startClicking() {
-        long startTime = System.currentTimeMillis();
-        Log.d(TAG, "=== startClicking() called at: " + startTime);
-        
-        if (isClicking) {
+    /**
+     * 设置间隔分布（IntervalDistribution.Kind 的名称）。经验分布从 EMPIRICAL_INTERVAL_FILE 加载，
+     * 文件缺失或无效时按均匀分布点击。
+     */
+    public void updateIntervalDistribution(String kindName) {
+        IntervalDistribution.Kind kind;
+        try {
+            kind = IntervalDistribution.Kind.valueOf(kindName);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            kind = IntervalDistribution.Kind.UNIFORM;
+        }
+        EmpiricalDistribution empirical = null;
+        if (kind == IntervalDistribution.Kind.EMPIRICAL) {
+            File file = getEmpiricalIntervalFile(this);
+            try (FileReader reader = new FileReader(file)) {
+                empirical = EmpiricalDistribution.parseCsv(reader);
+                Log.d(TAG, "Empirical intervals loaded: " + empirical.getBinCount() + " bins, mean "
+                        + Math.round(empirical.getMean()) + " ms");
+            } catch (IOException | IllegalArgumentException e) {
+                Log.e(TAG, "Cannot load interval histogram " + file + ", falling back to uniform: " + e.getMessage());
+            }
+        }
+        clickEngine.setIntervalDistribution(kind, empirical);
+        rearmIfIdle();
+        Log.d(TAG, "Interval distribution: " + kind);
+    }
+    
+    public static File getEmpiricalIntervalFile(Context context) {
+        File dir = context.getExternalFilesDir(null);
+        return new File(dir != null ? dir : context.getFilesDir(), EMPIRICAL_INTERVAL_FILE);
+    }
+    
+    public GestureTracker getGestureTracker() {
+        return gestureTracker;
+    }
+    
+    /**
+     * 点击指标，可在任意线程读取
+     */
+    public ClickMetrics getMetrics() {
+        return clickMetrics;
+    }
+    
+    /**
+     * 设置诊断方式：verboseLog 打开逐次点击的 logcat 日志，traceBuffer 把点击事件记录到内存环形缓冲区。
+     */
+    public void updateDiagnostics(boolean verboseLog, boolean traceBuffer) {
+        ClickLog.setLevel(verboseLog ? Log.DEBUG : Log.INFO);
+        clickTrace.setEnabled(traceBuffer);
+        Log.d(TAG, "Diagnostics updated: verbose log " + verboseLog + ", trace buffer " + traceBuffer);
+    }
+    
+    /**
+     * 把环形缓冲区中的点击轨迹输出到 logcat
+     */
+    public void dumpTrace() {
+        StringBuilder sb = new StringBuilder();
+        clickTrace.dump(sb);
+        Log.i(TAG, "=== Click trace: " + clickTrace.size() + " of " + clickTrace.getWriteCount() + " events ===");
+        // logcat 单条长度有限，逐行输出
+        int start = 0;
+        for (int i = 0; i < sb.length(); i++) {
+            if (sb.charAt(i) == '\n') {
+                Log.i(TAG, sb.substring(start, i));
+                start = i + 1;
+            }
+        }
+    }
+    
+    /**
+     * 空闲时保持预备状态：位置或设置变化后重新抽取第一次点击
+     */
+    private void rearmIfIdle() {
+        if (!clickLoop.isRunning()) {
+            arm();
+        }
+    }
+    
+    private void startClicking(long triggerNanos) {
+        if (clickLoop.isRunning()) {
             Log.d(TAG, "Already clicking, ignoring start request");
             return;
         }
         
-        if (clickPositions.isEmpty()) {
+        int positionCount = clickEngine.getPositionCount();
+        if (positionCount == 0) {
             Log.e(TAG, "No click positions set - cannot start clicking");
             return;
         }
         
-        isClicking = true;
-        currentClickIndex = 0;
-        Log.d(TAG, "Starting auto click with " + clickPositions.size() + " positions");
-        
-        // 打印所有位置
-        for (int i = 0; i < clickPositions.size(); i++) {
-            ClickPosition pos = clickPositions.get(i);
-            Log.d(TAG, "Position " + i + ": (" + pos.getX() + ", " + pos.getY() + ")");
+        // 预备状态已失效（位置或设置在预备之后变化）时丢弃预先构建的手势，按冷启动处理
+        final boolean armed = clickEngine.isArmed();
+        if (!armed) {
+            armedGesture = null;
         }
+        // 当前已在点击线程上，直接执行第一次点击，省去一次消息队列往返
+        clickLoop.start();
+        final long latencyNanos = SystemClock.elapsedRealtimeNanos() - triggerNanos;
         
-        clickRunnable = new Runnable() {
-            @Override
-            public void run() {
-                if (isClicking && !clickPositions.isEmpty()) {
-                    // 轮流点击：每次点击当前索引的位置
-                    ClickPosition pos = clickPositions.get(currentClickIndex);
-                    
-                    if (pos.isActive()) {
-                        // 1. 先执行点击
-                        long clickTime = System.currentTimeMillis();
-                        float[] offsetPos = getRandomOffset(pos.getX(), pos.getY());
-                        Log.d(TAG, "[" + clickTime + "] Clicking position " + currentClickIndex + ": original(" + pos.getX() + ", " + pos.getY() + ") -> offset(" + offsetPos[0] + ", " + offsetPos[1] + ")");
-                        performClick(offsetPos[0], offsetPos[1]);
-                        
-                        // 2. 切换到下一个位置
-                        currentClickIndex = (currentClickIndex + 1) % clickPositions.size();
-                        
-                        // 3. 等待随机间隔后再点击下一个位置
-                        long nextInterval = getRandomInterval();
-                        Log.d(TAG, "Next click in " + nextInterval + " ms (will click position " + currentClickIndex + ")");
-                        handler.postDelayed(this, nextInterval);
-                    } else {
-                        Log.d(TAG, "Position " + currentClickIndex + " is not active, skipping");
-                        // 跳过不活动的位置，立即尝试下一个
-                        currentClickIndex = (currentClickIndex + 1) % clickPositions.size();
-                        handler.post(this);
-                    }
-                } else {
-                    Log.d(TAG, "Stopping click runnable - isClicking: " + isClicking + ", positions: " + clickPositions.size());
-                }
+        if (ClickLog.debug()) {
+            Log.d(TAG, "=== First click dispatched " + (latencyNanos / 1000) + " us after trigger ("
+                    + (armed ? "armed" : "cold") + ", " + positionCount + " positions)");
+            for (int i = 0; i < positionCount; i++) {
+                ClickPosition pos = clickEngine.getPosition(i);
+                Log.d(TAG, "Position " + i + ": (" + pos.getX() + ", " + pos.getY() + ")");
             }
-        };
-        
-        // 立即执行第一次点击（窗口已通过 View.post() 确保稳定）
-        long postTime = System.currentTimeMillis();
-        handler.post(clickRunnable);
-        Log.d(TAG, "=== Click runnable posted at: " + postTime + " (executing immediately after window stabilization)");
+        }
+        final StartListener listener = startListener;
+        if (listener != null) {
+            mainHandler.post(() -> listener.onFirstClickDispatched(latencyNanos, armed));
+        }
     }
     
     public void stopClicking() {
-        if (!isClicking) {
+        if (!clickLoop.stop()) {
             return;
         }
         
-        isClicking = false;
-        if (clickRunnable != null) {
-            handler.removeCallbacks(clickRunnable);
-        }
         Log.d(TAG, "Stopped auto click");
+        Log.d(TAG, "Timing stats: ticks=" + clickTimer.getTickCount()
+                + ", lateness avg=" + clickTimer.getAverageLateness() + " ms"
+                + ", max=" + clickTimer.getMaxLateness() + " ms"
+                + ", dropped=" + clickTimer.getDroppedTicks()
+                + ", resync=" + clickTimer.getResyncCount());
+        Log.d(TAG, "Gesture stats: attempted=" + gestureTracker.getAttempted()
+                + ", completed=" + gestureTracker.getCompleted()
+                + ", cancelled=" + gestureTracker.getCancelled()
+                + ", rejected=" + gestureTracker.getRejected()
+                + ", expired=" + gestureTracker.getExpired()
+                + ", avg completion=" + gestureTracker.getAverageLatency() + " ms");
+        rearmIfIdle();
     }
     
-    private void performClick(float x, float y) {
-        Log.d(TAG, "performClick called at: (" + x + ", " + y + ")");
-        
+    /**
+     * 分发一次点击，返回 dispatchGesture 的结果；失败的记录和统计由点击循环负责
+     */
+    private boolean performClick(int index, float x, float y, long holdMillis, SequencedCallback callback) {
         if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
             try {
-                Path path = new Path();
-                path.moveTo(x, y);
-                
-                // 增加手势持续时间到 50ms，模拟真实点击
-                GestureDescription.StrokeDescription stroke = new GestureDescription.StrokeDescription(path, 0, 50);
-                GestureDescription gesture = new GestureDescription.Builder()
-                        .addStroke(stroke)
-                        .build();
-                
-                Log.d(TAG, "Dispatching gesture at: (" + x + ", " + y + ")");
-                boolean dispatched = dispatchGesture(gesture, new GestureResultCallback() {
-                    @Override
-                    public void onCompleted(GestureDescription gestureDescription) {
-                        super.onCompleted(gestureDescription);
-                        Log.d(TAG, "✓ Click COMPLETED at: (" + x + ", " + y + ")");
-                    }
-                    
-                    @Override
-                    public void onCancelled(GestureDescription gestureDescription) {
-                        super.onCancelled(gestureDescription);
-                        Log.e(TAG, "✗ Click CANCELLED at: (" + x + ", " + y + ")");
-                    }
-                }, null);
-                
-                Log.d(TAG, "dispatchGesture returned: " + dispatched);
+                GestureDescription gesture = obtainGesture(index, x, y, holdMillis);
+                if (ClickLog.debug()) {
+                    Log.d(TAG, "Clicking position " + index + " -> (" + x + ", " + y + "), lateness " + clickEngine.getLastLateness() + " ms");
+                }
                 
+                // 回调投递到点击线程，与点击循环处于同一线程
+                boolean dispatched = dispatchGesture(gesture, callback, handler);
                 if (!dispatched) {
                     Log.e(TAG, "Failed to dispatch gesture - accessibility service may not be properly enabled");
                 }
+                return dispatched;
             } catch (Exception e) {
                 Log.e(TAG, "Error performing click: " + e.getMessage(), e);
             }
         } else {
             Log.e(TAG, "Device API level too low (< N), cannot perform gesture");
         }
+        return false;
+    }
+    
+    private boolean performBurst(int count, SequencedCallback callback) {
+        if (android.os.Build.VERSION.SDK_INT >= android.os.Build.VERSION_CODES.N) {
+            try {
+                GestureDescription gesture = obtainBurstGesture(count);
+                if (ClickLog.debug()) {
+                    Log.d(TAG, "Burst of " + count + " clicks from position " + clickEngine.getBurstIndex(0) + ", lateness " + clickEngine.getLastLateness() + " ms");
+                }
+                
+                boolean dispatched = dispatchGesture(gesture, callback, handler);
+                if (!dispatched) {
+                    Log.e(TAG, "Failed to dispatch burst gesture of " + count + " strokes");
+                }
+                return dispatched;
+            } catch (Exception e) {
+                Log.e(TAG, "Error performing burst: " + e.getMessage(), e);
+            }
+        } else {
+            Log.e(TAG, "Device API level too low (< N), cannot perform gesture");
+        }
+        return false;
+    }
+    
+    /**
+     * 取得本批点击的多笔画手势。所有位置偏移都为 0 时，同一起始位置、同样笔画数的手势不变，
+     * 按起始位置在点击序列中的序号缓存。
+     */
+    private GestureDescription obtainBurstGesture(int count) {
+        validateGestureCache();
+        int first = clickEngine.getBurstStartSlot();
+        boolean cacheable = !clickEngine.hasRandomOffset();
+        if (cacheable && first < burstGestureCache.length && burstGestureCache[first] != null
+                && burstGestureCounts[first] == count) {
+            return burstGestureCache[first];
+        }
+        
+        // 笔画依次错开 stagger 毫秒开始，各笔按下时长取所在位置的设置，整个手势不超过系统允许的最长时长
+        long maxHold = 0;
+        for (int i = 0; i < count; i++) {
+            maxHold = Math.max(maxHold, clickEngine.getHoldDuration(clickEngine.getBurstIndex(i)));
+        }
+        long maxDuration = GestureDescription.getMaxGestureDuration();
+        long stagger = BURST_STAGGER_MS;
+        if (count > 1) {
+            stagger = Math.max(0, Math.min(stagger, (maxDuration - maxHold) / (count - 1)));
+        }
+        GestureDescription.Builder builder = new GestureDescription.Builder();
+        for (int i = 0; i < count; i++) {
+            clickPath.reset();
+            clickPath.moveTo(clickEngine.getBurstX(i), clickEngine.getBurstY(i));
+            long hold = Math.max(1, Math.min(maxDuration, clickEngine.getHoldDuration(clickEngine.getBurstIndex(i))));
+            builder.addStroke(new GestureDescription.StrokeDescription(clickPath, i * stagger, hold));
+        }
+        GestureDescription gesture = builder.build();
+        
+        if (cacheable) {
+            if (first >= burstGestureCache.length) {
+                int size = Math.max(first + 1, clickEngine.getRoundLength());
+                GestureDescription[] grown = new GestureDescription[size];
+                System.arraycopy(burstGestureCache, 0, grown, 0, burstGestureCache.length);
+                burstGestureCache = grown;
+                burstGestureCounts = java.util.Arrays.copyOf(burstGestureCounts, size);
+            }
+            burstGestureCache[first] = gesture;
+            burstGestureCounts[first] = count;
+        }
+        return gesture;
+    }
+    
+    /**
+     * 取得本次点击的手势。位置的偏移半径为 0 时坐标固定，直接复用按位置缓存的手势；
+     * 否则复用同一个 Path（StrokeDescription 会拷贝 Path），只新建框架要求的不可变手势对象。
+     */
+    private GestureDescription obtainGesture(int index, float x, float y, long holdMillis) {
+        if (armedGesture != null) {
+            // 预备好的第一次点击
+            GestureDescription gesture = armedGesture;
+            armedGesture = null;
+            if (index == clickEngine.getArmedIndex() && x == clickEngine.getArmedX() && y == clickEngine.getArmedY()) {
+                return gesture;
+            }
+        }
+        validateGestureCache();
+        boolean cacheable = clickEngine.getOffsetRadius(index) == 0;
+        if (cacheable && index < gestureCache.length && gestureCache[index] != null) {
+            return gestureCache[index];
+        }
+        
+        GestureDescription gesture = buildGesture(x, y, holdMillis);
+        if (cacheable) {
+            if (index >= gestureCache.length) {
+                GestureDescription[] grown = new GestureDescription[Math.max(index + 1, clickEngine.getPositionCount())];
+                System.arraycopy(gestureCache, 0, grown, 0, gestureCache.length);
+                gestureCache = grown;
+            }
+            gestureCache[index] = gesture;
+        }
+        return gesture;
+    }
+    
+    private GestureDescription buildGesture(float x, float y, long holdMillis) {
+        clickPath.reset();
+        clickPath.moveTo(x, y);
+        // 手势持续时间即按下时长（默认 50ms，模拟真实点击）；系统拒绝 0 和超过最长时长的笔画
+        long duration = Math.max(1, Math.min(GestureDescription.getMaxGestureDuration(), holdMillis));
+        GestureDescription.StrokeDescription stroke = new GestureDescription.StrokeDescription(clickPath, 0, duration);
+        return new GestureDescription.Builder()
+                .addStroke(stroke)
+                .build();
+    }
+    
+    /**
+     * 位置快照变化后，按位置序号和序列位置缓存的手势都不再对应
+     */
+    private void validateGestureCache() {
+        long version = clickEngine.getPositionsVersion();
+        if (version != gestureCacheVersion) {
+            invalidateGestureCache();
+            gestureCacheVersion = version;
+        }
+    }
+    
+    private void invalidateGestureCache() {
+        java.util.Arrays.fill(gestureCache, null);
+        java.util.Arrays.fill(burstGestureCache, null);
     }
 }
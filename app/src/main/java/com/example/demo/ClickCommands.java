@@ -0,0 +1,104 @@
+package com.example.demo;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.SystemClock;
+
+/**
+ * AutoClickService 的进程内命令入口。
+ *
+ * 无障碍服务已连接时直接调用服务实例，命令投递到点击线程执行，不经过 startService 的
+ * 系统往返和 Intent 解析；服务尚未连接（或已被系统回收）时退回到原来的 Intent 方式。
+ * 点击位置不经过命令：浮窗直接修改共享的 PositionStore，服务订阅其变化。位置相关的 ACTION_* 只用于外部
+ * （如 adb）发来的 Intent。
+ */
+public final class ClickCommands {
+    public static final String EXTRA_ACTION = "action";
+    public static final String ACTION_START = "start";
+    public static final String ACTION_STOP = "stop";
+    public static final String ACTION_ARM = "arm";
+    public static final String ACTION_ADD_POSITION = "add_position";
+    public static final String ACTION_REMOVE_POSITION = "remove_position";
+    public static final String ACTION_CLEAR_POSITIONS = "clear_positions";
+    public static final String ACTION_UPDATE_POSITION = "update_position";
+    public static final String ACTION_UPDATE_SETTINGS = "update_settings";
+    public static final String ACTION_DUMP_TRACE = "dump_trace";
+
+    private ClickCommands() {
+    }
+
+    public static void start(Context context) {
+        start(context, SystemClock.elapsedRealtimeNanos());
+    }
+
+    /**
+     * @param triggerNanos 触发时刻（elapsedRealtimeNanos），服务据此统计到第一次点击分发的延迟
+     */
+    public static void start(Context context, long triggerNanos) {
+        AutoClickService service = AutoClickService.getInstance();
+        if (service != null) {
+            service.requestStart(triggerNanos);
+        } else {
+            Intent intent = newIntent(context, ACTION_START);
+            intent.putExtra("trigger_nanos", triggerNanos);
+            sendIntent(context, intent);
+        }
+    }
+
+    /**
+     * 让服务进入预备状态并预热手势管线，用于即将到来的启动（如预约到点前）
+     */
+    public static void arm(Context context) {
+        AutoClickService service = AutoClickService.getInstance();
+        if (service != null) {
+            service.requestArm();
+        } else {
+            sendIntent(context, newIntent(context, ACTION_ARM));
+        }
+    }
+
+    public static void stop(Context context) {
+        AutoClickService service = AutoClickService.getInstance();
+        if (service != null) {
+            service.requestStop();
+        } else {
+            sendIntent(context, newIntent(context, ACTION_STOP));
+        }
+    }
+
+    /**
+     * 从 update_position 命令中读取点击参数，缺少的参数取 INHERIT
+     */
+    static ClickPosition readPositionSpec(Intent intent) {
+        ClickPosition spec = new ClickPosition(0, 0);
+        spec.setRepeat(intent.getIntExtra("repeat", 1));
+        spec.setHoldMillis(intent.getLongExtra("hold_ms", ClickPosition.INHERIT));
+        spec.setOffsetRadius(intent.getIntExtra("offset", ClickPosition.INHERIT));
+        spec.setInterval(intent.getLongExtra("min_interval", ClickPosition.INHERIT),
+                intent.getLongExtra("max_interval", ClickPosition.INHERIT));
+        return spec;
+    }
+
+    /**
+     * 发送一条完整的命令 Intent（如 update_settings）。服务已连接时在进程内直接分发，
+     * 与 onStartCommand 走同一套解析逻辑。
+     */
+    public static void send(Context context, Intent intent) {
+        AutoClickService service = AutoClickService.getInstance();
+        if (service != null) {
+            service.dispatchCommand(intent);
+        } else {
+            sendIntent(context, intent);
+        }
+    }
+
+    public static Intent newIntent(Context context, String action) {
+        Intent intent = new Intent(context, AutoClickService.class);
+        intent.putExtra(EXTRA_ACTION, action);
+        return intent;
+    }
+
+    private static void sendIntent(Context context, Intent intent) {
+        context.startService(intent);
+    }
+}
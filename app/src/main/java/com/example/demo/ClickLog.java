@@ -0,0 +1,37 @@
+package com.example.demo;
+
+import android.util.Log;
+
+/**
+ * 日志开关：调用处先判断级别，再用 android.util.Log 输出。
+ *
+ * 编译期级别来自 BuildConfig.CLICK_LOG_LEVEL（常量），低于该级别时 debug()/verbose() 在 javac 常量折叠后
+ * 直接返回 false。release 构建没有开启 R8（isMinifyEnabled = false），调用处的
+ * {@code if (ClickLog.debug())} 分支仍在包里，只是在运行时一次方法调用就短路跳过；运行时级别可以再调高。
+ * 热路径上的日志必须先判断 debug()/verbose() 再构造消息，关闭时才不会拼接字符串。
+ */
+public final class ClickLog {
+    // 编译期开关：常量折叠后，被关闭级别的 debug()/verbose() 不再读取运行时级别
+    private static final boolean VERBOSE_COMPILED = BuildConfig.CLICK_LOG_LEVEL <= Log.VERBOSE;
+    private static final boolean DEBUG_COMPILED = BuildConfig.CLICK_LOG_LEVEL <= Log.DEBUG;
+
+    private static volatile int runtimeLevel = BuildConfig.CLICK_LOG_LEVEL;
+
+    private ClickLog() {
+    }
+
+    /**
+     * 设置运行时日志级别（Log.VERBOSE ~ Log.ERROR）。不会低于编译期级别。
+     */
+    public static void setLevel(int level) {
+        runtimeLevel = Math.max(level, BuildConfig.CLICK_LOG_LEVEL);
+    }
+
+    public static boolean verbose() {
+        return VERBOSE_COMPILED && runtimeLevel <= Log.VERBOSE;
+    }
+
+    public static boolean debug() {
+        return DEBUG_COMPILED && runtimeLevel <= Log.DEBUG;
+    }
+}
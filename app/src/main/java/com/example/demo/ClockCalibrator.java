@@ -0,0 +1,131 @@
+package com.example.demo;
+
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.util.Log;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 预约时间的时钟校准：向参考时间源采样，维护本机时钟的偏差估计，供 FloatingWindowService 修正截止时间。
+ * 进程内单例，设置页和浮窗共享同一份估计。
+ */
+public final class ClockCalibrator {
+    private static final String TAG = "ClockCalibrator";
+    private static final ClockCalibrator INSTANCE = new ClockCalibrator();
+
+    public static final String KEY_TIME_REF_HOST = "time_ref_host";
+    public static final String KEY_TIME_REF_PORT = "time_ref_port";
+    // 以 "sim:" 开头的地址使用本地模拟时间源，例如 "sim:250" 表示参考时钟快 250ms
+    private static final String SIMULATED_PREFIX = "sim:";
+    private static final int SOCKET_TIMEOUT_MS = 2000;
+    public static final int DEFAULT_SAMPLES = 8;
+
+    public interface Callback {
+        /** 在 callbackHandler 所在线程调用 */
+        void onCalibrated(boolean success, String message);
+    }
+
+    private final ClockOffsetEstimator estimator = new ClockOffsetEstimator();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+    private volatile TimeReference reference;
+    private String referenceKey = "";
+
+    private ClockCalibrator() {
+    }
+
+    public static ClockCalibrator getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 根据保存的设置配置参考时间源；地址为空时关闭校准。地址变化时丢弃旧的估计。
+     */
+    public synchronized void configure(SharedPreferences prefs) {
+        String host = prefs.getString(KEY_TIME_REF_HOST, "").trim();
+        int port = prefs.getInt(KEY_TIME_REF_PORT, 0);
+        String key = host + ":" + port;
+        if (key.equals(referenceKey)) {
+            return;
+        }
+        referenceKey = key;
+        estimator.reset();
+        if (host.isEmpty()) {
+            reference = null;
+        } else if (host.startsWith(SIMULATED_PREFIX)) {
+            long offset = 0;
+            try {
+                offset = Long.parseLong(host.substring(SIMULATED_PREFIX.length()));
+            } catch (NumberFormatException ignored) {
+                // 使用 0 偏差
+            }
+            reference = new SimulatedTimeReference(offset, 40, System.nanoTime());
+        } else {
+            reference = new SocketTimeReference(host, port, SOCKET_TIMEOUT_MS);
+        }
+    }
+
+    public boolean isConfigured() {
+        return reference != null;
+    }
+
+    public boolean hasEstimate() {
+        return estimator.hasEstimate();
+    }
+
+    public long getOffsetMillis() {
+        return estimator.getOffsetMillis();
+    }
+
+    public long getUncertaintyMillis() {
+        return estimator.getUncertaintyMillis();
+    }
+
+    /**
+     * 当前偏差的简短描述，例如 "+123±8ms"；没有估计时返回空字符串
+     */
+    public String describeOffset() {
+        if (!estimator.hasEstimate()) {
+            return "";
+        }
+        long offset = estimator.getOffsetMillis();
+        return (offset >= 0 ? "+" : "") + offset + "±" + estimator.getUncertaintyMillis() + "ms";
+    }
+
+    /**
+     * 在后台线程采样 samples 次，完成后在 callbackHandler 上回调
+     */
+    public void calibrate(int samples, Handler callbackHandler, Callback callback) {
+        final TimeReference ref = reference;
+        if (ref == null) {
+            callbackHandler.post(() -> callback.onCalibrated(false, "未设置参考时间源"));
+            return;
+        }
+        executor.execute(() -> {
+            int accepted = 0;
+            String error = null;
+            for (int i = 0; i < samples; i++) {
+                try {
+                    // 往返时间用单调时钟测量，避免测量期间墙上时钟被调整
+                    long sendWall = System.currentTimeMillis();
+                    long sendElapsed = SystemClock.elapsedRealtime();
+                    long referenceTime = ref.currentTimeMillis();
+                    long receiveWall = sendWall + (SystemClock.elapsedRealtime() - sendElapsed);
+                    if (estimator.addSample(sendWall, referenceTime, receiveWall)) {
+                        accepted++;
+                    }
+                } catch (Exception e) {
+                    error = e.getMessage();
+                    Log.e(TAG, "Calibration sample failed: " + error);
+                }
+            }
+            final boolean success = accepted > 0;
+            final String message = success
+                    ? "时钟偏差 " + describeOffset() + "（" + accepted + " 次采样，" + ref.describe() + "）"
+                    : "校准失败：" + error;
+            Log.d(TAG, message);
+            callbackHandler.post(() -> callback.onCalibrated(success, message));
+        });
+    }
+}
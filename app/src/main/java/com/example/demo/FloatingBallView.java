@@ -5,31 +5,45 @@ import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.RectF;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
 import android.util.AttributeSet;
 import android.view.MotionEvent;
 import android.view.View;
 import android.view.WindowManager;
-import java.util.ArrayList;
-import java.util.List;
 
 public class FloatingBallView extends View {
-    private static final String COLOR_RED = "#FF6B6B";
-    private static final String COLOR_GRAY = "#CCCCCC";
-    private static final String COLOR_DARK_GRAY = "#95A5A6";
-    private static final String COLOR_BUTTON_DEFAULT = "#6750A4"; // 按钮默认背景色（紫色）
-    private static final String COLOR_BUTTON_ACTIVE = "#FCC908"; // 按钮选中背景色（青蓝色）
+    // 颜色直接写成 ARGB 常量，绘制时不再逐帧解析字符串
+    private static final int COLOR_RED = 0xFFFF6B6B;
+    private static final int COLOR_DARK_GRAY = 0xFF95A5A6;
+    private static final int COLOR_BUTTON_DEFAULT = 0xFF6750A4; // 按钮默认背景色（紫色）
+    private static final int COLOR_BUTTON_ACTIVE = 0xFFFCC908; // 按钮选中背景色（青蓝色）
+    private static final int COLOR_TOOLBAR = 0x80000000;
+    
+    // 工具栏尺寸：左上角一列按钮，FloatingWindowService 按这些尺寸设置窗口大小
+    public static final int TOOLBAR_WIDTH = 200;
+    public static final int BUTTON_HEIGHT = 100;
+    public static final int BUTTON_COUNT = 9;
+    public static final int TOOLBAR_HEIGHT = BUTTON_HEIGHT * BUTTON_COUNT;
+    // 统计面板显示在工具栏右侧
+    public static final int STATS_PANEL_WIDTH = 460;
+    private static final int STATS_LINE_HEIGHT = 34;
     
     private Paint toolbarPaint;
     private Paint textPaint;
     private Paint buttonPaint;
-    private Paint circlePaint;
+    private Paint smallTextPaint; // 开始按钮下的首击延迟、预约时间
+    private Paint scheduleTitlePaint;
     private RectF toolbarRect;
     private RectF selectButtonRect;
     private RectF startButtonRect;
     private RectF pauseButtonRect;
     private RectF clearButtonRect;
     private RectF scheduleButtonRect;
+    private RectF statsButtonRect;
+    private RectF statsPanelRect;
     private RectF settingsButtonRect;
+    private RectF profileButtonRect;
     private RectF closeButtonRect;
     
     private boolean isSelectionMode = false;
@@ -37,47 +51,36 @@ public class FloatingBallView extends View {
     private boolean isPaused = false; // 是否处于暂停状态
     private boolean isScheduled = false; // 是否已预约
     private String scheduledTime = ""; // 预约时间显示
+    private String startLatency = ""; // 最近一次启动的首击延迟
+    private boolean isStatsVisible = false; // 是否显示统计面板
+    private String[] statsLines = new String[0];
+    private Paint statsTextPaint;
     
-    // 触摸坐标（用于绘制十字准星）
-    private float lastTouchX = 0;
-    private float lastTouchY = 0;
+    // 工具栏只在状态变化时重新录制到 RenderNode，其余帧直接重放
+    private final RenderNode toolbarNode = new RenderNode("toolbar");
+    private boolean toolbarDirty = true;
     
-    // 位置管理
-    private List<ClickPosition> clickPositions = new ArrayList<>();
-    private int maxPositions = 10; // 最多可以选取10个位置
+    // 局部重绘：状态变化的按钮、统计面板只请求重绘各自的区域
+    private final RedrawDebugPainter redraw = new RedrawDebugPainter(this);
     
-    private OnFloatingBallListener listener;
+    // 位置在 MarkerOverlayView 的窗口中绘制和选取，这里只用来判断是否已有位置
+    private final PositionStore positionStore = PositionStore.getInstance();
     
-    public static class ClickPosition {
-        private float x;
-        private float y;
-        private boolean isActive;
-        
-        public ClickPosition(float x, float y) {
-            this.x = x;
-            this.y = y;
-            this.isActive = true;
-        }
-        
-        public float getX() { return x; }
-        public float getY() { return y; }
-        public boolean isActive() { return isActive; }
-        public void setActive(boolean active) { this.isActive = active; }
-    }
+    private OnFloatingBallListener listener;
     
     public interface OnFloatingBallListener {
         void onSelectPosition();
         void onStartClicking();
         void onStopClicking();
         void onClose();
-        void onPositionSelected(float x, float y);
-        void onPositionRemoved(int index);
         void onSelectionModeChanged(boolean selectionMode);
         void showToast(String message);
         void onClearPositions();
         void onSettings();
+        void onSwitchProfile();
         void onSchedule();
         void onCancelSchedule();
+        void onToggleStats(boolean visible);
     }
     
     public FloatingBallView(Context context) {
@@ -92,7 +95,7 @@ public class FloatingBallView extends View {
     
     private void init() {
         toolbarPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        toolbarPaint.setColor(Color.parseColor("#80000000"));
+        toolbarPaint.setColor(COLOR_TOOLBAR);
         
         textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         textPaint.setColor(Color.WHITE);
@@ -101,8 +104,15 @@ public class FloatingBallView extends View {
         
         buttonPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         
-        circlePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-        circlePaint.setColor(Color.parseColor(COLOR_GRAY));
+        smallTextPaint = new Paint(textPaint);
+        smallTextPaint.setTextSize(18);
+        scheduleTitlePaint = new Paint(textPaint);
+        scheduleTitlePaint.setTextSize(28);
+        
+        statsTextPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        statsTextPaint.setColor(Color.WHITE);
+        statsTextPaint.setTextSize(24);
+        statsTextPaint.setTextAlign(Paint.Align.LEFT);
         
         toolbarRect = new RectF();
         selectButtonRect = new RectF();
@@ -110,8 +120,52 @@ public class FloatingBallView extends View {
         pauseButtonRect = new RectF();
         clearButtonRect = new RectF();
         scheduleButtonRect = new RectF();
+        statsButtonRect = new RectF();
+        statsPanelRect = new RectF();
         settingsButtonRect = new RectF();
+        profileButtonRect = new RectF();
         closeButtonRect = new RectF();
+        layoutToolbar();
+        toolbarNode.setPosition(0, 0, TOOLBAR_WIDTH, TOOLBAR_HEIGHT);
+    }
+    
+    /**
+     * 按钮位置固定，只在初始化时计算一次（触摸命中也用这些矩形）
+     */
+    private void layoutToolbar() {
+        toolbarRect.set(0, 0, TOOLBAR_WIDTH, TOOLBAR_HEIGHT);
+        RectF[] buttons = {selectButtonRect, startButtonRect, pauseButtonRect, clearButtonRect, scheduleButtonRect,
+                statsButtonRect, settingsButtonRect, profileButtonRect, closeButtonRect};
+        for (int i = 0; i < buttons.length; i++) {
+            buttons[i].set(0, BUTTON_HEIGHT * i, TOOLBAR_WIDTH, BUTTON_HEIGHT * (i + 1));
+        }
+    }
+    
+    /**
+     * 工具栏显示的状态变化后调用，下一帧重新录制工具栏，只请求重绘状态变化的按钮
+     */
+    private void invalidateToolbar(RectF button) {
+        toolbarDirty = true;
+        invalidateRegion(button.left, button.top, button.right, button.bottom);
+    }
+    
+    /**
+     * 统计面板所在的区域（面板高度随行数变化，按整个窗口高度计算）
+     */
+    private void invalidateStatsPanel() {
+        invalidateRegion(TOOLBAR_WIDTH, 0, TOOLBAR_WIDTH + STATS_PANEL_WIDTH, getHeight());
+    }
+    
+    private void invalidateRegion(float left, float top, float right, float bottom) {
+        redraw.getPending().union(left, top, right, bottom);
+        redraw.requestRedraw();
+    }
+    
+    /**
+     * 在视图最上层显示每帧请求重绘的区域和面积占比（调试用）
+     */
+    public void setRedrawDebug(boolean enabled) {
+        redraw.setEnabled(enabled);
     }
     
     public void setOnFloatingBallListener(OnFloatingBallListener listener) {
@@ -120,7 +174,7 @@ public class FloatingBallView extends View {
     
     public void setSelectionMode(boolean selectionMode) {
         this.isSelectionMode = selectionMode;
-        invalidate();
+        invalidateToolbar(selectButtonRect);
         
         // 通知服务更新窗口参数
         if (listener != null) {
@@ -134,250 +188,147 @@ public class FloatingBallView extends View {
     
     public void setClicking(boolean clicking) {
         this.isClicking = clicking;
-        invalidate();
+        invalidateToolbar(startButtonRect);
     }
     
     public void setPaused(boolean paused) {
         this.isPaused = paused;
-        invalidate();
+        invalidateToolbar(pauseButtonRect);
     }
     
     
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
+        redraw.beginFrame();
         
         // 绘制工具栏（始终在左上角固定位置）
         drawToolbar(canvas);
         
-        // 绘制选择的位置圆圈
-        drawClickPositions(canvas);
-        
-        if (isSelectionMode) {
-            // 选择模式 - 显示十字准星
-            drawCrosshair(canvas);
+        if (isStatsVisible) {
+            drawStatsPanel(canvas);
         }
+        
+        redraw.endFrame(canvas);
     }
     
     private void drawToolbar(Canvas canvas) {
-        // 工具栏尺寸
-        int toolbarWidth = 200;
-        int toolbarHeight = 700; // 7个按钮 * 100px
-        
+        if (!canvas.isHardwareAccelerated()) {
+            // 软件绘制（如截图）不能重放 RenderNode，直接画
+            drawToolbarContent(canvas);
+            return;
+        }
+        if (toolbarDirty || !toolbarNode.hasDisplayList()) {
+            RecordingCanvas recording = toolbarNode.beginRecording(TOOLBAR_WIDTH, TOOLBAR_HEIGHT);
+            try {
+                drawToolbarContent(recording);
+            } finally {
+                toolbarNode.endRecording();
+            }
+            toolbarDirty = false;
+        }
+        canvas.drawRenderNode(toolbarNode);
+    }
+    
+    private void drawToolbarContent(Canvas canvas) {
         // 工具栏背景
-        toolbarRect.set(0, 0, toolbarWidth, toolbarHeight);
         canvas.drawRoundRect(toolbarRect, 8, 8, toolbarPaint);
         
         // 绘制按钮
-        drawToolbarButtons(canvas, toolbarWidth, toolbarHeight);
+        drawToolbarButtons(canvas);
     }
     
-    private void drawToolbarButtons(Canvas canvas, int width, int height) {
-        int buttonHeight = 100; // 每个按钮100px高
-        int buttonWidth = 200;  // 每个按钮200px宽
+    private void drawToolbarButtons(Canvas canvas) {
+        int buttonHeight = BUTTON_HEIGHT; // 每个按钮100px高
+        int buttonWidth = TOOLBAR_WIDTH;  // 每个按钮200px宽
         
         // 选取按钮（第1个）
-        selectButtonRect.set(0, 0, buttonWidth, buttonHeight);
-        buttonPaint.setColor(isSelectionMode ? Color.parseColor(COLOR_BUTTON_ACTIVE) : Color.parseColor(COLOR_BUTTON_DEFAULT));
-        canvas.drawRoundRect(selectButtonRect, 4, 4, buttonPaint);
+        drawButton(canvas, selectButtonRect, isSelectionMode ? COLOR_BUTTON_ACTIVE : COLOR_BUTTON_DEFAULT);
         canvas.drawText("选取", buttonWidth/2, buttonHeight/2 + 6, textPaint);
         
         // 开始按钮（第2个）
-        startButtonRect.set(0, buttonHeight, buttonWidth, buttonHeight * 2);
-        buttonPaint.setColor(isClicking ? Color.parseColor(COLOR_BUTTON_ACTIVE) : Color.parseColor(COLOR_BUTTON_DEFAULT));
-        canvas.drawRoundRect(startButtonRect, 4, 4, buttonPaint);
-        canvas.drawText("开始", buttonWidth/2, buttonHeight * 1.5f + 6, textPaint);
+        drawButton(canvas, startButtonRect, isClicking ? COLOR_BUTTON_ACTIVE : COLOR_BUTTON_DEFAULT);
+        if (!startLatency.isEmpty()) {
+            // 显示"开始"和最近一次的首击延迟
+            canvas.drawText("开始", buttonWidth/2, buttonHeight * 1.4f + 6, textPaint);
+            canvas.drawText(startLatency, buttonWidth/2, buttonHeight * 1.75f + 6, smallTextPaint);
+        } else {
+            canvas.drawText("开始", buttonWidth/2, buttonHeight * 1.5f + 6, textPaint);
+        }
         
         // 暂停按钮（第3个）
-        pauseButtonRect.set(0, buttonHeight * 2, buttonWidth, buttonHeight * 3);
-        buttonPaint.setColor(isPaused ? Color.parseColor(COLOR_BUTTON_ACTIVE) : Color.parseColor(COLOR_BUTTON_DEFAULT));
-        canvas.drawRoundRect(pauseButtonRect, 4, 4, buttonPaint);
+        drawButton(canvas, pauseButtonRect, isPaused ? COLOR_BUTTON_ACTIVE : COLOR_BUTTON_DEFAULT);
         canvas.drawText("暂停", buttonWidth/2, buttonHeight * 2.5f + 6, textPaint);
         
         // 清空按钮（第4个）
-        clearButtonRect.set(0, buttonHeight * 3, buttonWidth, buttonHeight * 4);
-        buttonPaint.setColor(Color.parseColor(COLOR_BUTTON_DEFAULT));
-        canvas.drawRoundRect(clearButtonRect, 4, 4, buttonPaint);
+        drawButton(canvas, clearButtonRect, COLOR_BUTTON_DEFAULT);
         canvas.drawText("清空", buttonWidth/2, buttonHeight * 3.5f + 6, textPaint);
         
         // 预约按钮（第5个）
-        scheduleButtonRect.set(0, buttonHeight * 4, buttonWidth, buttonHeight * 5);
-        buttonPaint.setColor(isScheduled ? Color.parseColor(COLOR_BUTTON_ACTIVE) : Color.parseColor(COLOR_BUTTON_DEFAULT));
-        canvas.drawRoundRect(scheduleButtonRect, 4, 4, buttonPaint);
+        drawButton(canvas, scheduleButtonRect, isScheduled ? COLOR_BUTTON_ACTIVE : COLOR_BUTTON_DEFAULT);
         
         // 绘制预约按钮文字和时间
-        Paint smallTextPaint = new Paint(textPaint);
         if (isScheduled && !scheduledTime.isEmpty()) {
             // 已预约：显示"已预约"和预约时间
-            smallTextPaint.setTextSize(28);
-            canvas.drawText("已预约", buttonWidth/2, buttonHeight * 4.3f + 6, smallTextPaint);
-            smallTextPaint.setTextSize(18);
+            canvas.drawText("已预约", buttonWidth/2, buttonHeight * 4.3f + 6, scheduleTitlePaint);
             canvas.drawText(scheduledTime, buttonWidth/2, buttonHeight * 4.7f + 6, smallTextPaint);
         } else {
             // 未预约：只显示"预约"
             canvas.drawText("预约", buttonWidth/2, buttonHeight * 4.5f + 6, textPaint);
         }
         
-        // 设置按钮（第6个，深灰色）
-        settingsButtonRect.set(0, buttonHeight * 5, buttonWidth, buttonHeight * 6);
-        buttonPaint.setColor(Color.parseColor(COLOR_DARK_GRAY));
-        canvas.drawRoundRect(settingsButtonRect, 4, 4, buttonPaint);
-        canvas.drawText("设置", buttonWidth/2, buttonHeight * 5.5f + 6, textPaint);
-        
-        // 关闭按钮（第7个，最下方，红色）
-        closeButtonRect.set(0, buttonHeight * 6, buttonWidth, buttonHeight * 7);
-        buttonPaint.setColor(Color.parseColor(COLOR_RED));
-        canvas.drawRoundRect(closeButtonRect, 4, 4, buttonPaint);
-        canvas.drawText("关闭", buttonWidth/2, buttonHeight * 6.5f + 6, textPaint);
-    }
-    
-    private void drawClickPositions(Canvas canvas) {
-        // 获取View在屏幕上的位置
-        int[] location = new int[2];
-        getLocationOnScreen(location);
-        
-        for (int i = 0; i < clickPositions.size(); i++) {
-            ClickPosition pos = clickPositions.get(i);
-            if (pos.isActive()) {
-                // 将全局屏幕坐标转换为View内的相对坐标
-                float localX = pos.getX() - location[0];
-                float localY = pos.getY() - location[1];
-                
-                // 始终使用灰色
-                circlePaint.setColor(Color.parseColor(COLOR_GRAY)); // 半透明灰色
-                canvas.drawCircle(localX, localY, 30, circlePaint); // 30px 半径
-                
-                // 绘制序号
-                Paint numberPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
-                numberPaint.setColor(Color.BLACK);
-                numberPaint.setTextSize(20);
-                numberPaint.setTextAlign(Paint.Align.CENTER);
-                numberPaint.setStyle(Paint.Style.FILL);
-                
-                // 计算文字位置（居中）
-                Paint.FontMetrics fontMetrics = numberPaint.getFontMetrics();
-                float textY = localY - (fontMetrics.ascent + fontMetrics.descent) / 2;
-                
-                canvas.drawText(String.valueOf(i + 1), localX, textY, numberPaint);
-            }
-        }
+        // 统计按钮（第6个）
+        drawButton(canvas, statsButtonRect, isStatsVisible ? COLOR_BUTTON_ACTIVE : COLOR_BUTTON_DEFAULT);
+        canvas.drawText("统计", buttonWidth/2, buttonHeight * 5.5f + 6, textPaint);
+        
+        // 设置按钮（第7个，深灰色）
+        drawButton(canvas, settingsButtonRect, COLOR_DARK_GRAY);
+        canvas.drawText("设置", buttonWidth/2, buttonHeight * 6.5f + 6, textPaint);
+        
+        // 方案按钮（第8个）：切换到下一个保存的方案
+        drawButton(canvas, profileButtonRect, COLOR_BUTTON_DEFAULT);
+        canvas.drawText("方案", buttonWidth/2, buttonHeight * 7.5f + 6, textPaint);
+        
+        // 关闭按钮（第9个，最下方，红色）
+        drawButton(canvas, closeButtonRect, COLOR_RED);
+        canvas.drawText("关闭", buttonWidth/2, buttonHeight * 8.5f + 6, textPaint);
     }
     
-    private void drawCrosshair(Canvas canvas) {
-        // 绘制十字准星
-        textPaint.setColor(Color.RED);
-        textPaint.setStrokeWidth(3);
-        // 这里需要获取当前触摸位置来绘制十字准星
-        if (lastTouchX > 0 && lastTouchY > 0) {
-            canvas.drawLine(lastTouchX - 20, lastTouchY, lastTouchX + 20, lastTouchY, textPaint);
-            canvas.drawLine(lastTouchX, lastTouchY - 20, lastTouchX, lastTouchY + 20, textPaint);
-        }
-        textPaint.setStrokeWidth(1);
-        textPaint.setColor(Color.WHITE);
+    private void drawButton(Canvas canvas, RectF rect, int color) {
+        buttonPaint.setColor(color);
+        canvas.drawRoundRect(rect, 4, 4, buttonPaint);
     }
     
+    private void drawStatsPanel(Canvas canvas) {
+        // 工具栏右侧的半透明面板，逐行显示统计摘要
+        int lines = Math.max(statsLines.length, 1);
+        statsPanelRect.set(TOOLBAR_WIDTH, 0, TOOLBAR_WIDTH + STATS_PANEL_WIDTH, lines * STATS_LINE_HEIGHT + 24);
+        canvas.drawRoundRect(statsPanelRect, 8, 8, toolbarPaint);
+        if (statsLines.length == 0) {
+            canvas.drawText("无障碍服务未连接", TOOLBAR_WIDTH + 16, STATS_LINE_HEIGHT, statsTextPaint);
+            return;
+        }
+        for (int i = 0; i < statsLines.length; i++) {
+            canvas.drawText(statsLines[i], TOOLBAR_WIDTH + 16, (i + 1) * STATS_LINE_HEIGHT, statsTextPaint);
+        }
+    }
     
     @Override
     public boolean onTouchEvent(MotionEvent event) {
         float x = event.getX();
         float y = event.getY();
         
-        android.util.Log.d("FloatingBallView", "Touch event: " + event.getAction() + " at (" + x + "," + y + ") selectionMode=" + isSelectionMode);
-        
-        switch (event.getAction()) {
-            case MotionEvent.ACTION_DOWN:
-                lastTouchX = x;
-                lastTouchY = y;
-                boolean handled = handleTouchDown(x, y);
-                android.util.Log.d("FloatingBallView", "ACTION_DOWN handled: " + handled);
-                return handled;
-            case MotionEvent.ACTION_MOVE:
-                if (isSelectionMode) {
-                    lastTouchX = x;
-                    lastTouchY = y;
-                    invalidate(); // 重绘十字准星
-                    return true;
-                }
-                // 不在选取模式，返回false让事件穿透
-                return false;
-            case MotionEvent.ACTION_UP:
-                // 返回false让事件穿透
-                return false;
-        }
-        return false;
-    }
-    
-    private boolean handleTouchDown(float x, float y) {
-        // 始终优先检查工具栏按钮点击
-        // 工具栏固定在左上角200x700区域（7个按钮）
-        if (x >= 0 && x <= 200 && y >= 0 && y <= 700) {
-            // 点击在工具栏区域内，尝试处理按钮点击
-            boolean handled = handleButtonTouch(x, y);
-            if (handled) {
-                // 按钮被点击，消费事件
-                return true;
-            } else if (isSelectionMode) {
-                // 在选取模式下，工具栏空白区域也不穿透
-                return true;
-            } else {
-                // 不在选取模式，工具栏空白区域穿透
-                return false;
-            }
-        } else if (isSelectionMode) {
-            // 点击在工具栏外部，且在选取模式下，处理位置选取
-            return handleSelectionModeTouch(x, y);
-        } else {
-            // 不在工具栏区域，且不在选取模式，返回false让事件穿透
-            return false;
-        }
-    }
-    
-    private boolean handleSelectionModeTouch(float x, float y) {
-        // 获取工具栏在屏幕上的位置
-        int[] location = new int[2];
-        getLocationOnScreen(location);
-        
-        // 计算全局屏幕坐标
-        float screenX = location[0] + x;
-        float screenY = location[1] + y;
-        
-        // 调试信息
-        android.util.Log.d("FloatingBallView", "Selection touch: local(" + x + "," + y + ") screen(" + screenX + "," + screenY + ")");
-        android.util.Log.d("FloatingBallView", "Toolbar location: (" + location[0] + "," + location[1] + ")");
-        
-        // 检查是否点击了已存在的位置圆圈（点击相同位置则取消）
-        for (int i = 0; i < clickPositions.size(); i++) {
-            ClickPosition pos = clickPositions.get(i);
-            if (pos.isActive() && isPointInCircle(screenX, screenY, pos.getX(), pos.getY(), 30)) {
-                // 点击了已存在的位置，取消这个位置
-                clickPositions.remove(i);
-                if (listener != null) {
-                    listener.onPositionRemoved(i);
-                }
-                invalidate();
-                android.util.Log.d("FloatingBallView", "Removed position " + i + " at (" + screenX + "," + screenY + ")");
-                return true;
-            }
-        }
-        
-        // 检查是否已达到最大位置数
-        if (clickPositions.size() >= maxPositions) {
-            if (listener != null) {
-                listener.showToast("最多只能选取 " + maxPositions + " 个位置");
-            }
-            return true;
+        if (ClickLog.verbose()) {
+            android.util.Log.v("FloatingBallView", "Touch event: " + event.getAction() + " at (" + x + "," + y + ")");
         }
         
-        // 添加新位置
-        ClickPosition newPos = new ClickPosition(screenX, screenY);
-        clickPositions.add(newPos);
-        if (listener != null) {
-            listener.onPositionSelected(screenX, screenY);
+        if (event.getAction() == MotionEvent.ACTION_DOWN) {
+            // 位置的选取在标记窗口中处理，这里只有工具栏按钮
+            boolean handled = handleButtonTouch(x, y);
+            android.util.Log.d("FloatingBallView", "ACTION_DOWN handled: " + handled);
+            return handled;
         }
-        invalidate();
-        android.util.Log.d("FloatingBallView", "Added position " + (clickPositions.size() - 1) + " at (" + screenX + "," + screenY + ")");
-        
-        return true;
+        return false;
     }
     
     private boolean handleButtonTouch(float x, float y) {
@@ -396,9 +347,15 @@ public class FloatingBallView extends View {
         } else if (scheduleButtonRect.contains(x, y)) {
             handleScheduleButtonClick();
             return true;
+        } else if (statsButtonRect.contains(x, y)) {
+            handleStatsButtonClick();
+            return true;
         } else if (settingsButtonRect.contains(x, y)) {
             handleSettingsButtonClick();
             return true;
+        } else if (profileButtonRect.contains(x, y)) {
+            handleProfileButtonClick();
+            return true;
         } else if (closeButtonRect.contains(x, y)) {
             handleCloseButtonClick();
             return true;
@@ -406,10 +363,6 @@ public class FloatingBallView extends View {
         return false;
     }
     
-    private boolean isPointInCircle(float px, float py, float cx, float cy, float radius) {
-        float distance = (float) Math.sqrt((px - cx) * (px - cx) + (py - cy) * (py - cy));
-        return distance <= radius;
-    }
     
     private void handleSelectButtonClick() {
         // 如果已预约，取消预约（需求5）
@@ -426,7 +379,7 @@ public class FloatingBallView extends View {
         if (listener != null) {
             listener.onSelectPosition();
         }
-        invalidate();
+        invalidateToolbar(selectButtonRect);
     }
     
     private void handleStartButtonClick() {
@@ -435,9 +388,10 @@ public class FloatingBallView extends View {
             cancelSchedule();
         }
         
-        android.util.Log.d("FloatingBallView", "Start button clicked, positions: " + clickPositions.size());
+        PositionStore.Snapshot positions = positionStore.snapshot();
+        android.util.Log.d("FloatingBallView", "Start button clicked, positions: " + positions.size());
         
-        if (clickPositions.isEmpty()) {
+        if (positions.isEmpty()) {
             // 没有已选位置，提示用户
             android.util.Log.d("FloatingBallView", "No positions selected, showing toast");
             if (listener != null) {
@@ -446,10 +400,12 @@ public class FloatingBallView extends View {
             return;
         }
         
-        // 打印所有位置
-        for (int i = 0; i < clickPositions.size(); i++) {
-            ClickPosition pos = clickPositions.get(i);
-            android.util.Log.d("FloatingBallView", "Position " + i + ": (" + pos.getX() + "," + pos.getY() + ")");
+        // 逐个打印位置（位置可达上千个，只在逐次日志开启时输出，不拖慢开始）
+        if (ClickLog.verbose()) {
+            for (int i = 0; i < positions.size(); i++) {
+                ClickPosition pos = positions.get(i);
+                android.util.Log.v("FloatingBallView", "Position " + i + ": (" + pos.getX() + "," + pos.getY() + ")");
+            }
         }
         
         // 退出选取模式
@@ -524,6 +480,16 @@ public class FloatingBallView extends View {
         }
     }
     
+    private void handleProfileButtonClick() {
+        // 正在点击时也可以切换，点击线程在下一个节拍换用新方案的位置
+        if (isScheduled) {
+            cancelSchedule();
+        }
+        if (listener != null) {
+            listener.onSwitchProfile();
+        }
+    }
+    
     private void handleCloseButtonClick() {
         // 如果已预约，取消预约（需求5）
         if (isScheduled) {
@@ -552,8 +518,7 @@ public class FloatingBallView extends View {
     }
     
     public void clearAllPositions() {
-        clickPositions.clear();
-        invalidate();
+        positionStore.clear();
     }
     
     private void handleScheduleButtonClick() {
@@ -572,7 +537,7 @@ public class FloatingBallView extends View {
         }
         
         // 需求2：需要已选取位置后才能点击
-        if (clickPositions.isEmpty()) {
+        if (positionStore.snapshot().isEmpty()) {
             if (listener != null) {
                 listener.showToast("请先选取位置");
             }
@@ -591,19 +556,51 @@ public class FloatingBallView extends View {
         }
     }
     
+    private void handleStatsButtonClick() {
+        // 切换统计面板，面板内容由服务定时刷新
+        isStatsVisible = !isStatsVisible;
+        if (listener != null) {
+            listener.onToggleStats(isStatsVisible);
+        }
+        invalidateToolbar(statsButtonRect);
+        invalidateStatsPanel();
+    }
+    
+    public boolean isStatsVisible() {
+        return isStatsVisible;
+    }
+    
+    /**
+     * 更新统计面板的内容，空数组表示没有数据来源
+     */
+    public void setStatsLines(String[] lines) {
+        this.statsLines = lines;
+        if (isStatsVisible) {
+            invalidateStatsPanel();
+        }
+    }
+    
     private void cancelSchedule() {
         isScheduled = false;
         scheduledTime = "";
         if (listener != null) {
             listener.onCancelSchedule();
         }
-        invalidate();
+        invalidateToolbar(scheduleButtonRect);
     }
     
     public void setScheduledTime(String time) {
         this.scheduledTime = time;
         this.isScheduled = !time.isEmpty();
-        invalidate();
+        invalidateToolbar(scheduleButtonRect);
+    }
+    
+    /**
+     * 设置开始按钮下方的首击延迟文字，空字符串表示不显示
+     */
+    public void setStartLatency(String latency) {
+        this.startLatency = latency;
+        invalidateToolbar(startButtonRect);
     }
     
     public boolean isScheduled() {
@@ -612,23 +609,18 @@ public class FloatingBallView extends View {
     
     @Override
     public boolean dispatchTouchEvent(MotionEvent event) {
-        // 在非选取模式下，只有工具栏区域接收触摸
+        // 窗口只有工具栏（和统计面板）大小，只有工具栏区域接收触摸
         float x = event.getX();
         float y = event.getY();
         
-        android.util.Log.d("FloatingBallView", "dispatchTouchEvent: (" + x + "," + y + ") isSelectionMode=" + isSelectionMode);
-        
-        if (!isSelectionMode) {
-            // 非选取模式：只有工具栏区域（200×700）接收触摸
-            if (x < 0 || x > 200 || y < 0 || y > 700) {
-                // 工具栏外部，不处理触摸事件
-                android.util.Log.d("FloatingBallView", "Outside toolbar, returning false (should penetrate)");
-                return false;
-            }
+        if (ClickLog.verbose()) {
+            android.util.Log.v("FloatingBallView", "dispatchTouchEvent: (" + x + "," + y + ")");
         }
         
-        // 选取模式或工具栏区域内，正常处理
-        android.util.Log.d("FloatingBallView", "Inside toolbar or selection mode, calling super");
+        if (x < 0 || x > TOOLBAR_WIDTH || y < 0 || y > TOOLBAR_HEIGHT) {
+            // 统计面板等工具栏外部，不处理触摸事件
+            return false;
+        }
         return super.dispatchTouchEvent(event);
     }
 }
@@ -1,5 +1,6 @@
 package com.example.demo;
 
+import android.app.AlertDialog;
 import android.app.Service;
 import android.content.Intent;
 import android.content.SharedPreferences;
@@ -7,27 +8,62 @@ import android.graphics.PixelFormat;
 import android.os.Build;
 import android.os.Handler;
 import android.os.IBinder;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.provider.Settings;
+import android.text.InputType;
 import android.view.Gravity;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.WindowManager;
+import android.widget.EditText;
+import android.widget.LinearLayout;
 import android.widget.Toast;
-import java.util.Calendar;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.TimeZone;
 
 public class FloatingWindowService extends Service {
     private static final String ACTION_SHOW = "show";
     private static final String ACTION_HIDE = "hide";
-    private static final String ACTION_START = "start";
-    private static final String ACTION_STOP = "stop";
     private static final String EXTRA_ACTION = "action";
     
     private WindowManager windowManager;
     private FloatingBallView floatingBallView;
     private boolean isFloatingViewVisible = false;
     private WindowManager.LayoutParams layoutParams;
-    private Handler scheduleHandler = new Handler();
-    private Runnable scheduleCheckRunnable;
+    // 位置标记在单独的全屏窗口中，平时不可触摸，没有要显示的标记时隐藏
+    private MarkerOverlayView markerView;
+    private WindowManager.LayoutParams markerParams;
+    private boolean isClickingActive = false; // 点击进行中不显示标记，下层应用不必与全屏的半透明层合成
+    private PreciseScheduler preciseScheduler;
+    private boolean isScheduleActive = false;
+    // 预约到点已发出启动命令，等第一次点击分发后报告相对截止时间的误差；由调度线程置位，主线程读取
+    private volatile boolean awaitingScheduledStart = false;
+    // 窗口稳定检测的最长等待时间（毫秒）
+    private static final long WINDOW_SETTLE_TIMEOUT_MS = 300;
+    private WindowSettleDetector windowSettleDetector;
+    // 统计面板刷新间隔（毫秒）
+    private static final long STATS_REFRESH_MS = 500;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final PositionStore.Listener positionListener = snapshot -> mainHandler.post(this::updateMarkerWindow);
+    // 设置页切换“显示重绘区域”时，浮窗显示期间立即生效
+    private final SharedPreferences.OnSharedPreferenceChangeListener prefsListener = (prefs, key) -> {
+        if ("debug_redraw".equals(key)) {
+            applyRedrawDebug();
+        }
+    };
+    private final Runnable statsRefreshRunnable = new Runnable() {
+        @Override
+        public void run() {
+            if (floatingBallView == null || !isFloatingViewVisible || !floatingBallView.isStatsVisible()) {
+                return;
+            }
+            AutoClickService service = AutoClickService.getInstance();
+            floatingBallView.setStatsLines(service != null ? service.getMetrics().summaryLines() : new String[0]);
+            mainHandler.postDelayed(this, STATS_REFRESH_MS);
+        }
+    };
     private SharedPreferences sharedPreferences;
 
     @Override
@@ -35,6 +71,20 @@ public class FloatingWindowService extends Service {
         super.onCreate();
         windowManager = (WindowManager) getSystemService(WINDOW_SERVICE);
         sharedPreferences = getSharedPreferences("AutoClickerPrefs", MODE_PRIVATE);
+        preciseScheduler = new PreciseScheduler(this, mainHandler);
+        // 在开始按钮下显示从触发到第一次点击分发的延迟
+        // 预约启动时触发时刻就是截止时间，这里的延迟即第一次点击相对预约时间的误差
+        AutoClickService.setStartListener((latencyNanos, armed) -> {
+            if (floatingBallView != null && isFloatingViewVisible) {
+                floatingBallView.setStartLatency(String.format("首击 %.1f ms%s", latencyNanos / 1_000_000.0, armed ? "" : "*"));
+            }
+            if (awaitingScheduledStart) {
+                awaitingScheduledStart = false;
+                String error = String.format(Locale.getDefault(), "%.2f", latencyNanos / 1_000_000.0);
+                android.util.Log.d("FloatingWindowService", "Scheduled start: first click " + error + " ms after deadline");
+                Toast.makeText(FloatingWindowService.this, "预约时间已到，开始自动点击（首击误差 " + error + " ms）", Toast.LENGTH_SHORT).show();
+            }
+        });
     }
 
     @Override
@@ -78,22 +128,28 @@ public class FloatingWindowService extends Service {
 
             @Override
             public void onStartClicking() {
-                // 开始自动连击
+                // 开始自动连击，记录触发时刻用于统计首击延迟
+                final long triggerNanos = SystemClock.elapsedRealtimeNanos();
                 android.util.Log.d("FloatingWindowService", "onStartClicking called");
                 
                 // 设置窗口为穿透模式，让点击能够作用到底层应用
                 setClickThroughMode(true);
+                isClickingActive = true;
+                updateMarkerWindow();
                 
                 // 等待窗口布局完全稳定后再发送点击命令
-                waitForWindowStableAndStartClicking();
+                waitForWindowStableAndStartClicking(triggerNanos);
             }
 
             @Override
             public void onStopClicking() {
-                // 停止自动连击
-                Intent serviceIntent = new Intent(FloatingWindowService.this, AutoClickService.class);
-                serviceIntent.putExtra(EXTRA_ACTION, ACTION_STOP);
-                startService(serviceIntent);
+                // 停止自动连击（包括还在等待窗口稳定、尚未发出的启动）
+                if (windowSettleDetector != null) {
+                    windowSettleDetector.cancel();
+                }
+                ClickCommands.stop(FloatingWindowService.this);
+                isClickingActive = false;
+                updateMarkerWindow();
                 
                 // 暂停时仍然保持穿透模式，不恢复正常
                 // setClickThroughMode(false);
@@ -104,29 +160,6 @@ public class FloatingWindowService extends Service {
                 hideFloatingView();
             }
 
-            @Override
-            public void onPositionSelected(float x, float y) {
-                // 通知AutoClickService添加新位置
-                android.util.Log.d("FloatingWindowService", "onPositionSelected: (" + x + "," + y + ")");
-                Intent serviceIntent = new Intent(FloatingWindowService.this, AutoClickService.class);
-                serviceIntent.putExtra(EXTRA_ACTION, "add_position");
-                serviceIntent.putExtra("x", x);
-                serviceIntent.putExtra("y", y);
-                startService(serviceIntent);
-                
-                // 选中位置后，扩展窗口到全屏以显示标记
-                expandWindowForMarker();
-            }
-
-            @Override
-            public void onPositionRemoved(int index) {
-                // 通知AutoClickService移除位置
-                Intent serviceIntent = new Intent(FloatingWindowService.this, AutoClickService.class);
-                serviceIntent.putExtra(EXTRA_ACTION, "remove_position");
-                serviceIntent.putExtra("index", index);
-                startService(serviceIntent);
-            }
-
             @Override
             public void onSelectionModeChanged(boolean selectionMode) {
                 // 更新窗口参数以支持选取模式
@@ -141,14 +174,8 @@ public class FloatingWindowService extends Service {
 
             @Override
             public void onClearPositions() {
-                // 清空位置
+                // 位置已在浮窗中清空（共享的 PositionStore），标记窗口随存储的变化通知隐藏
                 android.util.Log.d("FloatingWindowService", "onClearPositions called");
-                Intent serviceIntent = new Intent(FloatingWindowService.this, AutoClickService.class);
-                serviceIntent.putExtra(EXTRA_ACTION, "clear_positions");
-                startService(serviceIntent);
-                
-                // 清空位置后，缩小窗口到工具栏大小
-                shrinkWindowToToolbar();
             }
 
             @Override
@@ -160,6 +187,11 @@ public class FloatingWindowService extends Service {
                 startActivity(mainIntent);
             }
 
+            @Override
+            public void onSwitchProfile() {
+                switchToNextProfile();
+            }
+
             @Override
             public void onSchedule() {
                 // 激活预约
@@ -176,14 +208,32 @@ public class FloatingWindowService extends Service {
                     return;
                 }
                 
-                // 启动预约定时检查（需求4）
-                String timeStr = String.format("%02d:%02d:%02d", hour, minute, second);
-                startSchedule(hour, minute, second);
-                
-                // 需求3：激活按钮并显示预约时间
-                floatingBallView.setScheduledTime(timeStr);
-                Toast.makeText(FloatingWindowService.this, "预约成功：" + timeStr, Toast.LENGTH_SHORT).show();
-                android.util.Log.d("FloatingWindowService", "Schedule activated: " + timeStr);
+                // 设置了参考时间源时先校准时钟偏差，再启动预约
+                ClockCalibrator calibrator = ClockCalibrator.getInstance();
+                calibrator.configure(sharedPreferences);
+                if (calibrator.isConfigured()) {
+                    Toast.makeText(FloatingWindowService.this, "正在校准时钟…", Toast.LENGTH_SHORT).show();
+                    calibrator.calibrate(ClockCalibrator.DEFAULT_SAMPLES, mainHandler,
+                            (success, message) -> {
+                                android.util.Log.d("FloatingWindowService", message);
+                                if (!success) {
+                                    Toast.makeText(FloatingWindowService.this, message + "，按本机时间预约", Toast.LENGTH_SHORT).show();
+                                }
+                                activateSchedule(hour, minute, second);
+                            });
+                } else {
+                    activateSchedule(hour, minute, second);
+                }
+            }
+
+            @Override
+            public void onToggleStats(boolean visible) {
+                // 显示统计面板时加宽窗口，并定时刷新面板内容
+                mainHandler.removeCallbacks(statsRefreshRunnable);
+                if (visible) {
+                    statsRefreshRunnable.run();
+                }
+                updateToolbarWindowSize();
             }
 
             @Override
@@ -214,8 +264,8 @@ public class FloatingWindowService extends Service {
         });
 
         layoutParams = new WindowManager.LayoutParams(
-                200, // 初始化为工具栏宽度
-                700, // 初始化为工具栏高度（7个按钮）
+                FloatingBallView.TOOLBAR_WIDTH, // 初始化为工具栏宽度
+                FloatingBallView.TOOLBAR_HEIGHT, // 初始化为工具栏高度
                 Build.VERSION.SDK_INT >= Build.VERSION_CODES.O ?
                         WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY :
                         WindowManager.LayoutParams.TYPE_PHONE,
@@ -229,18 +279,206 @@ public class FloatingWindowService extends Service {
         layoutParams.x = 0; // 左上角
         layoutParams.y = 0;
 
+        // 标记窗口先添加，工具栏窗口在它上面，选取模式下也能点到工具栏按钮
+        addMarkerWindow();
         windowManager.addView(floatingBallView, layoutParams);
         isFloatingViewVisible = true;
+        PositionStore.getInstance().addListener(positionListener);
+        sharedPreferences.registerOnSharedPreferenceChangeListener(prefsListener);
+        applyRedrawDebug();
+        updateMarkerWindow();
+    }
+
+    private void applyRedrawDebug() {
+        if (floatingBallView == null || !isFloatingViewVisible) {
+            return;
+        }
+        boolean enabled = sharedPreferences.getBoolean("debug_redraw", false);
+        floatingBallView.setRedrawDebug(enabled);
+        markerView.setRedrawDebug(enabled);
+    }
+
+    private void addMarkerWindow() {
+        markerView = new MarkerOverlayView(this);
+        markerView.setListener(new MarkerOverlayView.Listener() {
+            @Override
+            public void onPositionSelected(float x, float y) {
+                // 位置已写入共享的 PositionStore，AutoClickService 通过订阅得到通知
+                android.util.Log.d("FloatingWindowService", "onPositionSelected: (" + x + "," + y + ")");
+            }
+
+            @Override
+            public void onEditPosition(long id, int index, ClickPosition position) {
+                showPositionEditor(id, index, position);
+            }
+
+            @Override
+            public void showToast(String message) {
+                Toast.makeText(FloatingWindowService.this, message, Toast.LENGTH_SHORT).show();
+            }
+        });
+        markerParams = new WindowManager.LayoutParams(
+                WindowManager.LayoutParams.MATCH_PARENT,
+                WindowManager.LayoutParams.MATCH_PARENT,
+                Build.VERSION.SDK_INT >= Build.VERSION_CODES.O ?
+                        WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY :
+                        WindowManager.LayoutParams.TYPE_PHONE,
+                markerWindowFlags(false),
+                PixelFormat.TRANSLUCENT
+        );
+        markerParams.gravity = Gravity.TOP | Gravity.START;
+        markerView.setVisibility(View.GONE);
+        windowManager.addView(markerView, markerParams);
+    }
+
+    /**
+     * 标记窗口的标志：只有选取模式下可触摸，其余时候触摸和分发的手势都穿过它
+     */
+    private static int markerWindowFlags(boolean touchable) {
+        int flags = WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE
+                | WindowManager.LayoutParams.FLAG_LAYOUT_IN_SCREEN;
+        return touchable ? flags | WindowManager.LayoutParams.FLAG_NOT_TOUCH_MODAL
+                : flags | WindowManager.LayoutParams.FLAG_NOT_TOUCHABLE;
+    }
+
+    /**
+     * 按选取模式、是否有位置、是否正在点击更新标记窗口：选取时显示并可触摸；有位置且未在点击时只显示；
+     * 否则隐藏（根视图 GONE 时窗口不参与合成，窗口保留以维持在工具栏下方的层次）
+     */
+    private void updateMarkerWindow() {
+        if (markerView == null || !isFloatingViewVisible) {
+            return;
+        }
+        boolean selecting = markerView.isSelectionMode();
+        boolean visible = selecting || (!isClickingActive && !PositionStore.getInstance().snapshot().isEmpty());
+        int flags = markerWindowFlags(selecting);
+        if (markerParams.flags != flags) {
+            markerParams.flags = flags;
+            windowManager.updateViewLayout(markerView, markerParams);
+        }
+        int visibility = visible ? View.VISIBLE : View.GONE;
+        if (markerView.getVisibility() != visibility) {
+            markerView.setVisibility(visibility);
+        }
     }
 
     private void hideFloatingView() {
         if (floatingBallView != null && isFloatingViewVisible) {
             cancelSchedule();
+            mainHandler.removeCallbacks(statsRefreshRunnable);
+            if (windowSettleDetector != null) {
+                windowSettleDetector.cancel();
+                windowSettleDetector = null;
+            }
+            PositionStore.getInstance().removeListener(positionListener);
+            sharedPreferences.unregisterOnSharedPreferenceChangeListener(prefsListener);
             windowManager.removeView(floatingBallView);
+            windowManager.removeView(markerView);
+            markerView = null;
             isFloatingViewVisible = false;
         }
     }
 
+    /**
+     * 编辑位置的点击参数：每轮次数、按下时长、偏移半径和间隔范围，留空的项使用全局设置
+     */
+    private void showPositionEditor(long id, int index, ClickPosition position) {
+        LinearLayout form = new LinearLayout(this);
+        form.setOrientation(LinearLayout.VERTICAL);
+        form.setPadding(48, 16, 48, 0);
+        EditText repeatInput = addNumberField(form, "每轮点击次数（1-" + ClickPosition.MAX_REPEAT + "）",
+                position.getRepeat() > 1 ? position.getRepeat() : ClickPosition.INHERIT);
+        EditText holdInput = addNumberField(form, "按下时长（1-" + ClickPosition.MAX_HOLD_MILLIS + " 毫秒）",
+                position.getHoldMillis());
+        EditText offsetInput = addNumberField(form, "随机偏移半径（像素）", position.getOffsetRadius());
+        EditText minInput = addNumberField(form, "最小间隔（" + ClickPosition.MIN_INTERVAL_MILLIS + "-"
+                + ClickPosition.MAX_INTERVAL_MILLIS + " 毫秒）", position.getMinInterval());
+        EditText maxInput = addNumberField(form, "最大间隔（" + ClickPosition.MIN_INTERVAL_MILLIS + "-"
+                + ClickPosition.MAX_INTERVAL_MILLIS + " 毫秒）", position.getMaxInterval());
+
+        AlertDialog dialog = new AlertDialog.Builder(this)
+                .setTitle("位置 " + (index + 1) + " 的点击参数（留空使用全局设置）")
+                .setView(form)
+                .setPositiveButton("保存", (d, which) -> {
+                    long hold = parseField(holdInput, ClickPosition.INHERIT);
+                    if (hold != ClickPosition.INHERIT && !ClickPosition.isValidHold(hold)) {
+                        Toast.makeText(this, "按下时长需在 1-" + ClickPosition.MAX_HOLD_MILLIS + " 毫秒之间，未保存",
+                                Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    long min = parseField(minInput, ClickPosition.INHERIT);
+                    long max = parseField(maxInput, ClickPosition.INHERIT);
+                    boolean intervalSet = min != ClickPosition.INHERIT || max != ClickPosition.INHERIT;
+                    if (intervalSet && !ClickPosition.isValidInterval(min, max)) {
+                        Toast.makeText(this, "间隔需在 " + ClickPosition.MIN_INTERVAL_MILLIS + "-"
+                                + ClickPosition.MAX_INTERVAL_MILLIS + " 毫秒之间且最小值不大于最大值，未保存",
+                                Toast.LENGTH_SHORT).show();
+                        return;
+                    }
+                    ClickPosition spec = new ClickPosition(position.getX(), position.getY());
+                    spec.setRepeat((int) parseField(repeatInput, 1));
+                    spec.setHoldMillis(hold);
+                    spec.setOffsetRadius((int) parseField(offsetInput, ClickPosition.INHERIT));
+                    spec.setInterval(min, max);
+                    // 按 id 更新，编辑期间位置被删除时不做任何修改
+                    if (!PositionStore.getInstance().updateSpec(id, spec)) {
+                        Toast.makeText(this, "该位置已被删除", Toast.LENGTH_SHORT).show();
+                    }
+                })
+                .setNegativeButton("取消", null)
+                .create();
+        // 从服务弹出，需要和浮窗一样使用悬浮窗类型
+        dialog.getWindow().setType(Build.VERSION.SDK_INT >= Build.VERSION_CODES.O ?
+                WindowManager.LayoutParams.TYPE_APPLICATION_OVERLAY :
+                WindowManager.LayoutParams.TYPE_PHONE);
+        dialog.show();
+    }
+
+    private EditText addNumberField(LinearLayout form, String hint, long value) {
+        EditText input = new EditText(this);
+        input.setInputType(InputType.TYPE_CLASS_NUMBER);
+        input.setHint(hint);
+        if (value != ClickPosition.INHERIT) {
+            input.setText(String.valueOf(value));
+        }
+        form.addView(input);
+        return input;
+    }
+
+    private long parseField(EditText input, long defaultValue) {
+        String text = input.getText().toString().trim();
+        if (text.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+
+    /**
+     * 切换到下一个保存的方案，按新方案是否有位置扩展或缩小窗口
+     */
+    private void switchToNextProfile() {
+        ClickProfile profile;
+        try {
+            // 标记窗口随位置存储的变化通知更新
+            profile = ProfileManager.getInstance(this).switchToNext();
+        } catch (IOException e) {
+            android.util.Log.e("FloatingWindowService", "Failed to switch profile", e);
+            Toast.makeText(this, "方案读取失败：" + e.getMessage(), Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (profile == null) {
+            Toast.makeText(this, "还没有保存的方案，请在应用首页保存", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        long micros = ProfileManager.getInstance(this).getLastSwitchNanos() / 1000;
+        Toast.makeText(this, String.format(Locale.getDefault(), "方案：%s（%d 个位置，%.2f ms）", profile.getName(),
+                profile.getPositionCount(), micros / 1000.0), Toast.LENGTH_SHORT).show();
+    }
+    
     private void updateToolbarPosition(int x, int y) {
         if (layoutParams != null && isFloatingViewVisible) {
             layoutParams.x = x;
@@ -250,129 +488,133 @@ public class FloatingWindowService extends Service {
     }
     
     public void setSelectionMode(boolean selectionMode) {
-        if (layoutParams != null && isFloatingViewVisible) {
-            if (selectionMode) {
-                // 选取模式：扩展窗口到全屏
-                layoutParams.width = WindowManager.LayoutParams.MATCH_PARENT;
-                layoutParams.height = WindowManager.LayoutParams.MATCH_PARENT;
-                layoutParams.flags = WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE | 
-                                    WindowManager.LayoutParams.FLAG_NOT_TOUCH_MODAL |
-                                    WindowManager.LayoutParams.FLAG_LAYOUT_IN_SCREEN;
-            } else {
-                // 非选取模式：缩小窗口到工具栏大小，底层应用可操作
-                layoutParams.width = 200;
-                layoutParams.height = 700; // 7个按钮 * 100px
-                layoutParams.flags = WindowManager.LayoutParams.FLAG_NOT_FOCUSABLE | 
-                                    WindowManager.LayoutParams.FLAG_NOT_TOUCH_MODAL |
-                                    WindowManager.LayoutParams.FLAG_LAYOUT_IN_SCREEN;
-            }
-            windowManager.updateViewLayout(floatingBallView, layoutParams);
-            android.util.Log.d("FloatingWindowService", "setSelectionMode: " + selectionMode + ", window size: " + layoutParams.width + "x" + layoutParams.height);
+        if (markerView != null && isFloatingViewVisible) {
+            // 工具栏窗口大小不变；选取在全屏的标记窗口中进行，非选取模式下标记窗口不拦截触摸
+            markerView.setSelectionMode(selectionMode);
+            updateMarkerWindow();
+            android.util.Log.d("FloatingWindowService", "setSelectionMode: " + selectionMode);
         }
     }
     
     public void setClickThroughMode(boolean clickThrough) {
-        // 不需要改变窗口标志，由View的onTouchEvent处理穿透
+        // 不需要改变窗口标志：非选取模式下标记窗口本身不可触摸，工具栏窗口只有工具栏大小
         // 这个方法保留以保持接口兼容性
     }
     
-    private void expandWindowForMarker() {
-        // 扩展窗口到全屏以显示标记
-        if (layoutParams != null && isFloatingViewVisible) {
-            layoutParams.width = WindowManager.LayoutParams.MATCH_PARENT;
-            layoutParams.height = WindowManager.LayoutParams.MATCH_PARENT;
-            windowManager.updateViewLayout(floatingBallView, layoutParams);
-            android.util.Log.d("FloatingWindowService", "Window expanded for marker display");
-        }
+    /**
+     * 工具栏窗口宽度：工具栏，显示统计面板时再加上面板宽度
+     */
+    private int toolbarWindowWidth() {
+        boolean statsVisible = floatingBallView != null && floatingBallView.isStatsVisible();
+        return FloatingBallView.TOOLBAR_WIDTH + (statsVisible ? FloatingBallView.STATS_PANEL_WIDTH : 0);
     }
     
-    private void shrinkWindowToToolbar() {
-        // 缩小窗口到工具栏大小
+    private void updateToolbarWindowSize() {
         if (layoutParams != null && isFloatingViewVisible) {
-            layoutParams.width = 200;
-            layoutParams.height = 700; // 7个按钮 * 100px
+            layoutParams.width = toolbarWindowWidth();
+            layoutParams.height = FloatingBallView.TOOLBAR_HEIGHT;
             windowManager.updateViewLayout(floatingBallView, layoutParams);
-            android.util.Log.d("FloatingWindowService", "Window shrunk to toolbar size");
+            android.util.Log.d("FloatingWindowService", "Toolbar window resized to " + layoutParams.width + "x" + layoutParams.height);
         }
     }
     
-    private void waitForWindowStableAndStartClicking() {
+    private void waitForWindowStableAndStartClicking(long triggerNanos) {
         if (floatingBallView == null) {
             return;
         }
         
-        // 窗口稳定延迟时间（毫秒）
-        // 这个延迟确保窗口的所有系统级变化（大小、穿透模式等）完全生效
-        final int WINDOW_STABLE_DELAY_MS = 200;
-        
-        android.util.Log.d("FloatingWindowService", "Waiting " + WINDOW_STABLE_DELAY_MS + "ms for window to stabilize");
+        // 等待窗口的系统级变化（大小、穿透模式等）完全生效：以实际完成的绘制为准，
+        // 而不是固定延迟；最多等待 WINDOW_SETTLE_TIMEOUT_MS。标记窗口的标志和可见性在同一帧中
+        // 更新，工具栏此时因开始状态变化而重绘，以工具栏窗口的绘制为准
+        if (windowSettleDetector == null) {
+            windowSettleDetector = new WindowSettleDetector(floatingBallView, WINDOW_SETTLE_TIMEOUT_MS);
+        }
+        windowSettleDetector.await((settleMillis, timedOut) -> {
+            android.util.Log.d("FloatingWindowService", "Window " + (timedOut ? "settle timed out" : "settled")
+                    + " after " + settleMillis + " ms, sending start command");
+            ClickCommands.start(FloatingWindowService.this, triggerNanos);
+        });
+    }
+    
+    private void activateSchedule(int hour, int minute, int second) {
+        if (floatingBallView == null || !isFloatingViewVisible) {
+            return;
+        }
+        // 启动预约定时检查（需求4）
+        String timeStr = String.format("%02d:%02d:%02d", hour, minute, second);
+        startSchedule(hour, minute, second);
         
-        floatingBallView.postDelayed(new Runnable() {
-            @Override
-            public void run() {
-                android.util.Log.d("FloatingWindowService", "Window stable after " + WINDOW_STABLE_DELAY_MS + "ms, sending start command");
-                Intent serviceIntent = new Intent(FloatingWindowService.this, AutoClickService.class);
-                serviceIntent.putExtra(EXTRA_ACTION, ACTION_START);
-                startService(serviceIntent);
-                android.util.Log.d("FloatingWindowService", "AutoClickService start intent sent");
-            }
-        }, WINDOW_STABLE_DELAY_MS);
+        // 需求3：激活按钮并显示预约时间，有校准结果时附带偏差和不确定度
+        String offsetStr = ClockCalibrator.getInstance().describeOffset();
+        String displayStr = offsetStr.isEmpty() ? timeStr : timeStr + " " + offsetStr;
+        floatingBallView.setScheduledTime(displayStr);
+        Toast.makeText(FloatingWindowService.this, "预约成功：" + displayStr, Toast.LENGTH_SHORT).show();
+        android.util.Log.d("FloatingWindowService", "Schedule activated: " + displayStr);
     }
     
     private void startSchedule(int hour, int minute, int second) {
         // 取消之前的调度
         cancelSchedule();
         
-        // 创建定时检查任务
-        scheduleCheckRunnable = new Runnable() {
+        // 只计算一次目标时间：今天的该时刻，已过去则为明天
+        long targetWallMillis = ScheduleCalculator.nextOccurrence(System.currentTimeMillis(),
+                TimeZone.getDefault(), hour, minute, second);
+        
+        // 预约时间以参考时钟为准：参考时钟比本机快 offset 毫秒，本机就要提前 offset 毫秒触发
+        ClockCalibrator calibrator = ClockCalibrator.getInstance();
+        long offset = calibrator.hasEstimate() ? calibrator.getOffsetMillis() : 0;
+        long targetLocalMillis = targetWallMillis - offset;
+        long lateMillis = System.currentTimeMillis() - targetLocalMillis;
+        if (lateMillis >= 0) {
+            // 参考时钟比本机快，修正后的截止时间已经过去：会立即触发
+            android.util.Log.w("FloatingWindowService", "Corrected deadline already passed by " + lateMillis + " ms (clock offset " + offset + " ms)");
+            Toast.makeText(this, "按校准后的时间，预约时间已过 " + lateMillis + " ms，将立即开始", Toast.LENGTH_LONG).show();
+        }
+        
+        isScheduleActive = true;
+        preciseScheduler.schedule(targetLocalMillis, new PreciseScheduler.Callback() {
             @Override
-            public void run() {
-                Calendar now = Calendar.getInstance();
-                int currentHour = now.get(Calendar.HOUR_OF_DAY);
-                int currentMinute = now.get(Calendar.MINUTE);
-                int currentSecond = now.get(Calendar.SECOND);
+            public void onPrepare() {
+                // 提前退出选取模式、进入穿透模式，让窗口在预约时间之前就稳定下来
+                android.util.Log.d("FloatingWindowService", "Schedule approaching, preparing window and gesture pipeline");
+                floatingBallView.setSelectionMode(false);
+                setSelectionMode(false);
+                setClickThroughMode(true);
                 
-                android.util.Log.d("FloatingWindowService", "Schedule check: current=" + currentHour + ":" + currentMinute + ":" + currentSecond + 
-                                  ", target=" + hour + ":" + minute + ":" + second);
+                // 进入预备状态：第一次点击的随机值和手势提前准备好
+                ClickCommands.arm(FloatingWindowService.this);
+            }
+            
+            @Override
+            public void onFire(long deadlineNanos) {
+                // 需求4：到达预约时间，相当于点击了开始按钮（窗口已提前稳定，直接启动）；
+                // 以截止时间为触发时刻，首击回调报告的就是第一次点击相对预约时间的误差
+                awaitingScheduledStart = true;
+                ClickCommands.start(FloatingWindowService.this, deadlineNanos);
+            }
+            
+            @Override
+            public void onFired(long wakeErrorNanos) {
+                isScheduleActive = false;
+                android.util.Log.d("FloatingWindowService", "Schedule time reached! wake error " + (wakeErrorNanos / 1000) + " us");
                 
-                // 检查是否到达预约时间
-                if (currentHour == hour && currentMinute == minute && currentSecond == second) {
-                    // 需求4：到达预约时间，相当于点击了开始按钮
-                    android.util.Log.d("FloatingWindowService", "Schedule time reached! Starting auto-click...");
-                    
-                    // 激活开始按钮状态
-                    floatingBallView.setClicking(true);
-                    floatingBallView.setPaused(false);
-                    
-                    // 退出选取模式，进入穿透模式
-                    floatingBallView.setSelectionMode(false);
-                    setSelectionMode(false);
-                    setClickThroughMode(true);
-                    
-                    // 启动自动点击
-                    waitForWindowStableAndStartClicking();
-                    
-                    // 取消预约状态
-                    floatingBallView.setScheduledTime("");
-                    cancelSchedule();
-                    
-                    Toast.makeText(FloatingWindowService.this, "预约时间已到，开始自动点击", Toast.LENGTH_SHORT).show();
-                } else {
-                    // 继续检查（每秒检查一次）
-                    scheduleHandler.postDelayed(this, 1000);
-                }
+                // 激活开始按钮状态，取消预约状态
+                floatingBallView.setClicking(true);
+                floatingBallView.setPaused(false);
+                floatingBallView.setScheduledTime("");
+                isClickingActive = true;
+                updateMarkerWindow();
             }
-        };
+        });
         
-        // 开始定时检查（每秒检查一次）
-        scheduleHandler.postDelayed(scheduleCheckRunnable, 1000);
-        android.util.Log.d("FloatingWindowService", "Schedule started for " + hour + ":" + minute + ":" + second);
+        android.util.Log.d("FloatingWindowService", "Schedule started for " + hour + ":" + minute + ":" + second + ", clock offset " + offset + " ms");
     }
     
     private void cancelSchedule() {
-        if (scheduleCheckRunnable != null) {
-            scheduleHandler.removeCallbacks(scheduleCheckRunnable);
-            scheduleCheckRunnable = null;
+        awaitingScheduledStart = false;
+        if (isScheduleActive) {
+            preciseScheduler.cancel();
+            isScheduleActive = false;
             android.util.Log.d("FloatingWindowService", "Schedule cancelled");
         }
     }
@@ -380,9 +622,15 @@ public class FloatingWindowService extends Service {
     @Override
     public void onDestroy() {
         super.onDestroy();
+        AutoClickService.setStartListener(null);
+        mainHandler.removeCallbacks(statsRefreshRunnable);
         cancelSchedule();
+        preciseScheduler.release();
         if (floatingBallView != null && isFloatingViewVisible) {
+            PositionStore.getInstance().removeListener(positionListener);
+            sharedPreferences.unregisterOnSharedPreferenceChangeListener(prefsListener);
             windowManager.removeView(floatingBallView);
+            windowManager.removeView(markerView);
         }
     }
 
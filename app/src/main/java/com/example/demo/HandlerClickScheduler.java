@@ -0,0 +1,29 @@
+package com.example.demo;
+
+import android.os.Handler;
+
+/**
+ * ClickScheduler 的 Handler 实现：点击循环运行在该 Handler 所在的 Looper 线程上
+ */
+final class HandlerClickScheduler implements ClickScheduler {
+    private final Handler handler;
+
+    HandlerClickScheduler(Handler handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void post(Runnable task) {
+        handler.post(task);
+    }
+
+    @Override
+    public void postAtTime(Runnable task, long uptimeMillis) {
+        handler.postAtTime(task, uptimeMillis);
+    }
+
+    @Override
+    public void removeCallbacks(Runnable task) {
+        handler.removeCallbacks(task);
+    }
+}
@@ -6,9 +6,14 @@ import android.content.SharedPreferences;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.provider.Settings;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.CheckBox;
 import android.widget.EditText;
+import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
@@ -18,6 +23,20 @@ import androidx.core.graphics.Insets;
 import androidx.core.view.ViewCompat;
 import androidx.core.view.WindowInsetsCompat;
 
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
 public class MainActivity extends AppCompatActivity {
     private static final int REQUEST_OVERLAY_PERMISSION = 1001;
     private static final int REQUEST_ACCESSIBILITY_PERMISSION = 1002;
@@ -28,6 +47,23 @@ public class MainActivity extends AppCompatActivity {
     private static final String KEY_SCHEDULE_HOUR = "schedule_hour";
     private static final String KEY_SCHEDULE_MINUTE = "schedule_minute";
     private static final String KEY_SCHEDULE_SECOND = "schedule_second";
+    private static final String KEY_DEDICATED_CLICK_THREAD = "dedicated_click_thread";
+    private static final String KEY_FIXED_RATE_TIMING = "fixed_rate_timing";
+    private static final String KEY_CATCH_UP_LATE_TICKS = "catch_up_late_ticks";
+    private static final String KEY_VERBOSE_LOG = "verbose_log";
+    private static final String KEY_TRACE_BUFFER = "trace_buffer";
+    private static final String KEY_DEBUG_REDRAW = "debug_redraw";
+    private static final String KEY_BURST_MODE = "burst_mode";
+    private static final String KEY_GESTURE_BACKPRESSURE = "gesture_backpressure";
+    private static final String KEY_INTERVAL_DISTRIBUTION = "interval_distribution";
+    // 与 IntervalDistribution.Kind 的顺序一致
+    private static final String[] INTERVAL_DISTRIBUTION_LABELS = {
+            "均匀",
+            "正态",
+            "对数正态",
+            "指数（泊松过程）",
+            "经验分布（" + AutoClickService.EMPIRICAL_INTERVAL_FILE + "）",
+    };
     
     private EditText minIntervalInput;
     private EditText maxIntervalInput;
@@ -35,7 +71,22 @@ public class MainActivity extends AppCompatActivity {
     private EditText scheduleHourInput;
     private EditText scheduleMinuteInput;
     private EditText scheduleSecondInput;
+    private EditText timeRefHostInput;
+    private EditText timeRefPortInput;
+    private CheckBox dedicatedThreadCheckBox;
+    private CheckBox fixedRateCheckBox;
+    private CheckBox catchUpCheckBox;
+    private CheckBox verboseLogCheckBox;
+    private CheckBox traceBufferCheckBox;
+    private CheckBox redrawDebugCheckBox;
+    private CheckBox burstModeCheckBox;
+    private CheckBox waitGestureCheckBox;
+    private CheckBox adaptiveRateCheckBox;
+    private Spinner intervalDistributionSpinner;
     private TextView currentIntervalText;
+    private TextView calibrationResultText;
+    private Spinner profileSpinner;
+    private EditText profileNameInput;
     private SharedPreferences sharedPreferences;
 
     @Override
@@ -54,22 +105,68 @@ public class MainActivity extends AppCompatActivity {
         Button startFloatingButton = findViewById(R.id.startFloatingButton);
         Button stopFloatingButton = findViewById(R.id.stopFloatingButton);
         Button saveIntervalButton = findViewById(R.id.saveIntervalButton);
+        Button dumpTraceButton = findViewById(R.id.dumpTraceButton);
+        Button calibrateButton = findViewById(R.id.calibrateButton);
+        Button exportMetricsButton = findViewById(R.id.exportMetricsButton);
         
         minIntervalInput = findViewById(R.id.minIntervalInput);
         maxIntervalInput = findViewById(R.id.maxIntervalInput);
+        intervalDistributionSpinner = findViewById(R.id.intervalDistributionSpinner);
+        ArrayAdapter<String> distributionAdapter = new ArrayAdapter<>(this,
+                android.R.layout.simple_spinner_item, INTERVAL_DISTRIBUTION_LABELS);
+        distributionAdapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        intervalDistributionSpinner.setAdapter(distributionAdapter);
         randomOffsetInput = findViewById(R.id.randomOffsetInput);
         scheduleHourInput = findViewById(R.id.scheduleHourInput);
         scheduleMinuteInput = findViewById(R.id.scheduleMinuteInput);
         scheduleSecondInput = findViewById(R.id.scheduleSecondInput);
+        dedicatedThreadCheckBox = findViewById(R.id.dedicatedThreadCheckBox);
+        fixedRateCheckBox = findViewById(R.id.fixedRateCheckBox);
+        catchUpCheckBox = findViewById(R.id.catchUpCheckBox);
+        verboseLogCheckBox = findViewById(R.id.verboseLogCheckBox);
+        traceBufferCheckBox = findViewById(R.id.traceBufferCheckBox);
+        redrawDebugCheckBox = findViewById(R.id.redrawDebugCheckBox);
+        burstModeCheckBox = findViewById(R.id.burstModeCheckBox);
+        waitGestureCheckBox = findViewById(R.id.waitGestureCheckBox);
+        adaptiveRateCheckBox = findViewById(R.id.adaptiveRateCheckBox);
+        // 自适应限速以等待上一个手势为前提
+        adaptiveRateCheckBox.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (isChecked) {
+                waitGestureCheckBox.setChecked(true);
+            }
+        });
+        waitGestureCheckBox.setOnCheckedChangeListener((buttonView, isChecked) -> {
+            if (!isChecked) {
+                adaptiveRateCheckBox.setChecked(false);
+            }
+        });
         currentIntervalText = findViewById(R.id.currentIntervalText);
+        timeRefHostInput = findViewById(R.id.timeRefHostInput);
+        timeRefPortInput = findViewById(R.id.timeRefPortInput);
+        calibrationResultText = findViewById(R.id.calibrationResultText);
+        profileSpinner = findViewById(R.id.profileSpinner);
+        profileNameInput = findViewById(R.id.profileNameInput);
+        Button saveProfileButton = findViewById(R.id.saveProfileButton);
+        Button loadProfileButton = findViewById(R.id.loadProfileButton);
+        Button deleteProfileButton = findViewById(R.id.deleteProfileButton);
 
         startFloatingButton.setOnClickListener(v -> startFloatingWindow());
         stopFloatingButton.setOnClickListener(v -> stopFloatingWindow());
         saveIntervalButton.setOnClickListener(v -> saveIntervalSettings());
+        dumpTraceButton.setOnClickListener(v -> dumpClickTrace());
+        calibrateButton.setOnClickListener(v -> calibrateClock());
+        exportMetricsButton.setOnClickListener(v -> exportClickMetrics());
+        saveProfileButton.setOnClickListener(v -> saveProfile());
+        loadProfileButton.setOnClickListener(v -> loadProfile());
+        deleteProfileButton.setOnClickListener(v -> deleteProfile());
+        Button generatePatternButton = findViewById(R.id.generatePatternButton);
+        generatePatternButton.setOnClickListener(v -> new PositionPatternDialog(this).show());
         
         // 加载保存的设置
         loadIntervalSettings();
         loadScheduleSettings();
+        loadTimeReferenceSettings();
+        refreshProfileList();
     }
 
     private void startFloatingWindow() {
@@ -83,13 +180,28 @@ public class MainActivity extends AppCompatActivity {
             long minInterval = sharedPreferences.getLong(KEY_MIN_INTERVAL, 150);
             long maxInterval = sharedPreferences.getLong(KEY_MAX_INTERVAL, 300);
             int randomOffset = sharedPreferences.getInt(KEY_RANDOM_OFFSET, 10);
+            boolean dedicatedThread = sharedPreferences.getBoolean(KEY_DEDICATED_CLICK_THREAD, true);
+            boolean fixedRate = sharedPreferences.getBoolean(KEY_FIXED_RATE_TIMING, true);
+            boolean catchUp = sharedPreferences.getBoolean(KEY_CATCH_UP_LATE_TICKS, false);
+            boolean verboseLog = sharedPreferences.getBoolean(KEY_VERBOSE_LOG, false);
+            boolean traceBuffer = sharedPreferences.getBoolean(KEY_TRACE_BUFFER, false);
+            boolean burst = sharedPreferences.getBoolean(KEY_BURST_MODE, false);
+            String backpressure = sharedPreferences.getString(KEY_GESTURE_BACKPRESSURE, GestureTracker.Mode.OFF.name());
+            String distribution = sharedPreferences.getString(KEY_INTERVAL_DISTRIBUTION, IntervalDistribution.Kind.UNIFORM.name());
             
-            Intent clickServiceIntent = new Intent(this, AutoClickService.class);
-            clickServiceIntent.putExtra("action", "update_settings");
+            Intent clickServiceIntent = ClickCommands.newIntent(this, ClickCommands.ACTION_UPDATE_SETTINGS);
             clickServiceIntent.putExtra("min_interval", minInterval);
             clickServiceIntent.putExtra("max_interval", maxInterval);
             clickServiceIntent.putExtra("random_offset", randomOffset);
-            startService(clickServiceIntent);
+            clickServiceIntent.putExtra("dedicated_thread", dedicatedThread);
+            clickServiceIntent.putExtra("fixed_rate", fixedRate);
+            clickServiceIntent.putExtra("catch_up", catchUp);
+            clickServiceIntent.putExtra("verbose_log", verboseLog);
+            clickServiceIntent.putExtra("trace_buffer", traceBuffer);
+            clickServiceIntent.putExtra("burst", burst);
+            clickServiceIntent.putExtra("gesture_backpressure", backpressure);
+            clickServiceIntent.putExtra("interval_distribution", distribution);
+            ClickCommands.send(this, clickServiceIntent);
             
             android.util.Log.d("MainActivity", "Initialized AutoClickService with settings: " + minInterval + "-" + maxInterval + "ms, offset=" + randomOffset + "px");
             
@@ -99,6 +211,58 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    private void dumpClickTrace() {
+        // 让 AutoClickService 把内存中的点击轨迹输出到 logcat
+        ClickCommands.send(this, ClickCommands.newIntent(this, ClickCommands.ACTION_DUMP_TRACE));
+        Toast.makeText(this, "点击轨迹已输出到日志（AutoClickService）", Toast.LENGTH_SHORT).show();
+    }
+
+    private void exportClickMetrics() {
+        AutoClickService service = AutoClickService.getInstance();
+        if (service == null) {
+            Toast.makeText(this, "无障碍服务未连接，没有可导出的统计", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        // 导出到应用专属的外部存储目录，无需存储权限
+        File dir = getExternalFilesDir(null);
+        if (dir == null) {
+            dir = getFilesDir();
+        }
+        String name = "click_metrics_" + new SimpleDateFormat("yyyyMMdd_HHmmss", Locale.US).format(new Date());
+        ClickMetrics metrics = service.getMetrics();
+        File csvFile = new File(dir, name + ".csv");
+        File binFile = new File(dir, name + ".bin");
+        try {
+            StringBuilder csv = new StringBuilder();
+            metrics.writeCsv(csv);
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(csvFile), StandardCharsets.UTF_8)) {
+                writer.write(csv.toString());
+            }
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binFile)))) {
+                metrics.writeBinary(out);
+            }
+            Toast.makeText(this, "统计已导出：" + csvFile.getAbsolutePath(), Toast.LENGTH_LONG).show();
+            android.util.Log.d("MainActivity", "Metrics exported to " + csvFile + " and " + binFile);
+        } catch (IOException e) {
+            Toast.makeText(this, "导出失败：" + e.getMessage(), Toast.LENGTH_SHORT).show();
+        }
+    }
+
+    private void calibrateClock() {
+        if (!saveTimeReferenceSettings()) {
+            return;
+        }
+        ClockCalibrator calibrator = ClockCalibrator.getInstance();
+        calibrator.configure(sharedPreferences);
+        if (!calibrator.isConfigured()) {
+            Toast.makeText(this, "请先填写时间服务器地址", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        calibrationResultText.setText("正在校准…");
+        calibrator.calibrate(ClockCalibrator.DEFAULT_SAMPLES, new Handler(Looper.getMainLooper()),
+                (success, message) -> calibrationResultText.setText(message));
+    }
+
     private void stopFloatingWindow() {
         Intent serviceIntent = new Intent(this, FloatingWindowService.class);
         serviceIntent.putExtra("action", "hide");
@@ -169,7 +333,19 @@ public class MainActivity extends AppCompatActivity {
         minIntervalInput.setText(String.valueOf(minInterval));
         maxIntervalInput.setText(String.valueOf(maxInterval));
         randomOffsetInput.setText(String.valueOf(randomOffset));
-        updateCurrentIntervalText(minInterval, maxInterval, randomOffset);
+        dedicatedThreadCheckBox.setChecked(sharedPreferences.getBoolean(KEY_DEDICATED_CLICK_THREAD, true));
+        fixedRateCheckBox.setChecked(sharedPreferences.getBoolean(KEY_FIXED_RATE_TIMING, true));
+        catchUpCheckBox.setChecked(sharedPreferences.getBoolean(KEY_CATCH_UP_LATE_TICKS, false));
+        verboseLogCheckBox.setChecked(sharedPreferences.getBoolean(KEY_VERBOSE_LOG, false));
+        traceBufferCheckBox.setChecked(sharedPreferences.getBoolean(KEY_TRACE_BUFFER, false));
+        redrawDebugCheckBox.setChecked(sharedPreferences.getBoolean(KEY_DEBUG_REDRAW, false));
+        burstModeCheckBox.setChecked(sharedPreferences.getBoolean(KEY_BURST_MODE, false));
+        String backpressure = sharedPreferences.getString(KEY_GESTURE_BACKPRESSURE, GestureTracker.Mode.OFF.name());
+        waitGestureCheckBox.setChecked(!GestureTracker.Mode.OFF.name().equals(backpressure));
+        adaptiveRateCheckBox.setChecked(GestureTracker.Mode.ADAPTIVE.name().equals(backpressure));
+        IntervalDistribution.Kind distribution = loadIntervalDistributionKind();
+        intervalDistributionSpinner.setSelection(distribution.ordinal());
+        updateCurrentIntervalText(minInterval, maxInterval, randomOffset, distribution);
     }
     
     private void loadScheduleSettings() {
@@ -184,6 +360,44 @@ public class MainActivity extends AppCompatActivity {
         }
     }
     
+    private void loadTimeReferenceSettings() {
+        String host = sharedPreferences.getString(ClockCalibrator.KEY_TIME_REF_HOST, "");
+        int port = sharedPreferences.getInt(ClockCalibrator.KEY_TIME_REF_PORT, 0);
+        timeRefHostInput.setText(host);
+        if (port > 0) {
+            timeRefPortInput.setText(String.valueOf(port));
+        }
+        String offset = ClockCalibrator.getInstance().describeOffset();
+        if (!offset.isEmpty()) {
+            calibrationResultText.setText("时钟偏差 " + offset);
+        }
+    }
+
+    /**
+     * 保存时间服务器设置，输入无效时提示并返回 false
+     */
+    private boolean saveTimeReferenceSettings() {
+        String host = timeRefHostInput.getText().toString().trim();
+        String portStr = timeRefPortInput.getText().toString().trim();
+        int port = 0;
+        if (!host.isEmpty() && !host.startsWith("sim:")) {
+            try {
+                port = Integer.parseInt(portStr);
+            } catch (NumberFormatException e) {
+                port = -1;
+            }
+            if (port <= 0 || port > 65535) {
+                Toast.makeText(this, "时间服务器端口无效（1-65535）", Toast.LENGTH_SHORT).show();
+                return false;
+            }
+        }
+        sharedPreferences.edit()
+                .putString(ClockCalibrator.KEY_TIME_REF_HOST, host)
+                .putInt(ClockCalibrator.KEY_TIME_REF_PORT, port)
+                .apply();
+        return true;
+    }
+
     private void saveIntervalSettings() {
         String minStr = minIntervalInput.getText().toString().trim();
         String maxStr = maxIntervalInput.getText().toString().trim();
@@ -225,11 +439,34 @@ public class MainActivity extends AppCompatActivity {
                 return;
             }
             
+            IntervalDistribution.Kind distribution =
+                    IntervalDistribution.Kind.values()[intervalDistributionSpinner.getSelectedItemPosition()];
+            if (distribution == IntervalDistribution.Kind.EMPIRICAL && !checkEmpiricalIntervals()) {
+                return;
+            }
+            
             // 保存设置
             SharedPreferences.Editor editor = sharedPreferences.edit();
             editor.putLong(KEY_MIN_INTERVAL, minInterval);
             editor.putLong(KEY_MAX_INTERVAL, maxInterval);
             editor.putInt(KEY_RANDOM_OFFSET, randomOffset);
+            boolean dedicatedThread = dedicatedThreadCheckBox.isChecked();
+            editor.putBoolean(KEY_DEDICATED_CLICK_THREAD, dedicatedThread);
+            boolean fixedRate = fixedRateCheckBox.isChecked();
+            boolean catchUp = catchUpCheckBox.isChecked();
+            editor.putBoolean(KEY_FIXED_RATE_TIMING, fixedRate);
+            editor.putBoolean(KEY_CATCH_UP_LATE_TICKS, catchUp);
+            boolean verboseLog = verboseLogCheckBox.isChecked();
+            boolean traceBuffer = traceBufferCheckBox.isChecked();
+            editor.putBoolean(KEY_VERBOSE_LOG, verboseLog);
+            editor.putBoolean(KEY_TRACE_BUFFER, traceBuffer);
+            editor.putBoolean(KEY_DEBUG_REDRAW, redrawDebugCheckBox.isChecked());
+            boolean burst = burstModeCheckBox.isChecked();
+            editor.putBoolean(KEY_BURST_MODE, burst);
+            GestureTracker.Mode backpressure = adaptiveRateCheckBox.isChecked() ? GestureTracker.Mode.ADAPTIVE
+                    : waitGestureCheckBox.isChecked() ? GestureTracker.Mode.WAIT : GestureTracker.Mode.OFF;
+            editor.putString(KEY_GESTURE_BACKPRESSURE, backpressure.name());
+            editor.putString(KEY_INTERVAL_DISTRIBUTION, distribution.name());
             
             // 保存预约时间（如果填写了）
             String hourStr = scheduleHourInput.getText().toString().trim();
@@ -259,16 +496,26 @@ public class MainActivity extends AppCompatActivity {
             }
             
             editor.apply();
+            if (!saveTimeReferenceSettings()) {
+                return;
+            }
             
             // 更新 AutoClickService 的间隔设置
-            Intent serviceIntent = new Intent(this, AutoClickService.class);
-            serviceIntent.putExtra("action", "update_settings");
+            Intent serviceIntent = ClickCommands.newIntent(this, ClickCommands.ACTION_UPDATE_SETTINGS);
             serviceIntent.putExtra("min_interval", minInterval);
             serviceIntent.putExtra("max_interval", maxInterval);
             serviceIntent.putExtra("random_offset", randomOffset);
-            startService(serviceIntent);
+            serviceIntent.putExtra("dedicated_thread", dedicatedThread);
+            serviceIntent.putExtra("fixed_rate", fixedRate);
+            serviceIntent.putExtra("catch_up", catchUp);
+            serviceIntent.putExtra("verbose_log", verboseLog);
+            serviceIntent.putExtra("trace_buffer", traceBuffer);
+            serviceIntent.putExtra("burst", burst);
+            serviceIntent.putExtra("gesture_backpressure", backpressure.name());
+            serviceIntent.putExtra("interval_distribution", distribution.name());
+            ClickCommands.send(this, serviceIntent);
             
-            updateCurrentIntervalText(minInterval, maxInterval, randomOffset);
+            updateCurrentIntervalText(minInterval, maxInterval, randomOffset, distribution);
             Toast.makeText(this, "设置已保存", Toast.LENGTH_SHORT).show();
             
             android.util.Log.d("MainActivity", "Settings saved: interval " + minInterval + " - " + maxInterval + " ms, offset " + randomOffset + " px");
@@ -277,12 +524,122 @@ public class MainActivity extends AppCompatActivity {
         }
     }
     
-    private void updateCurrentIntervalText(long minInterval, long maxInterval, int randomOffset) {
+    /**
+     * 刷新方案下拉列表，选中当前方案
+     */
+    private void refreshProfileList() {
+        ProfileManager profiles = ProfileManager.getInstance(this);
+        List<String> names = profiles.list();
+        ArrayAdapter<String> adapter = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item, names);
+        adapter.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        profileSpinner.setAdapter(adapter);
+        int active = names.indexOf(profiles.getActiveName());
+        if (active >= 0) {
+            profileSpinner.setSelection(active);
+        }
+        if (profileNameInput.getText().toString().trim().isEmpty()) {
+            profileNameInput.setText(profiles.getActiveName());
+        }
+    }
+    
+    private String selectedProfileName() {
+        Object selected = profileSpinner.getSelectedItem();
+        if (selected == null) {
+            Toast.makeText(this, "还没有保存的方案", Toast.LENGTH_SHORT).show();
+            return null;
+        }
+        return selected.toString();
+    }
+    
+    /**
+     * 把当前选取的位置和已保存的间隔设置存为方案
+     */
+    private void saveProfile() {
+        String name = profileNameInput.getText().toString().trim();
+        if (!ProfileStore.isValidName(name)) {
+            Toast.makeText(this, "方案名称无效（不能为空，不能包含 / \\ :）", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        try {
+            ClickProfile profile = ProfileManager.getInstance(this).saveCurrent(name);
+            refreshProfileList();
+            Toast.makeText(this, "已保存方案：" + name + "（" + profile.getPositionCount() + " 个位置）",
+                    Toast.LENGTH_SHORT).show();
+        } catch (IOException e) {
+            android.util.Log.e("MainActivity", "Failed to save profile", e);
+            Toast.makeText(this, "方案保存失败：" + e.getMessage(), Toast.LENGTH_SHORT).show();
+        }
+    }
+    
+    private void loadProfile() {
+        String name = selectedProfileName();
+        if (name == null) {
+            return;
+        }
+        try {
+            ProfileManager profiles = ProfileManager.getInstance(this);
+            ClickProfile profile = profiles.switchTo(name);
+            profileNameInput.setText(name);
+            loadIntervalSettings();
+            Toast.makeText(this, String.format(Locale.getDefault(), "已加载方案：%s（%d 个位置，%.2f ms）", name,
+                    profile.getPositionCount(), profiles.getLastSwitchNanos() / 1_000_000.0), Toast.LENGTH_SHORT).show();
+        } catch (IOException e) {
+            android.util.Log.e("MainActivity", "Failed to load profile", e);
+            Toast.makeText(this, "方案读取失败：" + e.getMessage(), Toast.LENGTH_SHORT).show();
+        }
+    }
+    
+    private void deleteProfile() {
+        String name = selectedProfileName();
+        if (name == null) {
+            return;
+        }
+        if (ProfileManager.getInstance(this).delete(name)) {
+            refreshProfileList();
+            Toast.makeText(this, "已删除方案：" + name, Toast.LENGTH_SHORT).show();
+        } else {
+            Toast.makeText(this, "删除失败", Toast.LENGTH_SHORT).show();
+        }
+    }
+    
+    private IntervalDistribution.Kind loadIntervalDistributionKind() {
+        try {
+            return IntervalDistribution.Kind.valueOf(sharedPreferences.getString(KEY_INTERVAL_DISTRIBUTION,
+                    IntervalDistribution.Kind.UNIFORM.name()));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return IntervalDistribution.Kind.UNIFORM;
+        }
+    }
+    
+    /**
+     * 经验分布需要应用外部存储目录下的直方图文件（可以直接放入“导出统计”生成的 CSV）。
+     * 保存前先解析一遍，文件缺失或格式不对时提示并返回 false。
+     */
+    private boolean checkEmpiricalIntervals() {
+        File file = AutoClickService.getEmpiricalIntervalFile(this);
+        try (FileReader reader = new FileReader(file)) {
+            EmpiricalDistribution empirical = EmpiricalDistribution.parseCsv(reader);
+            android.util.Log.d("MainActivity", "Empirical intervals: " + empirical.getBinCount() + " bins, "
+                    + empirical.getMin() + " - " + empirical.getMax() + " ms");
+            return true;
+        } catch (IOException | IllegalArgumentException e) {
+            Toast.makeText(this, "无法读取间隔直方图：" + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+            return false;
+        }
+    }
+    
+    private void updateCurrentIntervalText(long minInterval, long maxInterval, int randomOffset,
+                                           IntervalDistribution.Kind distribution) {
         String intervalText;
-        if (minInterval == maxInterval) {
+        if (distribution == IntervalDistribution.Kind.EMPIRICAL) {
+            intervalText = "当前点击间隔：" + INTERVAL_DISTRIBUTION_LABELS[distribution.ordinal()];
+        } else if (minInterval == maxInterval) {
             intervalText = "当前点击间隔：固定 " + minInterval + " ms";
-        } else {
+        } else if (distribution == IntervalDistribution.Kind.UNIFORM) {
             intervalText = "当前点击间隔：" + minInterval + " - " + maxInterval + " ms（随机）";
+        } else {
+            intervalText = "当前点击间隔：" + minInterval + " - " + maxInterval + " ms，"
+                    + INTERVAL_DISTRIBUTION_LABELS[distribution.ordinal()] + "分布";
         }
         intervalText += "\n点击位置随机半径：" + randomOffset + " px";
         currentIntervalText.setText(intervalText);
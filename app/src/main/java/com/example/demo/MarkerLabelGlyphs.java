@@ -0,0 +1,110 @@
+package com.example.demo;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.fonts.Font;
+import android.graphics.text.PositionedGlyphs;
+import android.graphics.text.TextRunShaper;
+
+/**
+ * 位置标记上的数字标签（序号和“×N”）的字形表：数字和“×”只在创建时排版一次，记下字形 id 和宽度，
+ * 之后把所有标记的标签拼成一组字形和坐标，用一次 drawGlyphs 画完，不再每个标记各调一次 drawText。
+ *
+ * 只有这些字符都来自同一个字体时可用（drawGlyphs 一次只能用一个字体），否则 {@link #isAvailable()} 返回 false，
+ * 由调用方逐个 drawText。
+ */
+final class MarkerLabelGlyphs {
+    private static final String CHARS = "0123456789×";
+    private static final int TIMES = 10; // CHARS 中“×”的位置
+
+    private final int[] glyphIds = new int[CHARS.length()];
+    private final float[] advances = new float[CHARS.length()];
+    private final Font font;
+    // 当前拼好的字形和坐标（x, y 交替），只在标记重新录制时重建，数组按需增长后复用
+    private int[] glyphs = new int[64];
+    private float[] positions = new float[128];
+    private int count;
+    private final int[] digits = new int[11];
+
+    /**
+     * @param paint 绘制标签用的画笔（字号、字体），之后 draw 时传入同一个画笔
+     */
+    MarkerLabelGlyphs(Paint paint) {
+        PositionedGlyphs shaped = TextRunShaper.shapeTextRun(CHARS, 0, CHARS.length(), 0, CHARS.length(),
+                0, 0, false, paint);
+        Font first = null;
+        boolean singleFont = shaped.glyphCount() == CHARS.length();
+        for (int i = 0; singleFont && i < CHARS.length(); i++) {
+            glyphIds[i] = shaped.getGlyphId(i);
+            Font glyphFont = shaped.getFont(i);
+            if (first == null) {
+                first = glyphFont;
+            } else if (!first.equals(glyphFont)) {
+                singleFont = false;
+            }
+        }
+        paint.getTextWidths(CHARS, advances);
+        font = singleFont ? first : null;
+    }
+
+    boolean isAvailable() {
+        return font != null;
+    }
+
+    void reset() {
+        count = 0;
+    }
+
+    /**
+     * 追加一个水平居中在 centerX 的数字标签
+     *
+     * @param times 是否在数字前加“×”
+     */
+    void addNumber(int value, boolean times, float centerX, float baselineY) {
+        int digitCount = 0;
+        do {
+            digits[digitCount++] = value % 10;
+            value /= 10;
+        } while (value > 0);
+        int glyphCount = digitCount + (times ? 1 : 0);
+        ensureCapacity(count + glyphCount);
+
+        float width = times ? advances[TIMES] : 0;
+        for (int i = 0; i < digitCount; i++) {
+            width += advances[digits[i]];
+        }
+        float x = centerX - width / 2;
+        if (times) {
+            x = append(TIMES, x, baselineY);
+        }
+        for (int i = digitCount - 1; i >= 0; i--) {
+            x = append(digits[i], x, baselineY);
+        }
+    }
+
+    private float append(int charIndex, float x, float y) {
+        glyphs[count] = glyphIds[charIndex];
+        positions[count * 2] = x;
+        positions[count * 2 + 1] = y;
+        count++;
+        return x + advances[charIndex];
+    }
+
+    private void ensureCapacity(int glyphCount) {
+        if (glyphCount > glyphs.length) {
+            int capacity = Math.max(glyphCount, glyphs.length * 2);
+            int[] grownGlyphs = new int[capacity];
+            System.arraycopy(glyphs, 0, grownGlyphs, 0, count);
+            float[] grownPositions = new float[capacity * 2];
+            System.arraycopy(positions, 0, grownPositions, 0, count * 2);
+            glyphs = grownGlyphs;
+            positions = grownPositions;
+        }
+    }
+
+    void draw(Canvas canvas, Paint paint) {
+        if (count > 0) {
+            canvas.drawGlyphs(glyphs, 0, positions, 0, count, font, paint);
+        }
+    }
+}
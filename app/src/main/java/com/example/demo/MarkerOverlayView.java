@@ -0,0 +1,398 @@
+package com.example.demo;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
+import android.view.MotionEvent;
+import android.view.View;
+import android.view.ViewConfiguration;
+
+/**
+ * 点击位置的标记层：单独的全屏窗口，只画位置圆圈和选取时的十字准星，工具栏在 FloatingBallView 的小窗口里。
+ *
+ * 平时窗口带 FLAG_NOT_TOUCHABLE，触摸和点击服务分发的手势直接到达下层应用，不经过这里；只有选取模式下
+ * FloatingWindowService 才让它接收触摸，用来添加、移除和长按编辑位置。没有需要显示的标记时整个窗口隐藏。
+ *
+ * 标记录制在 RenderNode 里，只在位置变化时重新录制；每次只请求重绘变化的标记和十字准星新旧位置覆盖的区域。
+ * 支持上千个位置：圆圈用一次 drawPoints、标签用一次 drawGlyphs 画完，选取时的命中测试走网格索引。
+ */
+public class MarkerOverlayView extends View {
+    private static final int COLOR_GRAY = 0xFFCCCCCC;
+    private static final float MARKER_RADIUS = 30;
+    private static final float CROSSHAIR_SIZE = 20;
+    // 标记相对圆心向四周的范围：圆圈半径，以及圆圈下方次数标签的基线和字高
+    private static final float MARKER_EXTENT = 56;
+    private static final float HIT_RADIUS = 30;
+    private static final String[] REPEAT_LABELS = new String[ClickPosition.MAX_REPEAT + 1];
+    static {
+        for (int i = 2; i < REPEAT_LABELS.length; i++) {
+            REPEAT_LABELS[i] = "×" + i;
+        }
+    }
+
+    public interface Listener {
+        void onPositionSelected(float x, float y);
+        void onEditPosition(long id, int index, ClickPosition position);
+        void showToast(String message);
+    }
+
+    private final Paint circlePaint; // 圆头粗笔画，drawPoints 的每个点就是一个圆圈
+    private final Paint numberPaint;
+    private final Paint crosshairPaint;
+    private final float numberBaselineOffset; // 序号文字垂直居中时基线相对圆心的偏移
+    private final MarkerLabelGlyphs labelGlyphs;
+    // 所有激活位置的圆心（x, y 交替），重新录制时重建，按需增长后复用
+    private float[] markerPoints = new float[64];
+    // 位置序号标签按需生成后复用
+    private String[] indexLabels = new String[0];
+    private final int[] screenLocation = new int[2];
+
+    private Listener listener;
+    private boolean isSelectionMode = false;
+    // 命中测试的网格索引，按需为当前快照构建
+    private PositionGrid hitGrid;
+
+    // 触摸坐标（用于绘制十字准星）
+    private float lastTouchX = 0;
+    private float lastTouchY = 0;
+
+    // 与 AutoClickService 共享同一个位置存储，这里直接读写，变化时重绘
+    private final PositionStore positionStore = PositionStore.getInstance();
+    // 当前绘制的位置快照；存储变化时和新快照比较，只重绘有变化的标记
+    private PositionStore.Snapshot drawnPositions = positionStore.snapshot();
+    private final Runnable positionsChangedRunnable = this::onPositionsChanged;
+    // 通知可能来自点击服务的线程，切到主线程处理；同一帧内的多次变化只处理一次
+    private final PositionStore.Listener positionListener = snapshot -> {
+        removeCallbacks(positionsChangedRunnable);
+        post(positionsChangedRunnable);
+    };
+
+    // 标记只在位置或视图在屏幕上的位置变化时重新录制，其余帧直接重放
+    private final RenderNode markersNode = new RenderNode("markers");
+    private boolean markersDirty = true;
+    private int recordedOffsetX;
+    private int recordedOffsetY;
+
+    // 局部重绘：只请求重绘变化的标记和十字准星
+    private final RedrawDebugPainter redraw = new RedrawDebugPainter(this);
+
+    // 选取模式下按住已有位置：松开时移除，长按则编辑该位置的点击参数；按 id 记录，期间的增删不影响
+    private long pressedPositionId = -1;
+    private float pressedX;
+    private float pressedY;
+    private final Runnable editPositionRunnable = new Runnable() {
+        @Override
+        public void run() {
+            long id = pressedPositionId;
+            pressedPositionId = -1;
+            PositionStore.Snapshot snapshot = positionStore.snapshot();
+            int index = snapshot.indexOf(id);
+            if (index >= 0 && listener != null) {
+                listener.onEditPosition(id, index, snapshot.get(index));
+            }
+        }
+    };
+
+    public MarkerOverlayView(Context context) {
+        super(context);
+        circlePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        circlePaint.setColor(COLOR_GRAY);
+        circlePaint.setStyle(Paint.Style.STROKE);
+        circlePaint.setStrokeCap(Paint.Cap.ROUND);
+        circlePaint.setStrokeWidth(MARKER_RADIUS * 2);
+
+        numberPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        numberPaint.setColor(Color.BLACK);
+        numberPaint.setTextSize(20);
+        numberPaint.setTextAlign(Paint.Align.CENTER);
+        numberPaint.setStyle(Paint.Style.FILL);
+        Paint.FontMetrics fontMetrics = numberPaint.getFontMetrics();
+        numberBaselineOffset = -(fontMetrics.ascent + fontMetrics.descent) / 2;
+        labelGlyphs = new MarkerLabelGlyphs(numberPaint);
+
+        crosshairPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        crosshairPaint.setColor(Color.RED);
+        crosshairPaint.setStrokeWidth(3);
+    }
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        positionStore.addListener(positionListener);
+        // 未连接期间的变化没有收到通知，重新取快照并整体重绘
+        drawnPositions = positionStore.snapshot();
+        markersDirty = true;
+        invalidate();
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        positionStore.removeListener(positionListener);
+        removeCallbacks(positionsChangedRunnable);
+        cancelPositionPress();
+        super.onDetachedFromWindow();
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        markersNode.setPosition(0, 0, w, h);
+        markersDirty = true;
+    }
+
+    /**
+     * 在主线程比较新旧快照，只请求重绘增删改的标记（和因序号变化要重画标签的标记）
+     */
+    private void onPositionsChanged() {
+        PositionStore.Snapshot current = positionStore.snapshot();
+        if (current == drawnPositions) {
+            return;
+        }
+        getLocationOnScreen(screenLocation);
+        redraw.getPending().unionChanged(drawnPositions, current, screenLocation[0], screenLocation[1], MARKER_EXTENT);
+        drawnPositions = current;
+        markersDirty = true;
+        redraw.requestRedraw();
+    }
+
+    /**
+     * 在视图最上层显示每帧请求重绘的区域和面积占比（调试用）
+     */
+    public void setRedrawDebug(boolean enabled) {
+        redraw.setEnabled(enabled);
+    }
+
+    public void setSelectionMode(boolean selectionMode) {
+        if (selectionMode == isSelectionMode) {
+            return;
+        }
+        isSelectionMode = selectionMode;
+        // 只有十字准星随选取模式出现或消失，标记不变
+        unionCrosshair(lastTouchX, lastTouchY);
+        lastTouchX = 0;
+        lastTouchY = 0;
+        cancelPositionPress();
+        redraw.requestRedraw();
+    }
+
+    public boolean isSelectionMode() {
+        return isSelectionMode;
+    }
+
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+        redraw.beginFrame();
+
+        drawMarkers(canvas);
+        if (isSelectionMode) {
+            drawCrosshair(canvas);
+        }
+
+        redraw.endFrame(canvas);
+    }
+
+    private void drawMarkers(Canvas canvas) {
+        // 位置是全局屏幕坐标，减去 View 在屏幕上的位置（复用数组，不逐帧分配）
+        getLocationOnScreen(screenLocation);
+        if (!canvas.isHardwareAccelerated()) {
+            // 软件绘制（如截图）不能重放 RenderNode，直接画
+            drawClickPositions(canvas, screenLocation[0], screenLocation[1]);
+            return;
+        }
+        if (markersDirty || !markersNode.hasDisplayList()
+                || recordedOffsetX != screenLocation[0] || recordedOffsetY != screenLocation[1]) {
+            recordedOffsetX = screenLocation[0];
+            recordedOffsetY = screenLocation[1];
+            RecordingCanvas recording = markersNode.beginRecording(getWidth(), getHeight());
+            try {
+                drawClickPositions(recording, recordedOffsetX, recordedOffsetY);
+            } finally {
+                markersNode.endRecording();
+            }
+            markersDirty = false;
+        }
+        canvas.drawRenderNode(markersNode);
+    }
+
+    private void drawClickPositions(Canvas canvas, int offsetX, int offsetY) {
+        PositionStore.Snapshot positions = drawnPositions;
+        if (markerPoints.length < positions.size() * 2) {
+            markerPoints = new float[Math.max(positions.size() * 2, markerPoints.length * 2)];
+        }
+        int pointCount = 0;
+        labelGlyphs.reset();
+        for (int i = 0; i < positions.size(); i++) {
+            ClickPosition pos = positions.get(i);
+            if (pos.isActive()) {
+                float localX = pos.getX() - offsetX;
+                float localY = pos.getY() - offsetY;
+                markerPoints[pointCount++] = localX;
+                markerPoints[pointCount++] = localY;
+                // 序号居中；每轮点击多次的位置在圆圈下方标出次数
+                labelGlyphs.addNumber(i + 1, false, localX, localY + numberBaselineOffset);
+                if (pos.getRepeat() > 1) {
+                    labelGlyphs.addNumber(pos.getRepeat(), true, localX, localY + 48);
+                }
+            }
+        }
+        canvas.drawPoints(markerPoints, 0, pointCount, circlePaint);
+        if (labelGlyphs.isAvailable()) {
+            labelGlyphs.draw(canvas, numberPaint);
+        } else {
+            drawLabelsAsText(canvas, positions, offsetX, offsetY);
+        }
+    }
+
+    /**
+     * 字形表不可用时（数字来自不同字体）逐个画标签
+     */
+    private void drawLabelsAsText(Canvas canvas, PositionStore.Snapshot positions, int offsetX, int offsetY) {
+        for (int i = 0; i < positions.size(); i++) {
+            ClickPosition pos = positions.get(i);
+            if (pos.isActive()) {
+                float localX = pos.getX() - offsetX;
+                float localY = pos.getY() - offsetY;
+                canvas.drawText(indexLabel(i), localX, localY + numberBaselineOffset, numberPaint);
+                if (pos.getRepeat() > 1) {
+                    canvas.drawText(REPEAT_LABELS[pos.getRepeat()], localX, localY + 48, numberPaint);
+                }
+            }
+        }
+    }
+
+    /**
+     * 位置序号的文字（从 1 开始），位置数增加时才生成新的字符串
+     */
+    private String indexLabel(int index) {
+        if (index >= indexLabels.length) {
+            String[] grown = new String[Math.max(index + 1, indexLabels.length * 2)];
+            System.arraycopy(indexLabels, 0, grown, 0, indexLabels.length);
+            for (int i = indexLabels.length; i < grown.length; i++) {
+                grown[i] = String.valueOf(i + 1);
+            }
+            indexLabels = grown;
+        }
+        return indexLabels[index];
+    }
+
+    private void drawCrosshair(Canvas canvas) {
+        // 绘制十字准星（触摸位置）
+        if (lastTouchX > 0 && lastTouchY > 0) {
+            canvas.drawLine(lastTouchX - CROSSHAIR_SIZE, lastTouchY, lastTouchX + CROSSHAIR_SIZE, lastTouchY, crosshairPaint);
+            canvas.drawLine(lastTouchX, lastTouchY - CROSSHAIR_SIZE, lastTouchX, lastTouchY + CROSSHAIR_SIZE, crosshairPaint);
+        }
+    }
+
+    /**
+     * 只重绘十字准星新旧位置覆盖的区域；同一帧内的多个 MOVE 合并为一次重绘
+     */
+    private void invalidateCrosshair(float oldX, float oldY, float newX, float newY) {
+        unionCrosshair(oldX, oldY);
+        unionCrosshair(newX, newY);
+        redraw.requestRedraw();
+    }
+
+    private void unionCrosshair(float x, float y) {
+        if (x > 0 && y > 0) {
+            redraw.getPending().union(x, y, CROSSHAIR_SIZE + crosshairPaint.getStrokeWidth());
+        }
+    }
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        // 窗口只在选取模式下可触摸；模式刚切换、窗口标志尚未生效时收到的事件不处理
+        if (!isSelectionMode) {
+            return false;
+        }
+        float x = event.getX();
+        float y = event.getY();
+
+        if (ClickLog.verbose()) {
+            android.util.Log.v("MarkerOverlayView", "Touch event: " + event.getAction() + " at (" + x + "," + y + ")");
+        }
+
+        switch (event.getAction()) {
+            case MotionEvent.ACTION_DOWN:
+                invalidateCrosshair(lastTouchX, lastTouchY, x, y);
+                lastTouchX = x;
+                lastTouchY = y;
+                return handleSelectionTouch(x, y);
+            case MotionEvent.ACTION_MOVE:
+                if (pressedPositionId >= 0 && Math.hypot(x - pressedX, y - pressedY) > HIT_RADIUS) {
+                    // 手指移开了位置圆圈，既不移除也不编辑
+                    cancelPositionPress();
+                }
+                if (x != lastTouchX || y != lastTouchY) {
+                    invalidateCrosshair(lastTouchX, lastTouchY, x, y);
+                    lastTouchX = x;
+                    lastTouchY = y;
+                }
+                return true;
+            case MotionEvent.ACTION_UP:
+                if (pressedPositionId >= 0) {
+                    // 未到长按时间就松开：移除该位置
+                    long id = pressedPositionId;
+                    cancelPositionPress();
+                    if (positionStore.remove(id)) {
+                        android.util.Log.d("MarkerOverlayView", "Removed position id " + id);
+                    }
+                }
+                return true;
+            case MotionEvent.ACTION_CANCEL:
+                cancelPositionPress();
+                return true;
+        }
+        return true;
+    }
+
+    private boolean handleSelectionTouch(float x, float y) {
+        getLocationOnScreen(screenLocation);
+
+        // 计算全局屏幕坐标
+        float screenX = screenLocation[0] + x;
+        float screenY = screenLocation[1] + y;
+        android.util.Log.d("MarkerOverlayView", "Selection touch: local(" + x + "," + y + ") screen(" + screenX + "," + screenY + ")");
+
+        // 检查是否点击了已存在的位置圆圈（点击相同位置则取消，长按则编辑）
+        PositionStore.Snapshot positions = positionStore.snapshot();
+        if (hitGrid == null || hitGrid.getPositions() != positions.asList()) {
+            hitGrid = PositionGrid.build(positions.asList(), HIT_RADIUS * 2);
+        }
+        int hit = hitGrid.hitTest(screenX, screenY, HIT_RADIUS);
+        if (hit >= 0) {
+            // 等松开或长按再决定是移除还是编辑
+            pressedPositionId = positions.getId(hit);
+            pressedX = x;
+            pressedY = y;
+            postDelayed(editPositionRunnable, ViewConfiguration.getLongPressTimeout());
+            return true;
+        }
+
+        // 添加新位置（写入共享存储，点击服务和重绘都由存储的变化通知驱动）；已达到最大位置数时存储拒绝添加
+        long id = positionStore.add(screenX, screenY);
+        if (id < 0) {
+            if (listener != null) {
+                listener.showToast("最多只能选取 " + PositionStore.MAX_POSITIONS + " 个位置");
+            }
+            return true;
+        }
+        if (listener != null) {
+            listener.onPositionSelected(screenX, screenY);
+        }
+        android.util.Log.d("MarkerOverlayView", "Added position id " + id + " at (" + screenX + "," + screenY + ")");
+        return true;
+    }
+
+    private void cancelPositionPress() {
+        pressedPositionId = -1;
+        removeCallbacks(editPositionRunnable);
+    }
+}
@@ -0,0 +1,188 @@
+package com.example.demo;
+
+import android.app.Activity;
+import android.app.AlertDialog;
+import android.content.Context;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.InputType;
+import android.view.WindowManager;
+import android.widget.CheckBox;
+import android.widget.EditText;
+import android.widget.LinearLayout;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import java.lang.ref.WeakReference;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 批量生成位置：先选模板（网格、直线、圆形、多边形），再填参数，在后台线程生成坐标并一次写入 PositionStore，
+ * 浮窗和点击服务各收到一次变化通知，而不是逐个添加。坐标和选取模式一样是屏幕坐标，默认参数按屏幕尺寸给出，
+ * 落在屏幕外的点去掉。后台任务不持有 Activity：结果用应用 Context 提示，设置页已关闭时不再提示。
+ */
+final class PositionPatternDialog {
+    private static final String[] PATTERNS = {"网格", "直线", "圆形", "多边形"};
+    private static final int PATTERN_GRID = 0;
+    private static final int PATTERN_LINE = 1;
+    private static final int PATTERN_CIRCLE = 2;
+    private static final int PATTERN_POLYGON = 3;
+    // 生成和写入存储都在这个线程上，几千个点也不占用主线程
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor();
+    private static final Handler MAIN_HANDLER = new Handler(Looper.getMainLooper());
+
+    private final Activity activity;
+    private final int screenWidth;
+    private final int screenHeight;
+
+    PositionPatternDialog(Activity activity) {
+        this.activity = activity;
+        // 整个屏幕（含状态栏和导航栏）的尺寸，和点击手势使用的坐标一致
+        WindowManager windowManager = (WindowManager) activity.getSystemService(Context.WINDOW_SERVICE);
+        Rect bounds = windowManager.getMaximumWindowMetrics().getBounds();
+        screenWidth = bounds.width();
+        screenHeight = bounds.height();
+    }
+
+    void show() {
+        new AlertDialog.Builder(activity)
+                .setTitle("选择模板")
+                .setItems(PATTERNS, (dialog, which) -> showParameters(which))
+                .setNegativeButton("取消", null)
+                .create()
+                .show();
+    }
+
+    private void showParameters(int pattern) {
+        int w = screenWidth;
+        int h = screenHeight;
+        String[] labels;
+        long[] defaults;
+        switch (pattern) {
+            case PATTERN_GRID:
+                labels = new String[]{"左上角 X", "左上角 Y", "列数", "行数", "水平间距（像素）", "垂直间距（像素）"};
+                defaults = new long[]{w / 10, h / 10, 8, 12, w * 8 / 10 / 7, h * 8 / 10 / 11};
+                break;
+            case PATTERN_LINE:
+                labels = new String[]{"起点 X", "起点 Y", "终点 X", "终点 Y", "点数（含两端）"};
+                defaults = new long[]{w / 10, h / 2, w * 9 / 10, h / 2, 10};
+                break;
+            case PATTERN_CIRCLE:
+                labels = new String[]{"圆心 X", "圆心 Y", "半径（像素）", "点数"};
+                defaults = new long[]{w / 2, h / 2, w * 4 / 10, 24};
+                break;
+            default:
+                labels = new String[]{"圆心 X", "圆心 Y", "外接圆半径（像素）", "边数（至少 3）", "每边点数（1 为只有顶点）"};
+                defaults = new long[]{w / 2, h / 2, w * 4 / 10, 6, 1};
+                break;
+        }
+
+        LinearLayout form = new LinearLayout(activity);
+        form.setOrientation(LinearLayout.VERTICAL);
+        form.setPadding(48, 16, 48, 0);
+        EditText[] inputs = new EditText[labels.length];
+        for (int i = 0; i < labels.length; i++) {
+            TextView label = new TextView(activity);
+            label.setText(labels[i]);
+            form.addView(label);
+            inputs[i] = new EditText(activity);
+            inputs[i].setInputType(InputType.TYPE_CLASS_NUMBER);
+            inputs[i].setText(String.valueOf(defaults[i]));
+            form.addView(inputs[i]);
+        }
+        CheckBox replaceCheckBox = new CheckBox(activity);
+        replaceCheckBox.setText("替换现有位置（不勾选则追加在后面）");
+        form.addView(replaceCheckBox);
+
+        new AlertDialog.Builder(activity)
+                .setTitle("生成位置：" + PATTERNS[pattern])
+                .setView(form)
+                .setPositiveButton("生成", (dialog, which) -> {
+                    long[] values = new long[inputs.length];
+                    for (int i = 0; i < inputs.length; i++) {
+                        values[i] = parseField(inputs[i], defaults[i]);
+                    }
+                    generate(pattern, values, replaceCheckBox.isChecked());
+                })
+                .setNegativeButton("取消", null)
+                .create()
+                .show();
+    }
+
+    private void generate(int pattern, long[] v, boolean replace) {
+        // 任务只捕获这些局部变量，不让静态线程池上的任务持有 Activity
+        Context appContext = activity.getApplicationContext();
+        WeakReference<Activity> activityRef = new WeakReference<>(activity);
+        int width = screenWidth;
+        int height = screenHeight;
+        EXECUTOR.execute(() -> {
+            long start = System.nanoTime();
+            String message;
+            try {
+                float[] coords;
+                switch (pattern) {
+                    case PATTERN_GRID:
+                        coords = PositionPatterns.grid(v[0], v[1], (int) v[2], (int) v[3], v[4], v[5]);
+                        break;
+                    case PATTERN_LINE:
+                        coords = PositionPatterns.line(v[0], v[1], v[2], v[3], (int) v[4]);
+                        break;
+                    case PATTERN_CIRCLE:
+                        coords = PositionPatterns.circle(v[0], v[1], v[2], (int) v[3]);
+                        break;
+                    default:
+                        coords = PositionPatterns.polygon(v[0], v[1], v[2], (int) v[3], (int) v[4]);
+                        break;
+                }
+                ClickPosition[] positions = PositionPatterns.toPositions(coords, width, height);
+                PositionStore store = PositionStore.getInstance();
+                int added;
+                if (replace) {
+                    added = store.replaceAll(positions);
+                } else {
+                    added = store.addAll(positions);
+                }
+                double millis = (System.nanoTime() - start) / 1_000_000.0;
+                android.util.Log.d("PositionPatternDialog", "Generated " + added + " positions ("
+                        + PATTERNS[pattern] + ") in " + millis + " ms");
+
+                StringBuilder text = new StringBuilder(String.format(Locale.getDefault(), "已生成 %d 个位置（%.1f ms）", added, millis));
+                int offScreen = coords.length / 2 - positions.length;
+                if (offScreen > 0) {
+                    text.append("，去掉屏幕外的 ").append(offScreen).append(" 个");
+                }
+                if (added < positions.length) {
+                    text.append("，超过上限 ").append(PositionStore.MAX_POSITIONS).append(" 的 ")
+                            .append(positions.length - added).append(" 个未添加");
+                }
+                message = text.toString();
+            } catch (IllegalArgumentException e) {
+                android.util.Log.w("PositionPatternDialog", "Invalid pattern parameters", e);
+                message = "参数无效：" + e.getMessage();
+            }
+            String result = message;
+            MAIN_HANDLER.post(() -> {
+                Activity owner = activityRef.get();
+                if (owner == null || owner.isFinishing() || owner.isDestroyed()) {
+                    return;
+                }
+                Toast.makeText(appContext, result, Toast.LENGTH_LONG).show();
+            });
+        });
+    }
+
+    private static long parseField(EditText input, long defaultValue) {
+        String text = input.getText().toString().trim();
+        if (text.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(text);
+        } catch (NumberFormatException e) {
+            return defaultValue;
+        }
+    }
+}
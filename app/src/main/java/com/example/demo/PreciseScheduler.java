@@ -0,0 +1,202 @@
+package com.example.demo;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.Log;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 预约启动调度器。
+ *
+ * 截止时间只在 schedule() 时根据墙上时钟计算一次，之后换算到 elapsedRealtimeNanos 上，
+ * 不再受墙上时钟跳变影响。等待分三个阶段：
+ * 1. 粗等待：在独立线程上用 Handler 休眠，每隔最多 COARSE_STEP_MS 重新计算剩余时间。Handler 的延时按 uptime 计，
+ *    设备休眠（Doze）时会停住，所以同时用 AlarmManager.setExactAndAllowWhileIdle 在准备阶段开始时唤醒，
+ *    闹钟到点后在调度线程上直接推进到下一阶段；没有精确闹钟权限时退回不精确的 setAndAllowWhileIdle；
+ * 2. 准备：截止前 PREPARE_LEAD_MS 回调 onPrepare（主线程），用于切换窗口状态、预热手势管线；
+ * 3. 精等待：截止前 SPIN_LEAD_MS 进入短睡眠 + 忙等，到点后在调度线程上直接回调 onFire。
+ */
+public class PreciseScheduler {
+    private static final String TAG = "PreciseScheduler";
+    private static final String THREAD_NAME = "KeepClick-Schedule";
+
+    private static final long PREPARE_LEAD_MS = 1000;  // 提前准备的时间
+    private static final long SPIN_LEAD_MS = 15;       // 进入精等待阶段的提前量
+    private static final long COARSE_STEP_MS = 30_000; // 粗等待阶段最长一次休眠
+    private static final long SPIN_THRESHOLD_NANOS = 1_500_000; // 剩余不足 1.5ms 时改为忙等
+    private static final String ACTION_WAKEUP = ".PRECISE_SCHEDULE_WAKEUP";
+
+    public interface Callback {
+        /** 截止前约 1 秒，在主线程调用 */
+        void onPrepare();
+
+        /**
+         * 到达截止时间，在调度线程上调用，应尽快返回
+         *
+         * @param deadlineNanos 截止时间（elapsedRealtimeNanos），可作为后续动作的触发时刻来统计相对截止时间的误差
+         */
+        void onFire(long deadlineNanos);
+
+        /** onFire 之后在主线程调用，wakeErrorNanos 为调度线程醒来的时间减去截止时间（不含 onFire 里的动作） */
+        void onFired(long wakeErrorNanos);
+    }
+
+    private final Context context;
+    private final Handler mainHandler;
+    private final AlarmManager alarmManager;
+    private final PendingIntent wakeupIntent;
+    private HandlerThread scheduleThread;
+    private Handler scheduleHandler;
+    private volatile Runnable pendingRunnable;
+    private volatile int generation;
+    private long deadlineNanos;
+    private boolean prepared;
+
+    // 唤醒闹钟到点：在调度线程上接收，取消正在等待的 Handler 休眠，立即执行下一步
+    private final BroadcastReceiver wakeupReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            Runnable step = pendingRunnable;
+            if (step != null) {
+                scheduleHandler.removeCallbacks(step);
+                step.run();
+            }
+        }
+    };
+
+    public PreciseScheduler(Context context, Handler mainHandler) {
+        this.context = context;
+        this.mainHandler = mainHandler;
+        this.alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        Intent intent = new Intent(context.getPackageName() + ACTION_WAKEUP).setPackage(context.getPackageName());
+        this.wakeupIntent = PendingIntent.getBroadcast(context, 0, intent,
+                PendingIntent.FLAG_IMMUTABLE | PendingIntent.FLAG_UPDATE_CURRENT);
+    }
+
+    /**
+     * 预约在墙上时间 targetWallMillis 触发。会取消之前的预约。
+     */
+    public void schedule(long targetWallMillis, Callback callback) {
+        cancel();
+        ensureThread();
+
+        long remainingMillis = targetWallMillis - System.currentTimeMillis();
+        final int myGeneration = generation;
+        deadlineNanos = SystemClock.elapsedRealtimeNanos() + remainingMillis * 1_000_000L;
+        prepared = false;
+
+        pendingRunnable = new Runnable() {
+            @Override
+            public void run() {
+                if (myGeneration != generation) {
+                    return;
+                }
+                long remainingNanos = deadlineNanos - SystemClock.elapsedRealtimeNanos();
+                long remaining = remainingNanos / 1_000_000L;
+
+                if (!prepared && remaining <= PREPARE_LEAD_MS) {
+                    prepared = true;
+                    mainHandler.post(() -> {
+                        if (myGeneration == generation) {
+                            callback.onPrepare();
+                        }
+                    });
+                }
+
+                if (remaining > SPIN_LEAD_MS) {
+                    // 粗等待：休眠到下一个阶段点，长时间等待时分段休眠以便重新校准
+                    long wait = remaining - SPIN_LEAD_MS;
+                    if (!prepared) {
+                        wait = Math.min(wait, remaining - PREPARE_LEAD_MS);
+                    }
+                    scheduleHandler.postDelayed(this, Math.max(1, Math.min(wait, COARSE_STEP_MS)));
+                    return;
+                }
+
+                // 精等待：短睡眠 + 忙等，直到截止时间
+                long errorNanos = spinUntilDeadline(myGeneration);
+                if (myGeneration != generation) {
+                    return;
+                }
+                callback.onFire(deadlineNanos);
+                generation++;
+                Log.d(TAG, "Fired with wake error " + (errorNanos / 1000) + " us");
+                mainHandler.post(() -> callback.onFired(errorNanos));
+            }
+        };
+        scheduleHandler.post(pendingRunnable);
+        if (remainingMillis > PREPARE_LEAD_MS) {
+            setWakeupAlarm(deadlineNanos / 1_000_000L - PREPARE_LEAD_MS);
+        }
+        if (remainingMillis < 0) {
+            Log.w(TAG, "Deadline already passed by " + (-remainingMillis) + " ms, firing now");
+        } else {
+            Log.d(TAG, "Scheduled in " + remainingMillis + " ms");
+        }
+    }
+
+    public void cancel() {
+        generation++;
+        if (scheduleHandler != null && pendingRunnable != null) {
+            scheduleHandler.removeCallbacks(pendingRunnable);
+        }
+        pendingRunnable = null;
+        alarmManager.cancel(wakeupIntent);
+    }
+
+    public void release() {
+        cancel();
+        if (scheduleThread != null) {
+            context.unregisterReceiver(wakeupReceiver);
+            scheduleThread.quitSafely();
+            scheduleThread = null;
+            scheduleHandler = null;
+        }
+    }
+
+    private long spinUntilDeadline(int myGeneration) {
+        long now = SystemClock.elapsedRealtimeNanos();
+        while (now < deadlineNanos && myGeneration == generation) {
+            long remaining = deadlineNanos - now;
+            if (remaining > SPIN_THRESHOLD_NANOS) {
+                LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS);
+            } else {
+                Thread.onSpinWait();
+            }
+            now = SystemClock.elapsedRealtimeNanos();
+        }
+        return now - deadlineNanos;
+    }
+
+    /**
+     * 在 elapsedRealtime 时刻 triggerElapsedMillis 唤醒设备（Doze 下也会触发）
+     */
+    private void setWakeupAlarm(long triggerElapsedMillis) {
+        if (alarmManager.canScheduleExactAlarms()) {
+            alarmManager.setExactAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP, triggerElapsedMillis, wakeupIntent);
+        } else {
+            // 没有精确闹钟权限：不精确的闹钟可能晚到，设备未休眠时仍由 Handler 按时推进
+            Log.w(TAG, "Exact alarms not allowed, falling back to inexact wakeup");
+            alarmManager.setAndAllowWhileIdle(AlarmManager.ELAPSED_REALTIME_WAKEUP, triggerElapsedMillis, wakeupIntent);
+        }
+    }
+
+    private void ensureThread() {
+        if (scheduleThread == null) {
+            scheduleThread = new HandlerThread(THREAD_NAME, Process.THREAD_PRIORITY_URGENT_DISPLAY);
+            scheduleThread.start();
+            scheduleHandler = new Handler(scheduleThread.getLooper());
+            // 闹钟广播投递到调度线程，和 Handler 上的等待步骤串行执行
+            context.registerReceiver(wakeupReceiver, new IntentFilter(context.getPackageName() + ACTION_WAKEUP),
+                    null, scheduleHandler, Context.RECEIVER_NOT_EXPORTED);
+        }
+    }
+}
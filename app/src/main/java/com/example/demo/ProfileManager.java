@@ -0,0 +1,142 @@
+package com.example.demo;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import android.util.Log;
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * 点击方案的保存和切换：方案文件在应用私有目录的 profiles 下（格式见 ProfileStore），不放在 SharedPreferences。
+ *
+ * 切换方案时内存映射读取文件，用一次发布替换 PositionStore 中的全部位置，再把间隔等设置写回
+ * SharedPreferences 并发给 AutoClickService；正在点击时引擎在下一个节拍换用新位置。
+ * 进程内单例，设置页和浮窗共享。
+ */
+public final class ProfileManager {
+    private static final String TAG = "ProfileManager";
+    private static final String PREFS_NAME = "AutoClickerPrefs";
+    private static final String KEY_ACTIVE_PROFILE = "active_profile";
+    private static final String PROFILE_DIR = "profiles";
+    private static ProfileManager instance;
+
+    private final Context context;
+    private final SharedPreferences prefs;
+    private final ProfileStore store;
+    private long lastSwitchNanos;
+
+    private ProfileManager(Context context) {
+        this.context = context;
+        this.prefs = context.getSharedPreferences(PREFS_NAME, Context.MODE_PRIVATE);
+        this.store = new ProfileStore(new File(context.getFilesDir(), PROFILE_DIR));
+    }
+
+    public static synchronized ProfileManager getInstance(Context context) {
+        if (instance == null) {
+            instance = new ProfileManager(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    public List<String> list() {
+        return store.list();
+    }
+
+    /**
+     * 最近一次保存或切换的方案名称，没有时返回空字符串
+     */
+    public String getActiveName() {
+        return prefs.getString(KEY_ACTIVE_PROFILE, "");
+    }
+
+    /**
+     * 最近一次切换的耗时（读取文件到发布新位置和设置），纳秒
+     */
+    public long getLastSwitchNanos() {
+        return lastSwitchNanos;
+    }
+
+    /**
+     * 把当前的位置和间隔设置保存为方案，同名方案被覆盖
+     */
+    public ClickProfile saveCurrent(String name) throws IOException {
+        ClickProfile profile = ClickProfile.of(name, PositionStore.getInstance().snapshot(),
+                prefs.getLong("min_interval", 150),
+                prefs.getLong("max_interval", 300),
+                prefs.getInt("random_offset", 10),
+                readIntervalKind(),
+                prefs.getBoolean("fixed_rate_timing", true),
+                prefs.getBoolean("catch_up_late_ticks", false),
+                prefs.getBoolean("burst_mode", false));
+        store.save(profile);
+        prefs.edit().putString(KEY_ACTIVE_PROFILE, name).apply();
+        Log.d(TAG, "Saved profile " + name + " with " + profile.getPositionCount() + " positions");
+        return profile;
+    }
+
+    /**
+     * 切换到指定方案：替换全部位置并应用其间隔设置
+     */
+    public ClickProfile switchTo(String name) throws IOException {
+        long startNanos = SystemClock.elapsedRealtimeNanos();
+        ClickProfile profile = store.load(name);
+        profile.applyPositions(PositionStore.getInstance());
+
+        Intent intent = ClickCommands.newIntent(context, ClickCommands.ACTION_UPDATE_SETTINGS);
+        intent.putExtra("min_interval", profile.getMinInterval());
+        intent.putExtra("max_interval", profile.getMaxInterval());
+        intent.putExtra("random_offset", profile.getRandomOffset());
+        intent.putExtra("fixed_rate", profile.isFixedRate());
+        intent.putExtra("catch_up", profile.isCatchUp());
+        intent.putExtra("interval_distribution", profile.getIntervalKind().name());
+        intent.putExtra("burst", profile.isBurst());
+        ClickCommands.send(context, intent);
+        lastSwitchNanos = SystemClock.elapsedRealtimeNanos() - startNanos;
+
+        prefs.edit()
+                .putString(KEY_ACTIVE_PROFILE, name)
+                .putLong("min_interval", profile.getMinInterval())
+                .putLong("max_interval", profile.getMaxInterval())
+                .putInt("random_offset", profile.getRandomOffset())
+                .putBoolean("fixed_rate_timing", profile.isFixedRate())
+                .putBoolean("catch_up_late_ticks", profile.isCatchUp())
+                .putString("interval_distribution", profile.getIntervalKind().name())
+                .putBoolean("burst_mode", profile.isBurst())
+                .apply();
+        Log.d(TAG, "Switched to profile " + name + " (" + profile.getPositionCount() + " positions) in "
+                + lastSwitchNanos / 1000 + " us");
+        return profile;
+    }
+
+    /**
+     * 按名称顺序切换到当前方案的下一个，没有保存的方案时返回 null
+     */
+    public ClickProfile switchToNext() throws IOException {
+        List<String> names = store.list();
+        if (names.isEmpty()) {
+            return null;
+        }
+        int current = names.indexOf(getActiveName());
+        return switchTo(names.get((current + 1) % names.size()));
+    }
+
+    public boolean delete(String name) {
+        boolean deleted = store.delete(name);
+        if (deleted && name.equals(getActiveName())) {
+            prefs.edit().remove(KEY_ACTIVE_PROFILE).apply();
+        }
+        return deleted;
+    }
+
+    private IntervalDistribution.Kind readIntervalKind() {
+        try {
+            return IntervalDistribution.Kind.valueOf(prefs.getString("interval_distribution",
+                    IntervalDistribution.Kind.UNIFORM.name()));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            return IntervalDistribution.Kind.UNIFORM;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.demo;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.view.View;
+
+/**
+ * 浮窗视图的局部重绘记录和调试显示：视图把状态变化涉及的矩形并入 {@link #getPending()}，由 {@link #requestRedraw()}
+ * 请求重绘；onDraw 开始时 {@link #beginFrame()} 取出本帧的区域，结束时 {@link #endFrame} 在开启调试时描出它。
+ *
+ * 显示的是视图“请求”重绘的矩形，不是实际重绘的范围：硬件加速下系统忽略 invalidate 传入的矩形，
+ * 由渲染线程自己计算需要重绘的部分（见 View#invalidate(int, int, int, int) 的说明）。
+ * 设置页勾选“显示浮窗请求重绘区域”时由浮窗的两个视图使用。
+ */
+final class RedrawDebugPainter {
+    private final View view;
+    // 下一帧要重绘的区域，以及正在绘制的这一帧的区域
+    private final DirtyRegion pending = new DirtyRegion();
+    private final DirtyRegion frame = new DirtyRegion();
+    private boolean enabled = false;
+    // 调试显示用的画笔，第一次开启时创建
+    private Paint fillPaint;
+    private Paint outlinePaint;
+    private Paint textPaint;
+    private final StringBuilder label = new StringBuilder();
+
+    RedrawDebugPainter(View view) {
+        this.view = view;
+    }
+
+    /** 下一帧要重绘的区域，在主线程上并入变化的矩形后调用 {@link #requestRedraw()} */
+    DirtyRegion getPending() {
+        return pending;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 在视图最上层显示每帧请求重绘的区域和面积占比（调试用）
+     */
+    void setEnabled(boolean enabled) {
+        if (enabled == this.enabled) {
+            return;
+        }
+        this.enabled = enabled;
+        if (enabled && fillPaint == null) {
+            fillPaint = new Paint();
+            fillPaint.setColor(0x30FF00FF);
+            outlinePaint = new Paint();
+            outlinePaint.setColor(0xFFFF00FF);
+            outlinePaint.setStyle(Paint.Style.STROKE);
+            outlinePaint.setStrokeWidth(2);
+            textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+            textPaint.setColor(0xFFFF00FF);
+            textPaint.setTextSize(24);
+        }
+        view.invalidate();
+    }
+
+    /**
+     * 按 pending 请求重绘；开启调试显示时整个视图重绘，以擦掉上一帧画的框
+     */
+    void requestRedraw() {
+        if (enabled) {
+            view.postInvalidateOnAnimation();
+        } else if (!pending.isEmpty()) {
+            view.postInvalidateOnAnimation(pending.getLeft(), pending.getTop(), pending.getRight(), pending.getBottom());
+        }
+    }
+
+    /**
+     * 在 onDraw 开始时调用：取出本帧的区域。没有记录的区域说明是系统触发的重绘（窗口大小变化等），按整个视图计
+     */
+    void beginFrame() {
+        frame.set(pending);
+        frame.clipTo(view.getWidth(), view.getHeight());
+        pending.reset();
+    }
+
+    /**
+     * 在 onDraw 结束时调用：开启调试显示时在最上层描出本帧请求重绘的区域
+     */
+    void endFrame(Canvas canvas) {
+        if (!enabled) {
+            return;
+        }
+        int width = view.getWidth();
+        int height = view.getHeight();
+        long viewArea = (long) width * height;
+        if (viewArea == 0) {
+            return;
+        }
+        boolean full = frame.isEmpty();
+        int left = full ? 0 : frame.getLeft();
+        int top = full ? 0 : frame.getTop();
+        int right = full ? width : frame.getRight();
+        int bottom = full ? height : frame.getBottom();
+        canvas.drawRect(left, top, right, bottom, fillPaint);
+        canvas.drawRect(left, top, right, bottom, outlinePaint);
+
+        // 占比保留一位小数，不经过 String.format
+        long permille = (full ? viewArea : frame.area()) * 1000 / viewArea;
+        label.setLength(0);
+        label.append("请求重绘 ").append(permille / 10).append('.').append(permille % 10).append("%  ")
+                .append(right - left).append('×').append(bottom - top);
+        float textY = top > 30 ? top - 6 : Math.min(bottom + 26, height - 4);
+        canvas.drawText(label, 0, label.length(), left + 4, textY, textPaint);
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo;
+
+import java.util.Random;
+
+/**
+ * 本地模拟时间源：本机时钟加上固定偏差，并模拟随机的网络往返延迟。用于测试校准逻辑。
+ */
+public class SimulatedTimeReference implements TimeReference {
+    private final long offsetMillis;
+    private final long maxRoundTripMillis;
+    private final Random random;
+
+    public SimulatedTimeReference(long offsetMillis, long maxRoundTripMillis, long seed) {
+        this.offsetMillis = offsetMillis;
+        this.maxRoundTripMillis = maxRoundTripMillis;
+        this.random = new Random(seed);
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        // 去程和回程各占一部分延迟，且不一定对称
+        sleepQuietly(nextDelay());
+        long time = System.currentTimeMillis() + offsetMillis;
+        sleepQuietly(nextDelay());
+        return time;
+    }
+
+    @Override
+    public String describe() {
+        return "simulated(" + offsetMillis + "ms)";
+    }
+
+    private long nextDelay() {
+        return maxRoundTripMillis <= 0 ? 0 : (long) (random.nextDouble() * maxRoundTripMillis / 2);
+    }
+
+    private static void sleepQuietly(long millis) {
+        if (millis <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
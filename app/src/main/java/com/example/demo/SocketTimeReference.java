@@ -0,0 +1,51 @@
+package com.example.demo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 基于 TCP 的简单时间源：连接后读取一行文本，内容为 Unix 毫秒时间戳。
+ *
+ * 本地测试可以在电脑上运行：
+ * {@code while true; do date +%s%3N | nc -l 5000; done}
+ */
+public class SocketTimeReference implements TimeReference {
+    private final String host;
+    private final int port;
+    private final int timeoutMs;
+
+    public SocketTimeReference(String host, int port, int timeoutMs) {
+        this.host = host;
+        this.port = port;
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public long currentTimeMillis() throws IOException {
+        try (Socket socket = new Socket()) {
+            socket.setTcpNoDelay(true);
+            socket.setSoTimeout(timeoutMs);
+            socket.connect(new InetSocketAddress(host, port), timeoutMs);
+            BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+            String line = reader.readLine();
+            if (line == null) {
+                throw new IOException("Empty response from " + describe());
+            }
+            try {
+                return Long.parseLong(line.trim());
+            } catch (NumberFormatException e) {
+                throw new IOException("Invalid time from " + describe() + ": " + line, e);
+            }
+        }
+    }
+
+    @Override
+    public String describe() {
+        return host + ":" + port;
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.demo;
+
+import java.io.IOException;
+
+/**
+ * 参考时间源，用于校准本机时钟与目标服务器时钟之间的偏差。
+ */
+public interface TimeReference {
+    /**
+     * 查询参考时钟的当前时间（Unix 毫秒）。可能阻塞，不要在主线程调用。
+     */
+    long currentTimeMillis() throws IOException;
+
+    /**
+     * 用于界面和日志显示的描述
+     */
+    String describe();
+}
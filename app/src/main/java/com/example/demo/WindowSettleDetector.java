@@ -0,0 +1,89 @@
+package com.example.demo;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.View;
+import android.view.ViewTreeObserver;
+
+/**
+ * 悬浮窗稳定检测。
+ *
+ * 窗口参数（大小、标志）通过 updateViewLayout 修改后，系统会在下一次遍历中重新布局并绘制。
+ * await() 之后第一次没有待处理布局的绘制完成，即认为窗口的变化已经生效；
+ * 超过 timeoutMs 仍未等到（例如视图未附加到窗口）时按超时处理，保证启动不会被无限推迟。
+ */
+public class WindowSettleDetector {
+    public interface Callback {
+        /**
+         * @param settleMillis 从 await() 到判定稳定的耗时
+         * @param timedOut 是否因超时而结束
+         */
+        void onSettled(long settleMillis, boolean timedOut);
+    }
+
+    private final View view;
+    private final long timeoutMs;
+    // 超时和结束都投递到主线程 Looper：视图未附加到窗口时 View.post 的任务要等到附加后才执行
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private Callback pending;
+    private long startUptime;
+
+    private final ViewTreeObserver.OnDrawListener drawListener = new ViewTreeObserver.OnDrawListener() {
+        @Override
+        public void onDraw() {
+            if (pending == null || view.isLayoutRequested()) {
+                return;
+            }
+            // 绘制回调中不能移除监听，放到本帧之后结束；此时这一帧已经提交
+            mainHandler.post(finishRunnable);
+        }
+    };
+    private final Runnable finishRunnable = () -> finish(false);
+    private final Runnable timeoutRunnable = () -> finish(true);
+
+    public WindowSettleDetector(View view, long timeoutMs) {
+        this.view = view;
+        this.timeoutMs = timeoutMs;
+    }
+
+    /**
+     * 在主线程调用，应在修改窗口参数之后调用。会取消尚未完成的等待。
+     */
+    public void await(Callback callback) {
+        cancel();
+        pending = callback;
+        startUptime = SystemClock.uptimeMillis();
+        view.getViewTreeObserver().addOnDrawListener(drawListener);
+        mainHandler.postDelayed(timeoutRunnable, timeoutMs);
+        // 窗口没有任何变化时也强制绘制一帧，最多一个 vsync 即可确认
+        view.invalidate();
+    }
+
+    public void cancel() {
+        if (pending == null) {
+            return;
+        }
+        pending = null;
+        detach();
+    }
+
+    private void finish(boolean timedOut) {
+        if (pending == null) {
+            return;
+        }
+        Callback callback = pending;
+        pending = null;
+        detach();
+        callback.onSettled(SystemClock.uptimeMillis() - startUptime, timedOut);
+    }
+
+    private void detach() {
+        mainHandler.removeCallbacks(timeoutRunnable);
+        mainHandler.removeCallbacks(finishRunnable);
+        ViewTreeObserver observer = view.getViewTreeObserver();
+        if (observer.isAlive()) {
+            observer.removeOnDrawListener(drawListener);
+        }
+    }
+}
@@ -0,0 +1,32 @@
+// 点击引擎的纯 Java 部分：不依赖 Android，可在普通 JVM 上测试和做基准测试
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+// 运行：./gradlew :core:jmh，结果写入 core/build/results/jmh/results.json
+jmh {
+    jmhVersion = libs.versions.jmh.get()
+    warmupIterations = 3
+    iterations = 5
+    fork = 1
+    resultFormat = "JSON"
+}
+
+// 无设备回放：./gradlew :core:simulate -PsimArgs="小时数 种子 位置数 间隔分布"
+tasks.register<JavaExec>("simulate") {
+    group = "application"
+    description = "Replays a click plan on a virtual clock and prints timing statistics"
+    classpath = sourceSets["main"].runtimeClasspath
+    mainClass.set("com.example.demo.ClickSimulator")
+    args = (findProperty("simArgs") as String?)?.split(" ") ?: emptyList()
+}
@@ -0,0 +1,90 @@
+package com.example.demo;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 点击引擎每个节拍的开销：位置轮换、随机间隔、随机偏移和节拍排期，
+ * 时间由虚拟时钟推进，点击交给计数的手势接收端。loopEvent 测量完整的 ClickLoop
+ * （含手势跟踪和指标），每次执行虚拟时钟上的一个事件（节拍或手势回调）。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClickEngineBenchmark {
+    @Param({"1", "10"})
+    public int positions;
+
+    @Param({"0", "10"})
+    public int randomOffset;
+
+    private ClickEngine engine;
+    private VirtualClock clock;
+    private CountingGestureSink sink;
+    private VirtualClock loopClock;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        engine = new ClickEngine(new XoroshiroRandom(42));
+        engine.updateSettings(150, 300, randomOffset);
+        for (int i = 0; i < positions; i++) {
+            engine.addPosition(100 + i * 40, 300 + i * 25);
+        }
+        clock = new VirtualClock();
+        sink = new CountingGestureSink(clock);
+        engine.start(clock.uptimeMillis());
+
+        ClickEngine loopEngine = new ClickEngine(new XoroshiroRandom(42));
+        loopEngine.updateSettings(150, 300, randomOffset);
+        for (int i = 0; i < positions; i++) {
+            loopEngine.addPosition(100 + i * 40, 300 + i * 25);
+        }
+        loopClock = new VirtualClock();
+        new ClickLoop(loopEngine, loopClock, loopClock, new CountingGestureSink(loopClock)).start();
+    }
+
+    /**
+     * 单次点击模式的一个完整节拍
+     */
+    @Benchmark
+    public long tick() {
+        long now = clock.uptimeMillis();
+        int index = engine.nextClick(now);
+        sink.dispatch(index, engine.getClickX(), engine.getClickY());
+        long next = engine.scheduleNext(now);
+        clock.runUntil(next);
+        return next;
+    }
+
+    /**
+     * 批量模式的一个节拍（整轮位置）
+     */
+    @Benchmark
+    public long burstTick() {
+        long now = clock.uptimeMillis();
+        int count = engine.nextBurst(now, 20);
+        for (int i = 0; i < count; i++) {
+            sink.dispatch(engine.getBurstIndex(i), engine.getBurstX(i), engine.getBurstY(i));
+        }
+        long next = engine.scheduleNext(now);
+        clock.runUntil(next);
+        return next;
+    }
+
+    /**
+     * 完整点击循环上的一个事件
+     */
+    @Benchmark
+    public long loopEvent() {
+        loopClock.runNext();
+        return loopClock.uptimeMillis();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.demo;
+
+/**
+ * 基准测试用的手势接收端：代替 dispatchGesture，只累加坐标，防止 JIT 把点击计算当作死代码消除。
+ * 手势在下一个事件里立即完成，回调复用同一个 Runnable。
+ */
+final class CountingGestureSink implements GestureSink {
+    private final VirtualClock clock;
+    private long count;
+    private double checksum;
+    private Callback pendingCallback;
+    private long pendingSeq;
+
+    private final Runnable completeTask = new Runnable() {
+        @Override
+        public void run() {
+            pendingCallback.onGestureCompleted(pendingSeq);
+        }
+    };
+
+    CountingGestureSink(VirtualClock clock) {
+        this.clock = clock;
+    }
+
+    void dispatch(int index, float x, float y) {
+        count++;
+        checksum += x + y + index;
+    }
+
+    @Override
+    public boolean dispatchClick(int index, float x, float y, long holdMillis, long seq, Callback callback) {
+        dispatch(index, x, y);
+        pendingCallback = callback;
+        pendingSeq = seq;
+        clock.post(completeTask);
+        return true;
+    }
+
+    @Override
+    public boolean dispatchBurst(ClickEngine engine, int count, long seq, Callback callback) {
+        for (int i = 0; i < count; i++) {
+            dispatch(engine.getBurstIndex(i), engine.getBurstX(i), engine.getBurstY(i));
+        }
+        pendingCallback = callback;
+        pendingSeq = seq;
+        clock.post(completeTask);
+        return true;
+    }
+
+    long getCount() {
+        return count;
+    }
+
+    double getChecksum() {
+        return checksum;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.demo;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * 切换方案的开销：decode 只是解码内存中的数据，load 还包括打开文件和内存映射。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProfileLoadBenchmark {
+    @Param({"100", "5000"})
+    public int positions;
+
+    private File directory;
+    private ProfileStore store;
+    private ByteBuffer encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        PositionStore source = new PositionStore();
+        ClickPosition[] batch = new ClickPosition[positions];
+        for (int i = 0; i < positions; i++) {
+            ClickPosition pos = new ClickPosition(20 + (i % 50) * 21, 60 + (i / 50) * 23);
+            pos.setRepeat(1 + i % 3);
+            if (i % 2 == 0) {
+                pos.setHoldMillis(80);
+                pos.setInterval(200, 400);
+            }
+            batch[i] = pos;
+        }
+        source.addAll(batch);
+        ClickProfile profile = ClickProfile.of("bench", source.snapshot(), 100, 300, 12,
+                IntervalDistribution.Kind.UNIFORM, true, false, false);
+        directory = Files.createTempDirectory("profiles").toFile();
+        store = new ProfileStore(directory);
+        store.save(profile);
+        encoded = ProfileStore.encode(profile);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    @Benchmark
+    public ClickProfile decode() throws IOException {
+        return ProfileStore.decode("bench", encoded.duplicate());
+    }
+
+    @Benchmark
+    public ClickProfile load() throws IOException {
+        return store.load("bench");
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 位置变化后在点击线程上重建一轮加权点击顺序的开销。ONE_HEAVY 是批量生成的位置（repeat 1）加一个多次的位置，
+ * MIXED 是每个位置随机取 1 ~ MAX_REPEAT 次（一轮最长）。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScheduleBenchmark {
+    @Param({"1000", "5000"})
+    public int positions;
+
+    @Param({"ONE_HEAVY", "MIXED"})
+    public String repeats;
+
+    private int[] weights;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        weights = new int[positions];
+        for (int i = 0; i < positions; i++) {
+            weights[i] = "MIXED".equals(repeats) ? 1 + random.nextInt(ClickPosition.MAX_REPEAT) : 1;
+        }
+        if (!"MIXED".equals(repeats)) {
+            weights[positions - 1] = 3;
+        }
+    }
+
+    @Benchmark
+    public int[] weightedOrder() {
+        return ClickEngine.weightedOrder(weights);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.demo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * 浮窗和预约相关的纯计算：位置命中测试（逐个比较和网格索引）、预约时间计算和指标直方图记录。
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UiPathBenchmark {
+    @Param({"10", "100", "1000"})
+    public int positions;
+
+    private final List<ClickPosition> clickPositions = new ArrayList<>();
+    private final LogHistogram histogram = new LogHistogram();
+    private final TimeZone timeZone = TimeZone.getTimeZone("Asia/Shanghai");
+    private PositionGrid grid;
+    private float[] probeXs;
+    private float[] probeYs;
+    private int probe;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < positions; i++) {
+            clickPositions.add(new ClickPosition(random.nextInt(1080), random.nextInt(2400)));
+        }
+        grid = PositionGrid.build(clickPositions, 60);
+        // 一半探测点落在已有位置上，一半随机
+        probeXs = new float[1024];
+        probeYs = new float[1024];
+        for (int i = 0; i < probeXs.length; i++) {
+            if (i % 2 == 0) {
+                ClickPosition pos = clickPositions.get(random.nextInt(positions));
+                probeXs[i] = pos.getX() + random.nextInt(20);
+                probeYs[i] = pos.getY() - random.nextInt(20);
+            } else {
+                probeXs[i] = random.nextInt(1080);
+                probeYs[i] = random.nextInt(2400);
+            }
+        }
+    }
+
+    @Benchmark
+    public int hitTest() {
+        int i = probe++ & (probeXs.length - 1);
+        return ClickGeometry.hitTest(clickPositions, probeXs[i], probeYs[i], 30);
+    }
+
+    @Benchmark
+    public int gridHitTest() {
+        int i = probe++ & (probeXs.length - 1);
+        return grid.hitTest(probeXs[i], probeYs[i], 30);
+    }
+
+    @Benchmark
+    public long nextScheduleOccurrence() {
+        return ScheduleCalculator.nextOccurrence(1_700_000_000_000L + (probe++ & 0xFFFF) * 1000L,
+                timeZone, 12, 30, 0);
+    }
+
+    @Benchmark
+    public void histogramRecord() {
+        histogram.record(probe++ & 0x3FF);
+    }
+}
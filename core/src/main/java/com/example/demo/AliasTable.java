@@ -0,0 +1,74 @@
+package com.example.demo;
+
+/**
+ * 别名表（Vose 算法）：按任意权重 O(1) 抽取下标。
+ *
+ * 构建 O(n)；抽样只用一个 64 位随机数：高 32 位选列，低 32 位决定取本列还是它的别名。
+ */
+public final class AliasTable {
+    private final double[] probability;
+    private final int[] alias;
+
+    /**
+     * @param weights 非负权重，至少有一个为正
+     */
+    public AliasTable(double[] weights) {
+        int n = weights.length;
+        double total = 0;
+        for (double w : weights) {
+            if (w < 0 || Double.isNaN(w) || Double.isInfinite(w)) {
+                throw new IllegalArgumentException("Invalid weight: " + w);
+            }
+            total += w;
+        }
+        if (n == 0 || total <= 0) {
+            throw new IllegalArgumentException("Weights must contain a positive value");
+        }
+
+        probability = new double[n];
+        alias = new int[n];
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[--largeCount];
+            probability[s] = scaled[s];
+            alias[s] = l;
+            scaled[l] = scaled[l] + scaled[s] - 1;
+            if (scaled[l] < 1) {
+                small[smallCount++] = l;
+            } else {
+                large[largeCount++] = l;
+            }
+        }
+        // 剩下的列（含浮点误差留下的）概率为 1
+        while (largeCount > 0) {
+            probability[large[--largeCount]] = 1;
+        }
+        while (smallCount > 0) {
+            probability[small[--smallCount]] = 1;
+        }
+    }
+
+    public int size() {
+        return probability.length;
+    }
+
+    public int sample(ClickRandom random) {
+        long bits = random.nextLong();
+        int column = (int) (((bits >>> 32) * probability.length) >>> 32);
+        double coin = (bits & 0xFFFFFFFFL) * 0x1.0p-32;
+        return coin < probability[column] ? column : alias[column];
+    }
+}
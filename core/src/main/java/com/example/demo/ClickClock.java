@@ -0,0 +1,11 @@
+package com.example.demo;
+
+/**
+ * 点击循环使用的时钟（毫秒，单调递增）。
+ *
+ * 设备上由 SystemClock.uptimeMillis 提供，与 Handler.postAtTime 使用同一时间基准；
+ * 模拟时由 VirtualClock 提供，时间只随事件推进。
+ */
+public interface ClickClock {
+    long uptimeMillis();
+}
@@ -0,0 +1,631 @@
+package com.example.demo;
+
+/**
+ * 点击引擎：位置轮换、随机间隔、随机偏移和节拍排期。
+ *
+ * 不依赖 Android API，由 AutoClickService 在点击线程上驱动。每次点击的稳态路径
+ * （nextClick + scheduleNext）不分配任何对象：偏移后的坐标写入引擎内部字段，
+ * 由调用方通过 getClickX()/getClickY() 读取。
+ *
+ * 点击顺序：位置、激活状态或 repeat 变化时，按平滑加权轮询预先生成一轮的位置序列（只含激活的位置，
+ * 每个位置出现 repeat 次，尽量均匀地穿插，如 repeat 为 3/1/1 时为 A B A C A），点击时只需沿序列前进一格，
+ * 不需要逐个跳过未激活的位置。没有激活的位置时返回 RESULT_IDLE，由点击循环进入空闲状态。
+ *
+ * 位置保存在 PositionStore 中，可由其他线程（如浮窗）直接修改。引擎只在节拍边界（arm / start /
+ * nextClick / nextBurst 等）读取一次最新快照，快照变化时重建点击序列，一个节拍内看到的位置序号始终一致。
+ * getPosition() 返回的对象只读，修改位置须通过引擎或 PositionStore 的方法。
+ * 每个位置可以单独设置间隔、随机半径和按下时长（见 ClickPosition），未设置时使用全局值。
+ */
+public class ClickEngine {
+    /** arm / nextBurst 返回值：没有可点击的位置（或批量上限为 0） */
+    public static final int RESULT_STOP = -1;
+    /** nextClick / nextBurst 返回值：没有激活的位置，点击循环应进入空闲，等位置变化后再继续 */
+    public static final int RESULT_IDLE = -2;
+    /** 未单独设置按下时长的位置使用的时长 */
+    public static final long DEFAULT_HOLD_MS = 50;
+
+    private final PositionStore store;
+    // 当前使用的位置快照，只在节拍边界换新
+    private PositionStore.Snapshot positions;
+    private final ClickTimer clickTimer = new ClickTimer();
+    private final ClickTrace clickTrace = new ClickTrace();
+    private final ClickRandom random;
+    // 一轮的点击顺序（激活位置的序号），slot 为下一次点击在序列中的位置
+    private int[] schedule = new int[0];
+    private int slot = 0;
+    // 各位置自己的间隔分布，null 表示使用全局分布
+    private IntervalDistribution[] positionIntervals = new IntervalDistribution[0];
+    private long minClickInterval = 150; // 最小间隔，默认150ms
+    private long maxClickInterval = 300; // 最大间隔，默认300ms
+    private int randomOffset = 10;       // 随机偏移半径，默认10px
+    private long intervalFloor = 0;      // 间隔下限（自适应限流），0 表示不限制
+    // 是否有位置的偏移半径不为 0，随位置快照和全局偏移重算
+    private boolean anyRandomOffset;
+    // 间隔分布：类型和经验数据，随最小/最大间隔重建
+    private IntervalDistribution.Kind intervalKind = IntervalDistribution.Kind.UNIFORM;
+    private EmpiricalDistribution empiricalIntervals;
+    private IntervalDistribution intervalDistribution = IntervalDistributions.uniform(minClickInterval, maxClickInterval);
+
+    // 最近一次点击的结果（复用字段，避免每次点击分配 float[]）
+    private int clickIndex = -1;
+    private float clickX;
+    private float clickY;
+    private long lastLateness;
+    private long lastInterval;
+
+    // 最近一次批量点击的结果（容量随位置数增长，稳态下不再分配）
+    private int burstCount;
+    private int burstStartSlot;
+    private int[] burstIndices = new int[0];
+    private float[] burstXs = new float[0];
+    private float[] burstYs = new float[0];
+
+    // 预备（armed）状态：第一次点击的位置、偏移坐标和间隔提前抽取好，触发时直接使用
+    private boolean armed;
+    private int armedSlot;
+    private int armedIndex;
+    private float armedX;
+    private float armedY;
+    private long armedInterval;
+    private boolean armedIntervalPending;
+
+    public ClickEngine() {
+        this(new XoroshiroRandom());
+    }
+
+    /**
+     * @param random 间隔和偏移的随机数源；传入固定种子的生成器可以复现点击序列
+     */
+    public ClickEngine(ClickRandom random) {
+        this(random, new PositionStore());
+    }
+
+    /**
+     * @param store 位置存储，可与浮窗共享（PositionStore.getInstance()）
+     */
+    public ClickEngine(ClickRandom random, PositionStore store) {
+        this.random = random;
+        this.store = store;
+        syncPositions();
+    }
+
+    public PositionStore getPositionStore() {
+        return store;
+    }
+
+    /**
+     * @return 是否添加成功（已达 PositionStore.MAX_POSITIONS 时不添加）
+     */
+    public boolean addPosition(float x, float y) {
+        boolean added = store.add(x, y) >= 0;
+        syncPositions();
+        return added;
+    }
+
+    /**
+     * 添加带点击参数的位置（坐标、激活状态和参数从 spec 复制）
+     *
+     * @return 是否添加成功（已达 PositionStore.MAX_POSITIONS 时不添加）
+     */
+    public boolean addPosition(ClickPosition spec) {
+        boolean added = store.add(spec) >= 0;
+        syncPositions();
+        return added;
+    }
+
+    /**
+     * 以下按序号修改的方法，序号指存储的最新快照中的序号
+     */
+    public boolean removePosition(int index) {
+        boolean removed = store.removeAt(index);
+        syncPositions();
+        return removed;
+    }
+
+    public void clearPositions() {
+        store.clear();
+        syncPositions();
+    }
+
+    /**
+     * 激活或停用位置，重建点击序列
+     */
+    public boolean setPositionActive(int index, boolean active) {
+        PositionStore.Snapshot latest = store.snapshot();
+        boolean updated = index >= 0 && index < latest.size() && store.setActive(latest.getId(index), active);
+        syncPositions();
+        return updated;
+    }
+
+    /**
+     * 更新位置的点击参数（坐标和激活状态不变）
+     */
+    public boolean updatePositionSpec(int index, ClickPosition spec) {
+        PositionStore.Snapshot latest = store.snapshot();
+        boolean updated = index >= 0 && index < latest.size() && store.updateSpec(latest.getId(index), spec);
+        syncPositions();
+        return updated;
+    }
+
+    /**
+     * 位置数（同时换用存储的最新快照，之后的 getPosition 与之一致）
+     */
+    public int getPositionCount() {
+        syncPositions();
+        return positions.size();
+    }
+
+    /** 只读，不要修改返回的对象 */
+    public ClickPosition getPosition(int index) {
+        return positions.get(index);
+    }
+
+    /**
+     * 当前使用的位置快照版本；按位置序号缓存的数据（如手势）在版本变化后失效
+     */
+    public long getPositionsVersion() {
+        return positions.getVersion();
+    }
+
+    public void updateSettings(long minInterval, long maxInterval, int offset) {
+        this.minClickInterval = minInterval;
+        this.maxClickInterval = maxInterval;
+        this.randomOffset = offset;
+        rebuildIntervalDistribution();
+        anyRandomOffset = scanRandomOffset();
+        armed = false;
+    }
+
+    /**
+     * 设置间隔分布类型。EMPIRICAL 使用 empirical 给出的直方图，为 null 时按均匀分布处理；
+     * 其他类型的参数由最小/最大间隔推导。
+     */
+    public void setIntervalDistribution(IntervalDistribution.Kind kind, EmpiricalDistribution empirical) {
+        this.intervalKind = kind;
+        this.empiricalIntervals = empirical;
+        rebuildIntervalDistribution();
+        armed = false;
+    }
+
+    public IntervalDistribution.Kind getIntervalKind() {
+        return intervalKind;
+    }
+
+    public long getMinClickInterval() {
+        return minClickInterval;
+    }
+
+    public long getMaxClickInterval() {
+        return maxClickInterval;
+    }
+
+    public int getRandomOffset() {
+        return randomOffset;
+    }
+
+    /** 位置 index 的按下时长（毫秒） */
+    public long getHoldDuration(int index) {
+        long hold = positions.get(index).getHoldMillis();
+        return hold == ClickPosition.INHERIT ? DEFAULT_HOLD_MS : hold;
+    }
+
+    /** 位置 index 的随机偏移半径（像素） */
+    public int getOffsetRadius(int index) {
+        int radius = positions.get(index).getOffsetRadius();
+        return radius == ClickPosition.INHERIT ? randomOffset : radius;
+    }
+
+    /** 是否有位置的随机偏移半径不为 0（为 0 时每次点击的坐标固定，手势可以缓存） */
+    public boolean hasRandomOffset() {
+        return anyRandomOffset;
+    }
+
+    private boolean scanRandomOffset() {
+        for (int i = 0; i < positions.size(); i++) {
+            if (getOffsetRadius(i) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /** 一轮的点击次数（激活位置的 repeat 之和），为 0 时没有可点击的位置 */
+    public int getRoundLength() {
+        return schedule.length;
+    }
+
+    /**
+     * 设置间隔下限：抽取的间隔小于它时按下限排期。用于按系统实际完成速度限流。
+     */
+    public void setIntervalFloor(long floor) {
+        this.intervalFloor = Math.max(0, floor);
+    }
+
+    public long getIntervalFloor() {
+        return intervalFloor;
+    }
+
+    public ClickTimer getTimer() {
+        return clickTimer;
+    }
+
+    public ClickTrace getTrace() {
+        return clickTrace;
+    }
+
+    /**
+     * 进入预备状态：确定第一个激活的位置，提前抽取它的偏移坐标和第一个间隔。
+     * 之后的 start() 会直接使用这些值，位置或设置变化时预备状态自动失效。
+     *
+     * @return 第一次点击的位置序号，没有可点击的位置时返回 RESULT_STOP
+     */
+    public int arm() {
+        syncPositions();
+        armed = false;
+        if (schedule.length == 0) {
+            return RESULT_STOP;
+        }
+        int i = schedule[0];
+        applyRandomOffset(i, positions.get(i));
+        armedSlot = 0;
+        armedIndex = i;
+        armedX = clickX;
+        armedY = clickY;
+        armedInterval = nextInterval(i);
+        armed = true;
+        return i;
+    }
+
+    public boolean isArmed() {
+        syncPositions();
+        return armed;
+    }
+
+    public void disarm() {
+        armed = false;
+    }
+
+    public int getArmedIndex() {
+        return armedIndex;
+    }
+
+    public float getArmedX() {
+        return armedX;
+    }
+
+    public float getArmedY() {
+        return armedY;
+    }
+
+    /**
+     * 开始新的点击序列：从第一个位置开始（预备状态下从预备的位置开始），第一次点击的目标时间为 now。
+     */
+    public void start(long now) {
+        syncPositions();
+        slot = armed ? armedSlot : 0;
+        clickIndex = -1;
+        armedIntervalPending = false;
+        clickTimer.start(now);
+    }
+
+    /**
+     * 从空闲状态恢复：下一次节拍的目标时间为 now，空闲期间不计入延迟，已有的统计保留
+     */
+    public void resume(long now) {
+        armedIntervalPending = false;
+        clickTimer.resume(now);
+    }
+
+    /**
+     * 取出本次节拍要点击的位置，计算随机偏移并切换到下一个位置。
+     *
+     * @return 被点击的位置序号，或 RESULT_IDLE
+     */
+    public int nextClick(long now) {
+        syncPositions();
+        if (schedule.length == 0) {
+            return RESULT_IDLE;
+        }
+        if (slot >= schedule.length) {
+            slot = 0;
+        }
+
+        int index = schedule[slot];
+        ClickPosition pos = positions.get(index);
+        lastLateness = clickTimer.onTick(now);
+        if (armed && slot == armedSlot) {
+            // 预备好的第一次点击：坐标和间隔已经抽取过
+            clickX = armedX;
+            clickY = armedY;
+            armedIntervalPending = true;
+        } else {
+            applyRandomOffset(index, pos);
+        }
+        armed = false;
+        clickIndex = index;
+        clickTrace.record(now, ClickTrace.EVENT_CLICK, clickIndex, clickX, clickY, lastLateness);
+
+        // 切换到序列中的下一次点击
+        slot = (slot + 1) % schedule.length;
+        return clickIndex;
+    }
+
+    /**
+     * 批量取出一轮点击：从点击序列的当前位置开始，按顺序取最多 maxCount 次激活位置的点击（最多一整轮，
+     * 重复次数大于 1 的位置会出现多次），计算各自的随机偏移。整批算作一个节拍，结果通过 getBurstX/Y/Index 读取。
+     *
+     * @return 本批的点击数，没有激活的位置时返回 RESULT_IDLE，maxCount 不大于 0 时返回 RESULT_STOP
+     */
+    public int nextBurst(long now, int maxCount) {
+        syncPositions();
+        int size = schedule.length;
+        if (size == 0) {
+            return RESULT_IDLE;
+        }
+        if (maxCount <= 0) {
+            return RESULT_STOP;
+        }
+        if (slot >= size) {
+            slot = 0;
+        }
+        ensureBurstCapacity(Math.min(size, maxCount));
+
+        lastLateness = clickTimer.onTick(now);
+        burstCount = 0;
+        burstStartSlot = slot;
+        while (burstCount < size && burstCount < maxCount) {
+            int current = slot;
+            int index = schedule[current];
+            slot = (slot + 1) % size;
+            ClickPosition pos = positions.get(index);
+            if (armed && current == armedSlot) {
+                clickX = armedX;
+                clickY = armedY;
+                armedIntervalPending = true;
+            } else {
+                applyRandomOffset(index, pos);
+            }
+            armed = false;
+            burstIndices[burstCount] = index;
+            burstXs[burstCount] = clickX;
+            burstYs[burstCount] = clickY;
+            clickTrace.record(now, ClickTrace.EVENT_CLICK, index, clickX, clickY, lastLateness);
+            burstCount++;
+        }
+        clickIndex = burstIndices[0];
+        return burstCount;
+    }
+
+    public int getBurstCount() {
+        return burstCount;
+    }
+
+    /** 本批第一次点击在点击序列中的位置；偏移固定时同一起点的批次内容相同，可据此缓存手势 */
+    public int getBurstStartSlot() {
+        return burstStartSlot;
+    }
+
+    public int getBurstIndex(int i) {
+        return burstIndices[i];
+    }
+
+    public float getBurstX(int i) {
+        return burstXs[i];
+    }
+
+    public float getBurstY(int i) {
+        return burstYs[i];
+    }
+
+    /**
+     * 点击分发后调用，抽取下一次间隔并返回下一次节拍的绝对目标时间。
+     */
+    public long scheduleNext(long now) {
+        if (armedIntervalPending) {
+            lastInterval = armedInterval;
+            armedIntervalPending = false;
+        } else {
+            lastInterval = nextInterval(clickIndex);
+        }
+        if (lastInterval < intervalFloor) {
+            lastInterval = intervalFloor;
+        }
+        return clickTimer.scheduleNext(now, lastInterval);
+    }
+
+    public int getClickIndex() {
+        return clickIndex;
+    }
+
+    public float getClickX() {
+        return clickX;
+    }
+
+    public float getClickY() {
+        return clickY;
+    }
+
+    public long getLastLateness() {
+        return lastLateness;
+    }
+
+    public long getLastInterval() {
+        return lastInterval;
+    }
+
+    private void ensureBurstCapacity(int capacity) {
+        if (burstIndices.length < capacity) {
+            burstIndices = new int[capacity];
+            burstXs = new float[capacity];
+            burstYs = new float[capacity];
+        }
+    }
+
+    /**
+     * 存储有新快照时换用它，并重建点击序列和各位置的间隔分布
+     */
+    private void syncPositions() {
+        PositionStore.Snapshot latest = store.snapshot();
+        if (latest != positions) {
+            positions = latest;
+            onPositionsChanged();
+        }
+    }
+
+    private void onPositionsChanged() {
+        rebuildSchedule();
+        rebuildIntervalDistribution();
+        anyRandomOffset = scanRandomOffset();
+        armed = false;
+    }
+
+    /**
+     * 平滑加权轮询：每一步给各激活位置的累计值加上自己的 repeat，选累计值最大的位置，再减去总数。
+     * 得到的序列长度为激活位置的 repeat 之和，同一位置的多次点击尽量均匀分散在一轮中。
+     * 所有激活位置的 repeat 相同时结果就是按顺序重复 repeat 轮，直接生成；否则见 {@link #weightedOrder}。
+     */
+    private void rebuildSchedule() {
+        int count = positions.size();
+        int[] weights = new int[count];
+        int total = 0;
+        int uniform = 0;
+        for (int i = 0; i < count; i++) {
+            ClickPosition pos = positions.get(i);
+            weights[i] = pos.isActive() ? pos.getRepeat() : 0;
+            total += weights[i];
+            if (weights[i] > 0) {
+                uniform = uniform == 0 || uniform == weights[i] ? weights[i] : -1;
+            }
+        }
+        if (uniform > 0) {
+            int[] order = new int[total];
+            int n = 0;
+            for (int round = 0; round < uniform; round++) {
+                for (int i = 0; i < count; i++) {
+                    if (weights[i] > 0) {
+                        order[n++] = i;
+                    }
+                }
+            }
+            setSchedule(order);
+            return;
+        }
+        setSchedule(weightedOrder(weights));
+    }
+
+    /**
+     * 平滑加权轮询的结果，和逐步给每个位置累加、选最大值（相同时取序号小的）完全一致，但不逐个比较位置。
+     *
+     * 第 n 步位置 i 的累计值是 n·w_i − 总数·k_i（k_i 为已选中次数），repeat 相同的位置之间只差 k_i：
+     * 它们按序号轮流被选中，组内的候选就是轮到的那个。repeat 最多 MAX_REPEAT 种，每一步只比较各组的候选，
+     * 整轮 O(轮长 × repeat 种数)，几千个位置的排期在几毫秒内生成，点击中修改位置也不会卡住点击线程。
+     */
+    static int[] weightedOrder(int[] weights) {
+        int total = 0;
+        int[] groupSize = new int[ClickPosition.MAX_REPEAT + 1];
+        for (int weight : weights) {
+            total += weight;
+            groupSize[weight]++;
+        }
+        // 每组的成员按序号升序
+        int[][] members = new int[groupSize.length][];
+        for (int w = 1; w < groupSize.length; w++) {
+            members[w] = new int[groupSize[w]];
+        }
+        int[] fill = new int[groupSize.length];
+        for (int i = 0; i < weights.length; i++) {
+            if (weights[i] > 0) {
+                members[weights[i]][fill[weights[i]]++] = i;
+            }
+        }
+        // 按组紧凑存放：组的 repeat、成员、轮到的成员位置和已完成的轮数（即组内候选的 k）
+        int groupCount = 0;
+        for (int w = 1; w < groupSize.length; w++) {
+            if (groupSize[w] > 0) {
+                groupCount++;
+            }
+        }
+        int[] groupWeight = new int[groupCount];
+        int[][] groupMembers = new int[groupCount][];
+        for (int w = 1, g = 0; w < groupSize.length; w++) {
+            if (groupSize[w] > 0) {
+                groupWeight[g] = w;
+                groupMembers[g++] = members[w];
+            }
+        }
+        int[] cursor = new int[groupCount];
+        long[] rounds = new long[groupCount];
+
+        int[] order = new int[total];
+        for (int n = 0; n < total; n++) {
+            long step = n + 1;
+            int best = -1;
+            int bestIndex = 0;
+            long bestValue = 0;
+            for (int g = 0; g < groupCount; g++) {
+                int index = groupMembers[g][cursor[g]];
+                long value = step * groupWeight[g] - total * rounds[g];
+                if (best < 0 || value > bestValue || (value == bestValue && index < bestIndex)) {
+                    best = g;
+                    bestIndex = index;
+                    bestValue = value;
+                }
+            }
+            order[n] = bestIndex;
+            if (++cursor[best] == groupMembers[best].length) {
+                cursor[best] = 0;
+                rounds[best]++;
+            }
+        }
+        return order;
+    }
+
+    private void setSchedule(int[] order) {
+        schedule = order;
+        if (slot >= order.length) {
+            slot = 0;
+        }
+    }
+
+    private void rebuildIntervalDistribution() {
+        intervalDistribution = IntervalDistributions.create(intervalKind, minClickInterval, maxClickInterval,
+                empiricalIntervals);
+        int count = positions.size();
+        IntervalDistribution[] perPosition = new IntervalDistribution[count];
+        for (int i = 0; i < count; i++) {
+            ClickPosition pos = positions.get(i);
+            if (pos.hasIntervalOverride()) {
+                // 经验分布没有可替换的范围，单独设置了间隔的位置按均匀分布
+                IntervalDistribution.Kind kind = intervalKind == IntervalDistribution.Kind.EMPIRICAL
+                        ? IntervalDistribution.Kind.UNIFORM : intervalKind;
+                perPosition[i] = IntervalDistributions.create(kind, pos.getMinInterval(), pos.getMaxInterval(), null);
+            }
+        }
+        positionIntervals = perPosition;
+    }
+
+    /**
+     * 点击位置 index 之后的间隔
+     */
+    private long nextInterval(int index) {
+        IntervalDistribution distribution = index >= 0 && index < positionIntervals.length
+                && positionIntervals[index] != null ? positionIntervals[index] : intervalDistribution;
+        return distribution.sample(random);
+    }
+
+    private void applyRandomOffset(int index, ClickPosition pos) {
+        int radius = pos.getOffsetRadius();
+        if (radius == ClickPosition.INHERIT) {
+            radius = randomOffset;
+        }
+        if (radius == 0) {
+            clickX = pos.getX();
+            clickY = pos.getY();
+            return;
+        }
+        // 在圆形范围内生成随机偏移：查表取单位圆盘内的均匀点，再按半径缩放
+        int i = UnitDiscTable.index(random.nextLong());
+        clickX = pos.getX() + UnitDiscTable.XS[i] * radius;
+        clickY = pos.getY() + UnitDiscTable.YS[i] * radius;
+    }
+}
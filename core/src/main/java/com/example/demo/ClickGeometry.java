@@ -0,0 +1,33 @@
+package com.example.demo;
+
+import java.util.List;
+
+/**
+ * 点击位置相关的几何计算
+ */
+public final class ClickGeometry {
+    private ClickGeometry() {
+    }
+
+    /**
+     * 查找 (x, y) 落在哪个激活位置的圆形范围内（含边界），按列表顺序返回第一个命中的序号。
+     * 比较距离的平方，不开方。
+     *
+     * @return 命中的位置序号，没有命中返回 -1
+     */
+    public static int hitTest(List<ClickPosition> positions, float x, float y, float radius) {
+        float radiusSquared = radius * radius;
+        for (int i = 0, n = positions.size(); i < n; i++) {
+            ClickPosition pos = positions.get(i);
+            if (!pos.isActive()) {
+                continue;
+            }
+            float dx = x - pos.getX();
+            float dy = y - pos.getY();
+            if (dx * dx + dy * dy <= radiusSquared) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
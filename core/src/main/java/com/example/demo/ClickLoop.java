@@ -0,0 +1,287 @@
+package com.example.demo;
+
+/**
+ * 点击循环：每次执行一个节拍，然后按下一次的目标时间重新投递自身。
+ *
+ * 时间、调度和手势分发都通过接口注入（ClickClock / ClickScheduler / GestureSink），
+ * 设备上由 AutoClickService 提供 SystemClock、Handler 和 dispatchGesture 的适配，
+ * 在普通 JVM 上由 VirtualClock 和 SimulatedGestureSink 驱动（见 ClickSimulator）。
+ * 除 isRunning() 外，所有方法都只应在调度器所在线程上调用。
+ */
+public class ClickLoop {
+    // 在途手势超过这个时间仍无回调，视为丢失，不再阻塞后续点击
+    public static final long DEFAULT_GESTURE_TIMEOUT_MS = 1000;
+
+    private final ClickEngine engine;
+    private final ClickTrace trace;
+    private final ClickClock clock;
+    private final GestureSink sink;
+    private ClickScheduler scheduler;
+
+    private final GestureTracker gestureTracker = new GestureTracker();
+    // 指标：点击线程写入，浮窗和设置页随时读取
+    private final ClickMetrics metrics = new ClickMetrics();
+    private long reportedExpired;
+    private long gestureTimeout = DEFAULT_GESTURE_TIMEOUT_MS;
+
+    private volatile boolean running = false;
+    // 本次节拍因上一个手势在途而推迟，等待回调后继续
+    private boolean waitingForGesture = false;
+    // 没有激活的位置：不再投递节拍，等 wake() 唤醒
+    private volatile boolean idle = false;
+
+    // 批量模式：一轮位置合并为一个多笔画手势
+    private boolean burstMode = false;
+    private int maxBurstStrokes = 1;
+
+    // 最近一次分发的点击（批量时为第一笔），用于轨迹记录
+    private int lastClickIndex;
+    private float lastClickX;
+    private float lastClickY;
+
+    private final Runnable tickRunnable = this::tick;
+
+    private final GestureSink.Callback gestureCallback = new GestureSink.Callback() {
+        @Override
+        public void onGestureCompleted(long seq) {
+            long now = clock.uptimeMillis();
+            long latency = gestureTracker.onCompleted(now, seq);
+            // -1：该手势已按超时计入失败，迟到的回调不再重复计数
+            if (latency >= 0) {
+                metrics.onCompleted(latency);
+            }
+            trace.record(now, ClickTrace.EVENT_COMPLETED, lastClickIndex, lastClickX, lastClickY, latency);
+            onGestureResolved();
+        }
+
+        @Override
+        public void onGestureCancelled(long seq) {
+            long now = clock.uptimeMillis();
+            long latency = gestureTracker.onCancelled(now, seq);
+            if (latency >= 0) {
+                metrics.onCancelled(latency);
+            }
+            trace.record(now, ClickTrace.EVENT_CANCELLED, lastClickIndex, lastClickX, lastClickY, latency);
+            onGestureResolved();
+        }
+    };
+
+    public ClickLoop(ClickEngine engine, ClickClock clock, ClickScheduler scheduler, GestureSink sink) {
+        this.engine = engine;
+        this.trace = engine.getTrace();
+        this.clock = clock;
+        this.scheduler = scheduler;
+        this.sink = sink;
+    }
+
+    public ClickEngine getEngine() {
+        return engine;
+    }
+
+    public GestureTracker getGestureTracker() {
+        return gestureTracker;
+    }
+
+    /**
+     * 点击指标，可在任意线程读取
+     */
+    public ClickMetrics getMetrics() {
+        return metrics;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 点击中但没有激活的位置，循环暂停等待
+     */
+    public boolean isIdle() {
+        return idle;
+    }
+
+    /**
+     * 切换调度器（如点击线程和主线程之间迁移）。应在旧调度器的线程上调用；
+     * 正在点击时把循环转到新调度器上继续。
+     */
+    public void setScheduler(ClickScheduler newScheduler) {
+        scheduler.removeCallbacks(tickRunnable);
+        scheduler = newScheduler;
+        if (running) {
+            newScheduler.post(tickRunnable);
+        }
+    }
+
+    public void setBurstMode(boolean burst, int maxStrokes) {
+        burstMode = burst;
+        maxBurstStrokes = Math.max(1, maxStrokes);
+    }
+
+    public boolean isBurstMode() {
+        return burstMode;
+    }
+
+    public int getMaxBurstStrokes() {
+        return maxBurstStrokes;
+    }
+
+    public void setBackpressureMode(GestureTracker.Mode mode) {
+        gestureTracker.setMode(mode);
+        engine.setIntervalFloor(gestureTracker.getIntervalFloor());
+    }
+
+    public void setGestureTimeout(long timeoutMs) {
+        gestureTimeout = timeoutMs;
+    }
+
+    /**
+     * 开始新一轮点击并立即执行第一个节拍（调用方已在调度器线程上，省去一次消息往返）。
+     * 已在点击中时返回 false。
+     */
+    public boolean start() {
+        if (running) {
+            return false;
+        }
+        running = true;
+        idle = false;
+        waitingForGesture = false;
+        gestureTracker.resetCounts();
+        reportedExpired = 0;
+        // 每轮点击单独统计，浮窗显示的是当前（或最近一轮）的指标
+        metrics.reset();
+        engine.start(clock.uptimeMillis());
+        tick();
+        return true;
+    }
+
+    public boolean stop() {
+        if (!running) {
+            return false;
+        }
+        running = false;
+        idle = false;
+        scheduler.removeCallbacks(tickRunnable);
+        return true;
+    }
+
+    /**
+     * 位置变化后调用：空闲中的循环从当前时间重新开始节拍，其余情况不做任何事。
+     *
+     * @return 是否从空闲状态恢复
+     */
+    public boolean wake() {
+        if (!running || !idle) {
+            return false;
+        }
+        idle = false;
+        metrics.onResume();
+        engine.resume(clock.uptimeMillis());
+        scheduler.post(tickRunnable);
+        return true;
+    }
+
+    public int getLastClickIndex() {
+        return lastClickIndex;
+    }
+
+    public float getLastClickX() {
+        return lastClickX;
+    }
+
+    public float getLastClickY() {
+        return lastClickY;
+    }
+
+    private void tick() {
+        if (!running) {
+            return;
+        }
+
+        // 上一个手势仍在途：推迟本次节拍，由手势回调（或超时）重新驱动
+        long now = clock.uptimeMillis();
+        boolean wait = gestureTracker.shouldWait(now, gestureTimeout);
+        reportExpiredGestures();
+        if (wait) {
+            waitingForGesture = true;
+            scheduler.postAtTime(tickRunnable, now + gestureTimeout);
+            return;
+        }
+        waitingForGesture = false;
+
+        if (burstMode) {
+            // 批量模式：一个节拍分发整轮位置
+            int count = engine.nextBurst(now, maxBurstStrokes);
+            if (count < 0) {
+                enterIdle(now, count);
+                return;
+            }
+            metrics.onClick(now, engine.getLastLateness(), count);
+            lastClickIndex = engine.getBurstIndex(0);
+            lastClickX = engine.getBurstX(0);
+            lastClickY = engine.getBurstY(0);
+            onDispatchResult(sink.dispatchBurst(engine, count,
+                    gestureTracker.getNextSeq(), gestureCallback), count);
+        } else {
+            // 1. 轮流取出当前位置并计算偏移（同时记录节拍延迟）
+            int index = engine.nextClick(now);
+            if (index < 0) {
+                enterIdle(now, index);
+                return;
+            }
+
+            // 2. 执行点击
+            metrics.onClick(now, engine.getLastLateness(), 1);
+            lastClickIndex = index;
+            lastClickX = engine.getClickX();
+            lastClickY = engine.getClickY();
+            onDispatchResult(sink.dispatchClick(index, lastClickX, lastClickY,
+                    engine.getHoldDuration(index), gestureTracker.getNextSeq(), gestureCallback), 0);
+        }
+
+        // 3. 下一次的目标时间由本次目标时间推算，不包含点击本身的耗时
+        scheduler.postAtTime(tickRunnable, engine.scheduleNext(clock.uptimeMillis()));
+    }
+
+    /**
+     * 没有可点击的位置：不再投递节拍，直到 wake()
+     */
+    private void enterIdle(long now, int result) {
+        if (result == ClickEngine.RESULT_IDLE) {
+            idle = true;
+            trace.record(now, ClickTrace.EVENT_IDLE, -1, 0, 0, 0);
+        }
+    }
+
+    private void onDispatchResult(boolean dispatched, int count) {
+        if (dispatched) {
+            gestureTracker.onDispatched(clock.uptimeMillis());
+        } else {
+            gestureTracker.onRejected();
+            metrics.onFailed();
+            trace.record(clock.uptimeMillis(), ClickTrace.EVENT_DISPATCH_FAILED, lastClickIndex, lastClickX, lastClickY, count);
+        }
+    }
+
+    /**
+     * 把跟踪器中新超时的手势计入指标的失败数
+     */
+    private void reportExpiredGestures() {
+        long expired = gestureTracker.getExpired();
+        while (reportedExpired < expired) {
+            metrics.onFailed();
+            reportedExpired++;
+        }
+    }
+
+    /**
+     * 手势得到结果后：更新自适应间隔下限；如果有节拍在等待，立即继续
+     */
+    private void onGestureResolved() {
+        engine.setIntervalFloor(gestureTracker.getIntervalFloor());
+        if (waitingForGesture && running) {
+            waitingForGesture = false;
+            scheduler.removeCallbacks(tickRunnable);
+            scheduler.post(tickRunnable);
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.demo;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 点击引擎指标：节拍延迟、分发到完成的耗时、实际点击间隔的直方图，以及手势结果计数。
+ *
+ * 由点击线程写入；所有字段都是无锁的原子类型，浮窗和设置页可以随时读取当前值或导出快照。
+ * 时间单位为毫秒。
+ */
+public class ClickMetrics {
+    private static final int BINARY_MAGIC = 0x4B434D31; // "KCM1"
+    private static final int BINARY_VERSION = 2;
+
+    private final LogHistogram lateness = new LogHistogram();
+    private final LogHistogram completionLatency = new LogHistogram();
+    private final LogHistogram clickInterval = new LogHistogram();
+    private final AtomicLong ticks = new AtomicLong();
+    private final AtomicLong clicks = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong cancelled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    // 只在点击线程上访问
+    private long lastClickTime = -1;
+
+    /**
+     * 分发一个节拍（单次点击或一批）。lateness 为实际执行时间与目标时间之差。
+     *
+     * @param strokes 本节拍的点击数：单次点击为 1，批量模式为手势的笔画数
+     */
+    public void onClick(long now, long tickLateness, int strokes) {
+        ticks.incrementAndGet();
+        clicks.addAndGet(strokes);
+        lateness.record(tickLateness);
+        if (lastClickTime >= 0) {
+            clickInterval.record(now - lastClickTime);
+        }
+        lastClickTime = now;
+    }
+
+    /**
+     * @param latency 从分发到完成的耗时；已按超时计入失败的手势不应再调用
+     */
+    public void onCompleted(long latency) {
+        completed.incrementAndGet();
+        completionLatency.record(latency);
+    }
+
+    /**
+     * @param latency 从分发到取消的耗时；已按超时计入失败的手势不应再调用
+     */
+    public void onCancelled(long latency) {
+        cancelled.incrementAndGet();
+        completionLatency.record(latency);
+    }
+
+    /**
+     * dispatchGesture 被拒绝或手势超时无回调
+     */
+    public void onFailed() {
+        failed.incrementAndGet();
+    }
+
+    /**
+     * 点击从空闲（没有激活的位置）恢复时调用，点击间隔不包含空闲的那段时间
+     */
+    public void onResume() {
+        lastClickTime = -1;
+    }
+
+    public void reset() {
+        lateness.reset();
+        completionLatency.reset();
+        clickInterval.reset();
+        ticks.set(0);
+        clicks.set(0);
+        completed.set(0);
+        cancelled.set(0);
+        failed.set(0);
+        lastClickTime = -1;
+    }
+
+    public LogHistogram getLateness() {
+        return lateness;
+    }
+
+    public LogHistogram getCompletionLatency() {
+        return completionLatency;
+    }
+
+    public LogHistogram getClickInterval() {
+        return clickInterval;
+    }
+
+    /** 已分发的节拍数，每个节拍分发一个手势 */
+    public long getTicks() {
+        return ticks.get();
+    }
+
+    /** 已分发的点击数，批量手势按笔画计 */
+    public long getClicks() {
+        return clicks.get();
+    }
+
+    public long getCompleted() {
+        return completed.get();
+    }
+
+    public long getCancelled() {
+        return cancelled.get();
+    }
+
+    public long getFailed() {
+        return failed.get();
+    }
+
+    /**
+     * 成功率：完成数 / 有结果的手势数（完成 + 取消 + 失败），没有数据时返回 0
+     */
+    public double getSuccessRatio() {
+        long done = completed.get();
+        long total = done + cancelled.get() + failed.get();
+        return total == 0 ? 0 : (double) done / total;
+    }
+
+    /**
+     * 适合在浮窗上显示的多行摘要
+     */
+    public String[] summaryLines() {
+        return new String[] {
+                String.format(Locale.US, "点击 %d（手势 %d）  成功率 %.1f%%", clicks.get(), ticks.get(),
+                        getSuccessRatio() * 100),
+                String.format(Locale.US, "完成 %d 取消 %d 失败 %d", completed.get(), cancelled.get(), failed.get()),
+                "延迟 " + percentiles(lateness),
+                "完成 " + percentiles(completionLatency),
+                "间隔 " + percentiles(clickInterval),
+        };
+    }
+
+    /**
+     * CSV 快照：先是汇总行，再是各直方图的非空桶
+     */
+    public void writeCsv(StringBuilder out) {
+        out.append("metric,value\n");
+        out.append("ticks,").append(ticks.get()).append('\n');
+        out.append("clicks,").append(clicks.get()).append('\n');
+        out.append("completed,").append(completed.get()).append('\n');
+        out.append("cancelled,").append(cancelled.get()).append('\n');
+        out.append("failed,").append(failed.get()).append('\n');
+        out.append("success_ratio,").append(String.format(Locale.US, "%.4f", getSuccessRatio())).append('\n');
+        out.append("histogram,lower_ms,upper_ms,count\n");
+        lateness.writeCsv("lateness", out);
+        completionLatency.writeCsv("completion", out);
+        clickInterval.writeCsv("interval", out);
+    }
+
+    /**
+     * 二进制快照：魔数、版本、五个计数（节拍、点击、完成、取消、失败），随后依次为延迟、完成耗时、间隔三个直方图
+     */
+    public void writeBinary(DataOutput out) throws IOException {
+        out.writeInt(BINARY_MAGIC);
+        out.writeInt(BINARY_VERSION);
+        out.writeLong(ticks.get());
+        out.writeLong(clicks.get());
+        out.writeLong(completed.get());
+        out.writeLong(cancelled.get());
+        out.writeLong(failed.get());
+        lateness.writeBinary(out);
+        completionLatency.writeBinary(out);
+        clickInterval.writeBinary(out);
+    }
+
+    private static String percentiles(LogHistogram histogram) {
+        if (histogram.getCount() == 0) {
+            return "-";
+        }
+        return "p50 " + histogram.getValueAtPercentile(50)
+                + " p99 " + histogram.getValueAtPercentile(99)
+                + " max " + histogram.getMax() + " ms";
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo;
+
+/**
+ * 一个点击位置（屏幕全局坐标）及其点击参数。
+ *
+ * 参数取 INHERIT 时使用引擎的全局设置：间隔范围、随机半径、按下时长。repeat 为每轮点击该位置的次数，
+ * 引擎按各位置的 repeat 预先生成一轮的点击顺序（见 ClickEngine）。
+ */
+public class ClickPosition {
+    public static final int INHERIT = -1;
+    public static final int MAX_REPEAT = 20;
+    /** 按下时长上限，等于 GestureDescription.getMaxGestureDuration()；时长为 0 的笔画会被系统拒绝 */
+    public static final long MAX_HOLD_MILLIS = 60_000;
+    /** 单独设置的间隔范围，和设置页的全局间隔使用相同的限制 */
+    public static final long MIN_INTERVAL_MILLIS = 50;
+    public static final long MAX_INTERVAL_MILLIS = 10_000;
+
+    private float x;
+    private float y;
+    private boolean isActive;
+    private int repeat = 1;
+    private long holdMillis = INHERIT;
+    private int offsetRadius = INHERIT;
+    private long minInterval = INHERIT;
+    private long maxInterval = INHERIT;
+
+    public ClickPosition(float x, float y) {
+        this.x = x;
+        this.y = y;
+        this.isActive = true;
+    }
+
+    /** 复制坐标、激活状态和点击参数 */
+    public ClickPosition(ClickPosition other) {
+        this(other.x, other.y);
+        isActive = other.isActive;
+        copySpecFrom(other);
+    }
+
+    public float getX() { return x; }
+    public float getY() { return y; }
+    public boolean isActive() { return isActive; }
+    public void setActive(boolean active) { this.isActive = active; }
+
+    public int getRepeat() { return repeat; }
+    public long getHoldMillis() { return holdMillis; }
+    public int getOffsetRadius() { return offsetRadius; }
+    public long getMinInterval() { return minInterval; }
+    public long getMaxInterval() { return maxInterval; }
+
+    /** 每轮点击次数，限制在 1 ~ MAX_REPEAT */
+    public void setRepeat(int repeat) {
+        this.repeat = Math.max(1, Math.min(MAX_REPEAT, repeat));
+    }
+
+    /** 按下时长（毫秒），限制在 1 ~ MAX_HOLD_MILLIS；INHERIT（负数）表示使用全局设置 */
+    public void setHoldMillis(long holdMillis) {
+        this.holdMillis = holdMillis < 0 ? INHERIT : Math.max(1, Math.min(MAX_HOLD_MILLIS, holdMillis));
+    }
+
+    /** 随机偏移半径（像素），INHERIT 表示使用全局设置 */
+    public void setOffsetRadius(int offsetRadius) {
+        this.offsetRadius = offsetRadius < 0 ? INHERIT : offsetRadius;
+    }
+
+    /**
+     * 点击该位置之后的间隔范围，限制在 MIN_INTERVAL_MILLIS ~ MAX_INTERVAL_MILLIS；
+     * 任一值为 INHERIT（或 min > max）时使用全局设置
+     */
+    public void setInterval(long minInterval, long maxInterval) {
+        if (minInterval < 0 || maxInterval < 0 || minInterval > maxInterval) {
+            this.minInterval = INHERIT;
+            this.maxInterval = INHERIT;
+        } else {
+            this.minInterval = clampInterval(minInterval);
+            this.maxInterval = clampInterval(maxInterval);
+        }
+    }
+
+    private static long clampInterval(long interval) {
+        return Math.max(MIN_INTERVAL_MILLIS, Math.min(MAX_INTERVAL_MILLIS, interval));
+    }
+
+    public static boolean isValidHold(long holdMillis) {
+        return holdMillis >= 1 && holdMillis <= MAX_HOLD_MILLIS;
+    }
+
+    public static boolean isValidInterval(long minInterval, long maxInterval) {
+        return minInterval >= MIN_INTERVAL_MILLIS && maxInterval <= MAX_INTERVAL_MILLIS && minInterval <= maxInterval;
+    }
+
+    public boolean hasIntervalOverride() {
+        return minInterval != INHERIT;
+    }
+
+    /**
+     * 复制点击参数（不含坐标和激活状态）
+     */
+    public void copySpecFrom(ClickPosition other) {
+        repeat = other.repeat;
+        holdMillis = other.holdMillis;
+        offsetRadius = other.offsetRadius;
+        minInterval = other.minInterval;
+        maxInterval = other.maxInterval;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.demo;
+
+/**
+ * 一套点击方案：位置（含各自的点击参数）和全局的间隔/偏移/节拍设置。
+ *
+ * 不可变；of 复制快照中的位置，getPosition 返回的对象只读。存取见 ProfileStore。
+ */
+public final class ClickProfile {
+    private final String name;
+    private final long minInterval;
+    private final long maxInterval;
+    private final int randomOffset;
+    private final IntervalDistribution.Kind intervalKind;
+    private final boolean fixedRate;
+    private final boolean catchUp;
+    private final boolean burst;
+    private final ClickPosition[] positions;
+
+    /**
+     * positions 直接归方案所有，调用方之后不得再修改（解码时新建的位置不必再复制一遍）
+     */
+    ClickProfile(String name, long minInterval, long maxInterval, int randomOffset,
+                 IntervalDistribution.Kind intervalKind, boolean fixedRate, boolean catchUp, boolean burst,
+                 ClickPosition[] positions) {
+        this.name = name;
+        this.minInterval = minInterval;
+        this.maxInterval = maxInterval;
+        this.randomOffset = randomOffset;
+        this.intervalKind = intervalKind;
+        this.fixedRate = fixedRate;
+        this.catchUp = catchUp;
+        this.burst = burst;
+        this.positions = positions;
+    }
+
+    /**
+     * 用位置快照和给定的设置组成方案
+     */
+    public static ClickProfile of(String name, PositionStore.Snapshot snapshot, long minInterval, long maxInterval,
+                                  int randomOffset, IntervalDistribution.Kind intervalKind,
+                                  boolean fixedRate, boolean catchUp, boolean burst) {
+        ClickPosition[] positions = new ClickPosition[snapshot.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = new ClickPosition(snapshot.get(i));
+        }
+        return new ClickProfile(name, minInterval, maxInterval, randomOffset, intervalKind,
+                fixedRate, catchUp, burst, positions);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getMinInterval() {
+        return minInterval;
+    }
+
+    public long getMaxInterval() {
+        return maxInterval;
+    }
+
+    public int getRandomOffset() {
+        return randomOffset;
+    }
+
+    public IntervalDistribution.Kind getIntervalKind() {
+        return intervalKind;
+    }
+
+    public boolean isFixedRate() {
+        return fixedRate;
+    }
+
+    public boolean isCatchUp() {
+        return catchUp;
+    }
+
+    public boolean isBurst() {
+        return burst;
+    }
+
+    public int getPositionCount() {
+        return positions.length;
+    }
+
+    /** 只读，不要修改返回的对象 */
+    public ClickPosition getPosition(int index) {
+        return positions[index];
+    }
+
+    /**
+     * 用本方案的位置替换存储中的全部位置（一次发布）
+     */
+    public void applyPositions(PositionStore store) {
+        store.replaceAll(positions);
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo;
+
+import java.util.SplittableRandom;
+
+/**
+ * 点击引擎使用的随机数源。
+ *
+ * 只要求实现 nextLong()，其余方法由 64 位随机数派生。实现不需要线程安全：每个引擎（或每个线程）
+ * 持有自己的实例，不像 java.util.Random 那样在每次抽取时做 CAS。默认实现是 XoroshiroRandom，
+ * 也可以用 {@link #of(SplittableRandom)} 包装 JDK 的 SplittableRandom。
+ */
+@FunctionalInterface
+public interface ClickRandom {
+    long nextLong();
+
+    /** [0, 1) 均匀分布，53 位精度 */
+    default double nextDouble() {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    /** [0, bound) 均匀分布，bound 必须为正（乘法取高位 + 拒绝采样，无偏且通常不做除法） */
+    default int nextInt(int bound) {
+        long m = (nextLong() >>> 32) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound) {
+            long threshold = (0x1_0000_0000L - bound) % bound;
+            while (low < threshold) {
+                m = (nextLong() >>> 32) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    /** [0, bound) 均匀分布，bound 必须为正 */
+    default long nextLong(long bound) {
+        long bits;
+        long value;
+        do {
+            bits = nextLong() >>> 1;
+            value = bits % bound;
+        } while (bits - value + (bound - 1) < 0);
+        return value;
+    }
+
+    static ClickRandom of(SplittableRandom random) {
+        return random::nextLong;
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.demo;
+
+/**
+ * 点击循环使用的任务调度器，语义与 android.os.Handler 的同名方法一致：
+ * 同一个调度器上的任务串行执行，同一时刻的任务按投递顺序执行。
+ */
+public interface ClickScheduler {
+    /** 尽快执行 */
+    void post(Runnable task);
+
+    /** 在 ClickClock 时间 uptimeMillis 执行 */
+    void postAtTime(Runnable task, long uptimeMillis);
+
+    /** 移除尚未执行的 task（所有实例） */
+    void removeCallbacks(Runnable task);
+}
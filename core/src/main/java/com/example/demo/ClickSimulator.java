@@ -0,0 +1,172 @@
+package com.example.demo;
+
+import java.util.Locale;
+
+/**
+ * 无设备的点击回放：用 VirtualClock 和 SimulatedGestureSink 驱动与设备上相同的 ClickLoop。
+ *
+ * 所有随机数都从一个种子派生（引擎的间隔/偏移、手势延迟、调度抖动各用一个独立的 XoroshiroRandom），
+ * 相同种子和配置下回放出完全相同的点击序列。用法：
+ * <pre>
+ * ClickSimulator sim = new ClickSimulator(42);
+ * sim.getEngine().addPosition(100, 200);
+ * ClickSimulator.Result result = sim.run(2 * 3600_000L);
+ * </pre>
+ * 命令行：./gradlew :core:simulate -PsimArgs="小时数 种子 位置数 间隔分布"
+ */
+public class ClickSimulator {
+    private final long seed;
+    private final VirtualClock clock = new VirtualClock();
+    private final ClickEngine engine;
+    private final SimulatedGestureSink sink;
+    private final JitteredScheduler scheduler;
+    private final ClickLoop loop;
+
+    public ClickSimulator(long seed) {
+        this.seed = seed;
+        // 各子系统使用独立的随机序列，改动一处的抽取次数不会影响其他部分的回放
+        engine = new ClickEngine(new XoroshiroRandom(seed));
+        sink = new SimulatedGestureSink(clock, new XoroshiroRandom(seed * 31 + 1));
+        scheduler = new JitteredScheduler(clock, new XoroshiroRandom(seed * 31 + 2));
+        loop = new ClickLoop(engine, clock, scheduler, sink);
+    }
+
+    public ClickEngine getEngine() {
+        return engine;
+    }
+
+    public ClickLoop getLoop() {
+        return loop;
+    }
+
+    public SimulatedGestureSink getGestureSink() {
+        return sink;
+    }
+
+    public VirtualClock getClock() {
+        return clock;
+    }
+
+    /**
+     * 模拟点击线程的唤醒延迟：每个节拍在目标时间之后随机推迟 0 ~ maxJitterMillis 毫秒执行
+     */
+    public void setSchedulingJitter(int maxJitterMillis) {
+        scheduler.maxJitter = maxJitterMillis;
+    }
+
+    /**
+     * 从当前虚拟时间开始点击，运行 durationMillis 后停止
+     */
+    public Result run(long durationMillis) {
+        long startNanos = System.nanoTime();
+        long startTime = clock.uptimeMillis();
+        long startEvents = clock.getExecutedCount();
+        loop.start();
+        clock.runUntil(startTime + durationMillis);
+        loop.stop();
+        // 让已分发手势的回调跑完，计入完成/取消
+        clock.runUntil(clock.uptimeMillis() + ClickLoop.DEFAULT_GESTURE_TIMEOUT_MS);
+        return new Result(this, durationMillis, clock.getExecutedCount() - startEvents,
+                System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 一次回放的结果。指标对象属于模拟器，再次 run 时会被重置。
+     */
+    public static final class Result {
+        public final long seed;
+        public final long simulatedMillis;
+        public final long events;
+        public final long cpuNanos;
+        public final long sequenceHash;
+        public final long dispatched;
+        public final long strokes;
+        public final ClickMetrics metrics;
+        public final long ticks;
+        public final long droppedTicks;
+        public final long averageLateness;
+        public final long maxLateness;
+        public final long expiredGestures;
+
+        Result(ClickSimulator sim, long simulatedMillis, long events, long cpuNanos) {
+            ClickTimer timer = sim.engine.getTimer();
+            this.seed = sim.seed;
+            this.simulatedMillis = simulatedMillis;
+            this.events = events;
+            this.cpuNanos = cpuNanos;
+            this.sequenceHash = sim.sink.getSequenceHash();
+            this.dispatched = sim.sink.getDispatched();
+            this.strokes = sim.sink.getStrokes();
+            this.metrics = sim.loop.getMetrics();
+            this.ticks = timer.getTickCount();
+            this.droppedTicks = timer.getDroppedTicks();
+            this.averageLateness = timer.getAverageLateness();
+            this.maxLateness = timer.getMaxLateness();
+            this.expiredGestures = sim.loop.getGestureTracker().getExpired();
+        }
+
+        public String[] summaryLines() {
+            String[] metricLines = metrics.summaryLines();
+            String[] lines = new String[metricLines.length + 3];
+            lines[0] = String.format(Locale.ROOT, "种子 %d，模拟 %.1f 小时，%d 个事件，耗时 %.1f ms",
+                    seed, simulatedMillis / 3_600_000.0, events, cpuNanos / 1e6);
+            lines[1] = String.format(Locale.ROOT, "节拍 %d（丢弃 %d），延迟 平均 %d / 最大 %d ms",
+                    ticks, droppedTicks, averageLateness, maxLateness);
+            lines[2] = String.format(Locale.ROOT, "手势 %d（%d 笔），超时 %d，序列哈希 %016x",
+                    dispatched, strokes, expiredGestures, sequenceHash);
+            System.arraycopy(metricLines, 0, lines, 3, metricLines.length);
+            return lines;
+        }
+    }
+
+    /** 在 postAtTime 上叠加随机唤醒延迟的调度器；手势回调直接走 VirtualClock，不受影响 */
+    private static final class JitteredScheduler implements ClickScheduler {
+        private final VirtualClock clock;
+        private final ClickRandom random;
+        int maxJitter;
+
+        JitteredScheduler(VirtualClock clock, ClickRandom random) {
+            this.clock = clock;
+            this.random = random;
+        }
+
+        @Override
+        public void post(Runnable task) {
+            clock.post(task);
+        }
+
+        @Override
+        public void postAtTime(Runnable task, long uptimeMillis) {
+            long jitter = maxJitter > 0 ? random.nextInt(maxJitter + 1) : 0;
+            clock.postAtTime(task, uptimeMillis + jitter);
+        }
+
+        @Override
+        public void removeCallbacks(Runnable task) {
+            clock.removeCallbacks(task);
+        }
+    }
+
+    /**
+     * 参数：[小时数=2] [种子=42] [位置数=3] [间隔分布=UNIFORM]，其余使用默认设置
+     * （150-300ms，偏移 10px，调度抖动 4ms）。间隔分布为 EMPIRICAL 以外的 IntervalDistribution.Kind
+     */
+    public static void main(String[] args) {
+        double hours = args.length > 0 ? Double.parseDouble(args[0]) : 2;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42;
+        int positions = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        IntervalDistribution.Kind kind = args.length > 3
+                ? IntervalDistribution.Kind.valueOf(args[3]) : IntervalDistribution.Kind.UNIFORM;
+
+        ClickSimulator sim = new ClickSimulator(seed);
+        sim.getEngine().setIntervalDistribution(kind, null);
+        for (int i = 0; i < positions; i++) {
+            sim.getEngine().addPosition(200 + i * 60, 800 + i * 40);
+        }
+        sim.setSchedulingJitter(4);
+        Result result = sim.run((long) (hours * 3_600_000));
+        for (String line : result.summaryLines()) {
+            System.out.println(line);
+        }
+    }
+}
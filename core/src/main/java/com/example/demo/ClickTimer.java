@@ -0,0 +1,143 @@
+package com.example.demo;
+
+/**
+ * 点击节拍计时器。
+ *
+ * FIXED_RATE 模式下，每次点击的目标时间由上一次的目标时间加上间隔得到，
+ * 而不是从 Runnable 执行结束的时刻开始计算，日志、手势构建和分发的耗时不会累积到间隔里。
+ * FIXED_DELAY 模式保留旧的行为（点击结束后再等待一个间隔），便于对比。
+ *
+ * 时间基准由调用方传入（AutoClickService 使用 SystemClock.uptimeMillis，与 Handler.postAtTime 一致）。
+ */
+public class ClickTimer {
+    public enum Mode {
+        FIXED_DELAY, // 点击结束后再等待间隔（旧行为）
+        FIXED_RATE   // 按绝对目标时间排期，不漂移
+    }
+
+    public enum LatePolicy {
+        CATCH_UP, // 落后时保留错过的节拍，尽快连续补点
+        DROP      // 落后时丢弃已错过的节拍，对齐到下一个未来节拍
+    }
+
+    // CATCH_UP 模式下最多补点的节拍数，超过后直接重新对齐，避免线程长时间阻塞后集中爆发点击
+    private static final int MAX_CATCH_UP_TICKS = 5;
+
+    private Mode mode = Mode.FIXED_RATE;
+    private LatePolicy latePolicy = LatePolicy.DROP;
+
+    private long targetTime;   // 当前节拍的目标时间
+    private long tickCount;
+    private long lastLateness; // 最近一次节拍的延迟（实际执行时间 - 目标时间）
+    private long maxLateness;
+    private long totalLateness;
+    private long droppedTicks;
+    private long resyncCount;
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public void setLatePolicy(LatePolicy latePolicy) {
+        this.latePolicy = latePolicy;
+    }
+
+    public LatePolicy getLatePolicy() {
+        return latePolicy;
+    }
+
+    /**
+     * 开始新的点击序列，第一次节拍的目标时间为 now。
+     */
+    public void start(long now) {
+        targetTime = now;
+        tickCount = 0;
+        lastLateness = 0;
+        maxLateness = 0;
+        totalLateness = 0;
+        droppedTicks = 0;
+        resyncCount = 0;
+    }
+
+    /**
+     * 暂停（空闲）之后继续：下一次节拍的目标时间为 now，不重置统计
+     */
+    public void resume(long now) {
+        targetTime = now;
+    }
+
+    /**
+     * 节拍开始执行时调用，记录并返回本次节拍的延迟。
+     */
+    public long onTick(long now) {
+        long lateness = now - targetTime;
+        lastLateness = lateness;
+        if (lateness > maxLateness) {
+            maxLateness = lateness;
+        }
+        totalLateness += lateness;
+        tickCount++;
+        return lateness;
+    }
+
+    /**
+     * 计算下一次节拍的绝对目标时间。
+     *
+     * @param now      当前时间（点击完成后）
+     * @param interval 本次间隔
+     * @return 下一次节拍的目标时间，可直接用于 Handler.postAtTime
+     */
+    public long scheduleNext(long now, long interval) {
+        if (mode == Mode.FIXED_DELAY) {
+            targetTime = now + interval;
+            return targetTime;
+        }
+
+        targetTime += interval;
+        long behind = now - targetTime;
+        if (behind > 0) {
+            if (latePolicy == LatePolicy.DROP) {
+                // 跳过所有已经错过的节拍，保持原有相位
+                long missed = interval > 0 ? behind / interval + 1 : 1;
+                targetTime += missed * interval;
+                if (targetTime < now) {
+                    targetTime = now;
+                }
+                droppedTicks += missed;
+            } else if (behind > interval * MAX_CATCH_UP_TICKS) {
+                // 落后太多，放弃补点，从当前时间重新对齐
+                targetTime = now;
+                resyncCount++;
+            }
+        }
+        return targetTime;
+    }
+
+    public long getTickCount() {
+        return tickCount;
+    }
+
+    public long getLastLateness() {
+        return lastLateness;
+    }
+
+    public long getMaxLateness() {
+        return maxLateness;
+    }
+
+    public long getAverageLateness() {
+        return tickCount == 0 ? 0 : totalLateness / tickCount;
+    }
+
+    public long getDroppedTicks() {
+        return droppedTicks;
+    }
+
+    public long getResyncCount() {
+        return resyncCount;
+    }
+}
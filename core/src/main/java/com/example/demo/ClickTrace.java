@@ -0,0 +1,120 @@
+package com.example.demo;
+
+/**
+ * 点击轨迹环形缓冲区。
+ *
+ * 以基本类型数组记录点击事件，写入时不构造字符串也不分配对象，缓冲区写满后覆盖最旧的记录。
+ * 只允许点击线程写入；dump 在需要时把最近的记录格式化输出。
+ */
+public class ClickTrace {
+    public static final int EVENT_CLICK = 1;           // 分发点击：value = 节拍延迟(ms)
+    public static final int EVENT_COMPLETED = 2;       // 手势完成：value = 分发到完成的耗时(ms)
+    public static final int EVENT_CANCELLED = 3;       // 手势被取消：value = 分发到取消的耗时(ms)
+    public static final int EVENT_DISPATCH_FAILED = 4; // dispatchGesture 返回 false
+    public static final int EVENT_IDLE = 5;            // 没有激活的位置，点击循环进入空闲
+
+    public static final int DEFAULT_CAPACITY = 4096;
+
+    private final int mask;
+    private final long[] times;
+    private final int[] events;
+    private final int[] indices;
+    private final float[] xs;
+    private final float[] ys;
+    private final long[] values;
+    private volatile boolean enabled;
+    private long writeCount;
+
+    public ClickTrace() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity 记录条数，向上取整为 2 的幂
+     */
+    public ClickTrace(int capacity) {
+        int size = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        mask = size - 1;
+        times = new long[size];
+        events = new int[size];
+        indices = new int[size];
+        xs = new float[size];
+        ys = new float[size];
+        values = new long[size];
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public int getCapacity() {
+        return mask + 1;
+    }
+
+    public void record(long time, int event, int index, float x, float y, long value) {
+        if (!enabled) {
+            return;
+        }
+        int slot = (int) (writeCount & mask);
+        times[slot] = time;
+        events[slot] = event;
+        indices[slot] = index;
+        xs[slot] = x;
+        ys[slot] = y;
+        values[slot] = value;
+        writeCount++;
+    }
+
+    /**
+     * 当前缓冲区中保留的记录数
+     */
+    public int size() {
+        return (int) Math.min(writeCount, mask + 1);
+    }
+
+    /**
+     * 累计写入的记录数（包括已被覆盖的）
+     */
+    public long getWriteCount() {
+        return writeCount;
+    }
+
+    public void clear() {
+        writeCount = 0;
+    }
+
+    /**
+     * 按时间顺序把保留的记录逐行写入 out，每行一条事件。
+     */
+    public void dump(StringBuilder out) {
+        int count = size();
+        long first = writeCount - count;
+        for (long i = first; i < writeCount; i++) {
+            int slot = (int) (i & mask);
+            out.append(times[slot]).append(' ')
+                    .append(eventName(events[slot])).append(" #").append(indices[slot])
+                    .append(" (").append(xs[slot]).append(", ").append(ys[slot]).append(')');
+            if (events[slot] == EVENT_CLICK) {
+                out.append(" late=").append(values[slot]).append("ms");
+            } else if (events[slot] == EVENT_COMPLETED || events[slot] == EVENT_CANCELLED) {
+                out.append(" after=").append(values[slot]).append("ms");
+            }
+            out.append('\n');
+        }
+    }
+
+    private static String eventName(int event) {
+        switch (event) {
+            case EVENT_CLICK: return "CLICK";
+            case EVENT_COMPLETED: return "COMPLETED";
+            case EVENT_CANCELLED: return "CANCELLED";
+            case EVENT_DISPATCH_FAILED: return "DISPATCH_FAILED";
+            case EVENT_IDLE: return "IDLE";
+            default: return "UNKNOWN";
+        }
+    }
+}
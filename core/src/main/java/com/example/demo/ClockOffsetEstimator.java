@@ -0,0 +1,91 @@
+package com.example.demo;
+
+/**
+ * 时钟偏差估计器（类 NTP 算法）。
+ *
+ * 每个样本由本机发送时间、参考时间和本机接收时间组成：
+ * 偏差 = 参考时间 - (发送时间 + 往返时间 / 2)，误差上限为往返时间的一半。
+ * 最近 WINDOW 个样本中选往返时间最短的一个作为本轮测量值，再做指数平滑，
+ * 减少网络抖动造成的跳变。
+ */
+public class ClockOffsetEstimator {
+    private static final int WINDOW = 8;
+    private static final double SMOOTHING = 0.3;
+
+    private final double[] offsets = new double[WINDOW];
+    private final long[] roundTrips = new long[WINDOW];
+    private int sampleCount;
+    private boolean hasEstimate;
+    private double smoothedOffset;
+    private double uncertainty;
+    private long lastRoundTrip;
+
+    /**
+     * 加入一个样本。往返时间为负（时钟异常）的样本被忽略。
+     *
+     * @return 样本是否被接受
+     */
+    public synchronized boolean addSample(long localSendMillis, long referenceMillis, long localReceiveMillis) {
+        long roundTrip = localReceiveMillis - localSendMillis;
+        if (roundTrip < 0) {
+            return false;
+        }
+        int slot = sampleCount % WINDOW;
+        offsets[slot] = referenceMillis - (localSendMillis + roundTrip / 2.0);
+        roundTrips[slot] = roundTrip;
+        sampleCount++;
+        lastRoundTrip = roundTrip;
+
+        // 窗口内往返最短的样本：路径最对称，误差上限最小
+        int filled = Math.min(sampleCount, WINDOW);
+        int best = 0;
+        for (int i = 1; i < filled; i++) {
+            if (roundTrips[i] < roundTrips[best]) {
+                best = i;
+            }
+        }
+
+        if (!hasEstimate) {
+            smoothedOffset = offsets[best];
+            hasEstimate = true;
+        } else {
+            smoothedOffset += SMOOTHING * (offsets[best] - smoothedOffset);
+        }
+        uncertainty = roundTrips[best] / 2.0 + Math.abs(offsets[best] - smoothedOffset);
+        return true;
+    }
+
+    public synchronized boolean hasEstimate() {
+        return hasEstimate;
+    }
+
+    /**
+     * 参考时钟比本机快多少毫秒（负数表示参考时钟更慢）
+     */
+    public synchronized long getOffsetMillis() {
+        return Math.round(smoothedOffset);
+    }
+
+    /**
+     * 偏差估计的不确定度（毫秒）
+     */
+    public synchronized long getUncertaintyMillis() {
+        return Math.round(uncertainty);
+    }
+
+    public synchronized long getLastRoundTripMillis() {
+        return lastRoundTrip;
+    }
+
+    public synchronized int getSampleCount() {
+        return sampleCount;
+    }
+
+    public synchronized void reset() {
+        sampleCount = 0;
+        hasEstimate = false;
+        smoothedOffset = 0;
+        uncertainty = 0;
+        lastRoundTrip = 0;
+    }
+}
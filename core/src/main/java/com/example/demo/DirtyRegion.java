@@ -0,0 +1,134 @@
+package com.example.demo;
+
+/**
+ * 一帧内需要重绘的区域：所有脏矩形的包围盒（整数像素，向外取整）。
+ *
+ * 浮窗把十字准星的新旧位置、增删改的标记、状态变化的按钮记到这里，只对这个矩形请求重绘；
+ * 调试时显示每帧的重绘面积占比。空区域表示没有需要重绘的内容。
+ */
+public final class DirtyRegion {
+    private int left;
+    private int top;
+    private int right;
+    private int bottom;
+
+    public boolean isEmpty() {
+        return right <= left || bottom <= top;
+    }
+
+    public int getLeft() {
+        return left;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public int getRight() {
+        return right;
+    }
+
+    public int getBottom() {
+        return bottom;
+    }
+
+    public long area() {
+        return isEmpty() ? 0 : (long) (right - left) * (bottom - top);
+    }
+
+    public void reset() {
+        left = top = right = bottom = 0;
+    }
+
+    public void set(DirtyRegion other) {
+        left = other.left;
+        top = other.top;
+        right = other.right;
+        bottom = other.bottom;
+    }
+
+    /**
+     * 并入一个矩形，空矩形忽略
+     */
+    public void union(float l, float t, float r, float b) {
+        int il = (int) Math.floor(l);
+        int it = (int) Math.floor(t);
+        int ir = (int) Math.ceil(r);
+        int ib = (int) Math.ceil(b);
+        if (ir <= il || ib <= it) {
+            return;
+        }
+        if (isEmpty()) {
+            left = il;
+            top = it;
+            right = ir;
+            bottom = ib;
+        } else {
+            left = Math.min(left, il);
+            top = Math.min(top, it);
+            right = Math.max(right, ir);
+            bottom = Math.max(bottom, ib);
+        }
+    }
+
+    /**
+     * 并入以 (x, y) 为中心、向四周各扩展 extent 的正方形
+     */
+    public void union(float x, float y, float extent) {
+        union(x - extent, y - extent, x + extent, y + extent);
+    }
+
+    /**
+     * 限制在 [0, width) × [0, height) 内
+     */
+    public void clipTo(int width, int height) {
+        left = Math.max(left, 0);
+        top = Math.max(top, 0);
+        right = Math.min(right, width);
+        bottom = Math.min(bottom, height);
+        if (isEmpty()) {
+            reset();
+        }
+    }
+
+    /**
+     * 并入两个快照之间有变化的标记：新增、删除、参数或激活状态改变，以及因前面的增删而序号改变的位置。
+     * 快照中的 id 按位置顺序递增（存储只在末尾添加、整体替换时重新分配），因此按 id 归并比较，O(n)。
+     *
+     * @param offsetX 屏幕坐标减去该偏移得到视图内坐标
+     * @param extent  标记（圆圈和下方的次数标签）相对中心向四周的范围
+     */
+    public void unionChanged(PositionStore.Snapshot before, PositionStore.Snapshot after,
+                             float offsetX, float offsetY, float extent) {
+        int i = 0;
+        int j = 0;
+        int n = before.size();
+        int m = after.size();
+        while (i < n || j < m) {
+            long idBefore = i < n ? before.getId(i) : Long.MAX_VALUE;
+            long idAfter = j < m ? after.getId(j) : Long.MAX_VALUE;
+            if (idBefore == idAfter) {
+                // 对象不同说明参数或激活状态改了；序号不同说明前面有增删，标签要重画
+                if (before.get(i) != after.get(j) || i != j) {
+                    unionPosition(before.get(i), offsetX, offsetY, extent);
+                    unionPosition(after.get(j), offsetX, offsetY, extent);
+                }
+                i++;
+                j++;
+            } else if (idBefore < idAfter) {
+                unionPosition(before.get(i++), offsetX, offsetY, extent);
+            } else {
+                unionPosition(after.get(j++), offsetX, offsetY, extent);
+            }
+        }
+    }
+
+    private void unionPosition(ClickPosition pos, float offsetX, float offsetY, float extent) {
+        union(pos.getX() - offsetX, pos.getY() - offsetY, extent);
+    }
+
+    @Override
+    public String toString() {
+        return isEmpty() ? "DirtyRegion[]" : "DirtyRegion[" + left + "," + top + " - " + right + "," + bottom + "]";
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.demo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 经验间隔分布：由直方图的区间和计数构成，先用别名表按计数 O(1) 选区间，再在区间内均匀取值。
+ *
+ * 直方图文件为 CSV，每行一个区间，支持三种写法（其他行如表头会被忽略）：
+ * <pre>
+ * 间隔,计数                    单个值
+ * 下界,上界,计数               闭区间 [下界, 上界]
+ * interval,下界,上界,计数      设置页“导出指标”生成的 CSV，只取 interval 直方图
+ * </pre>
+ */
+public final class EmpiricalDistribution implements IntervalDistribution {
+    private static final String METRICS_INTERVAL_NAME = "interval";
+
+    private final long[] lowers;
+    private final long[] uppers;
+    private final double[] weights;
+    private final AliasTable table;
+
+    public EmpiricalDistribution(long[] lowers, long[] uppers, double[] weights) {
+        if (lowers.length != uppers.length || lowers.length != weights.length) {
+            throw new IllegalArgumentException("Bin arrays differ in length");
+        }
+        for (int i = 0; i < lowers.length; i++) {
+            if (lowers[i] < 0 || uppers[i] < lowers[i]) {
+                throw new IllegalArgumentException("Invalid bin [" + lowers[i] + ", " + uppers[i] + "]");
+            }
+        }
+        this.lowers = lowers.clone();
+        this.uppers = uppers.clone();
+        this.weights = weights.clone();
+        this.table = new AliasTable(this.weights);
+    }
+
+    /**
+     * 解析直方图 CSV
+     *
+     * @throws IllegalArgumentException 没有有效的区间
+     */
+    public static EmpiricalDistribution parseCsv(Reader reader) throws IOException {
+        List<long[]> bins = new ArrayList<>();
+        BufferedReader in = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        String line;
+        while ((line = in.readLine()) != null) {
+            String[] fields = line.trim().split("\\s*,\\s*");
+            try {
+                if (fields.length == 2) {
+                    long value = Long.parseLong(fields[0]);
+                    bins.add(new long[] {value, value, Long.parseLong(fields[1])});
+                } else if (fields.length == 3) {
+                    bins.add(new long[] {Long.parseLong(fields[0]), Long.parseLong(fields[1]), Long.parseLong(fields[2])});
+                } else if (fields.length == 4 && METRICS_INTERVAL_NAME.equals(fields[0])) {
+                    bins.add(new long[] {Long.parseLong(fields[1]), Long.parseLong(fields[2]), Long.parseLong(fields[3])});
+                }
+            } catch (NumberFormatException e) {
+                // 表头或其他指标行
+            }
+        }
+        if (bins.isEmpty()) {
+            throw new IllegalArgumentException("No histogram bins found");
+        }
+        long[] lowers = new long[bins.size()];
+        long[] uppers = new long[bins.size()];
+        double[] weights = new double[bins.size()];
+        for (int i = 0; i < bins.size(); i++) {
+            long[] bin = bins.get(i);
+            lowers[i] = bin[0];
+            uppers[i] = bin[1];
+            weights[i] = bin[2];
+        }
+        return new EmpiricalDistribution(lowers, uppers, weights);
+    }
+
+    @Override
+    public long sample(ClickRandom random) {
+        int bin = table.sample(random);
+        long lower = lowers[bin];
+        long width = uppers[bin] - lower;
+        return width == 0 ? lower : lower + random.nextLong(width + 1);
+    }
+
+    public int getBinCount() {
+        return lowers.length;
+    }
+
+    public long getMin() {
+        long min = Long.MAX_VALUE;
+        for (int i = 0; i < lowers.length; i++) {
+            if (weights[i] > 0) {
+                min = Math.min(min, lowers[i]);
+            }
+        }
+        return min;
+    }
+
+    public long getMax() {
+        long max = 0;
+        for (int i = 0; i < uppers.length; i++) {
+            if (weights[i] > 0) {
+                max = Math.max(max, uppers[i]);
+            }
+        }
+        return max;
+    }
+
+    /** 按区间中点估计的平均间隔 */
+    public double getMean() {
+        double sum = 0;
+        double total = 0;
+        for (int i = 0; i < lowers.length; i++) {
+            sum += weights[i] * (lowers[i] + uppers[i]) / 2.0;
+            total += weights[i];
+        }
+        return sum / total;
+    }
+}
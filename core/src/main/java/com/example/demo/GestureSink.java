@@ -0,0 +1,34 @@
+package com.example.demo;
+
+/**
+ * 手势接收端：点击循环把计算好的点击交给它分发。
+ *
+ * 设备上由 AutoClickService 用 dispatchGesture 实现；模拟时由 SimulatedGestureSink 按
+ * 延迟模型回调。分发成功的手势必须且只能回调一次 Callback（完成或取消），并带回分发时的序号 seq；
+ * 回调需在点击循环所在的调度器上执行，且按分发顺序回调。
+ */
+public interface GestureSink {
+    interface Callback {
+        void onGestureCompleted(long seq);
+
+        void onGestureCancelled(long seq);
+    }
+
+    /**
+     * 分发一次单点点击
+     *
+     * @param holdMillis 按下时长（ms）
+     * @param seq        手势序号，回调时原样带回
+     * @return 是否分发成功（对应 dispatchGesture 的返回值）
+     */
+    boolean dispatchClick(int index, float x, float y, long holdMillis, long seq, Callback callback);
+
+    /**
+     * 分发一批点击，坐标从 engine 的 getBurstIndex/getBurstX/getBurstY 读取，各笔按下时长取
+     * engine.getHoldDuration(index)，合并为一个手势
+     *
+     * @param seq 手势序号，回调时原样带回
+     * @return 是否分发成功
+     */
+    boolean dispatchBurst(ClickEngine engine, int count, long seq, Callback callback);
+}
@@ -0,0 +1,191 @@
+package com.example.demo;
+
+/**
+ * 在途手势跟踪器。
+ *
+ * 每个分发出去的手势经历 PENDING -> COMPLETED / CANCELLED（或超时 EXPIRED）；dispatchGesture
+ * 直接返回 false 的记为 REJECTED。每个手势在分发时得到一个序号（{@link #getNextSeq()}），回调带回这个序号，
+ * 按序号匹配在途手势：已按超时（或环形记录溢出）丢弃的手势迟到的回调被忽略，不会记到后面的手势上；
+ * 系统按分发顺序回调，所以收到某个序号的回调时，比它早、仍在途的手势视为丢失，按超时计。
+ * 时间基准由调用方传入（AutoClickService 使用 SystemClock.uptimeMillis）。
+ *
+ * 限流模式：
+ * OFF      按节拍分发，不管上一个手势是否结束（旧行为，重叠的手势会被系统取消）；
+ * WAIT     上一个手势仍在途时推迟本次节拍，等到回调或超时后再分发；
+ * ADAPTIVE 在 WAIT 的基础上，根据实际完成耗时给点击间隔设下限，被取消时加大下限、完成时逐步恢复。
+ */
+public class GestureTracker {
+    public enum Mode {
+        OFF,
+        WAIT,
+        ADAPTIVE
+    }
+
+    // 在途手势的上限（环形记录分发时间）；超过时最旧的记录会被覆盖并按超时处理
+    public static final int MAX_IN_FLIGHT = 64;
+    private static final double LATENCY_SMOOTHING = 0.2;
+    // 自适应下限在平均完成耗时之上保留的余量
+    private static final long ADAPTIVE_MARGIN_MS = 10;
+    private static final double CANCEL_BACKOFF = 1.5;
+    private static final double COMPLETE_DECAY = 0.9;
+
+    private Mode mode = Mode.OFF;
+    private final long[] dispatchTimes = new long[MAX_IN_FLIGHT];
+    private long dispatchedSeq; // 已分发（进入 PENDING）的手势序号
+    private long resolvedSeq;   // 已得到结果的手势序号
+
+    private long attempted;
+    private long completed;
+    private long cancelled;
+    private long rejected;
+    private long expired;
+
+    private long lastLatency;
+    private double averageLatency;
+    private double backoffFloor;
+
+    public void setMode(Mode mode) {
+        this.mode = mode;
+        if (mode != Mode.ADAPTIVE) {
+            backoffFloor = 0;
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * 下一个分发的手势将得到的序号：分发前取出交给手势接收端，回调时带回
+     */
+    public long getNextSeq() {
+        return dispatchedSeq;
+    }
+
+    public void onDispatched(long now) {
+        attempted++;
+        if (dispatchedSeq - resolvedSeq >= MAX_IN_FLIGHT) {
+            // 记录已满：最旧的手势迟迟没有回调，视为丢失
+            resolvedSeq++;
+            expired++;
+        }
+        dispatchTimes[(int) (dispatchedSeq % MAX_IN_FLIGHT)] = now;
+        dispatchedSeq++;
+    }
+
+    public void onRejected() {
+        attempted++;
+        rejected++;
+    }
+
+    /**
+     * @param seq 分发时的序号
+     * @return 该手势从分发到完成的耗时；该手势已不在途（例如已超时）时返回 -1
+     */
+    public long onCompleted(long now, long seq) {
+        long latency = resolve(now, seq);
+        if (latency < 0) {
+            return -1;
+        }
+        completed++;
+        lastLatency = latency;
+        averageLatency = completed == 1 ? latency : averageLatency + LATENCY_SMOOTHING * (latency - averageLatency);
+        backoffFloor *= COMPLETE_DECAY;
+        return latency;
+    }
+
+    /**
+     * @param seq 分发时的序号
+     * @return 该手势从分发到被取消的耗时；该手势已不在途时返回 -1
+     */
+    public long onCancelled(long now, long seq) {
+        long latency = resolve(now, seq);
+        if (latency < 0) {
+            return -1;
+        }
+        cancelled++;
+        if (mode == Mode.ADAPTIVE) {
+            // 被取消说明分发得太快：以当前间隔下限为基础退避
+            backoffFloor = Math.max(getIntervalFloor(), ADAPTIVE_MARGIN_MS) * CANCEL_BACKOFF;
+        }
+        return latency;
+    }
+
+    /**
+     * 本次节拍是否应推迟。已在途超过 timeoutMs 的手势视为丢失，不再阻塞后续分发。
+     */
+    public boolean shouldWait(long now, long timeoutMs) {
+        if (mode == Mode.OFF) {
+            return false;
+        }
+        while (getInFlight() > 0 && now - dispatchTimes[(int) (resolvedSeq % MAX_IN_FLIGHT)] >= timeoutMs) {
+            resolvedSeq++;
+            expired++;
+        }
+        return getInFlight() > 0;
+    }
+
+    /**
+     * 自适应模式下点击间隔的下限（毫秒），其他模式返回 0
+     */
+    public long getIntervalFloor() {
+        if (mode != Mode.ADAPTIVE || completed == 0) {
+            return mode == Mode.ADAPTIVE ? Math.round(backoffFloor) : 0;
+        }
+        return Math.max(Math.round(averageLatency) + ADAPTIVE_MARGIN_MS, Math.round(backoffFloor));
+    }
+
+    /**
+     * 清零计数（新一轮点击开始时调用）。在途手势保留，它们的回调仍会正常匹配。
+     */
+    public void resetCounts() {
+        attempted = 0;
+        completed = 0;
+        cancelled = 0;
+        rejected = 0;
+        expired = 0;
+    }
+
+    public int getInFlight() {
+        return (int) (dispatchedSeq - resolvedSeq);
+    }
+
+    public long getAttempted() {
+        return attempted;
+    }
+
+    public long getCompleted() {
+        return completed;
+    }
+
+    public long getCancelled() {
+        return cancelled;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public long getExpired() {
+        return expired;
+    }
+
+    public long getLastLatency() {
+        return lastLatency;
+    }
+
+    public long getAverageLatency() {
+        return Math.round(averageLatency);
+    }
+
+    private long resolve(long now, long seq) {
+        if (seq < resolvedSeq || seq >= dispatchedSeq) {
+            // 已按超时丢弃的手势迟到的回调
+            return -1;
+        }
+        // 更早的在途手势没有回调就轮到了这个：它们已丢失
+        expired += seq - resolvedSeq;
+        resolvedSeq = seq + 1;
+        return now - dispatchTimes[(int) (seq % MAX_IN_FLIGHT)];
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo;
+
+/**
+ * 点击间隔分布：每次节拍抽取一个间隔（毫秒）。
+ *
+ * 参数化的分布由 IntervalDistributions 按设置的最小/最大间隔构建，经验分布由 EmpiricalDistribution
+ * 从直方图文件加载。实现可以有内部状态（如高斯分布缓存的第二个样本），不需要线程安全；
+ * 引擎在点击线程上调用，稳态下 sample 不应分配对象。
+ */
+public interface IntervalDistribution {
+    enum Kind {
+        /** [min, max] 均匀分布（默认） */
+        UNIFORM,
+        /** 均值 (min+max)/2，min/max 在 ±3σ 处，截断到 [min, max] */
+        GAUSSIAN,
+        /** 中位数 √(min·max)，min/max 在对数空间 ±3σ 处，截断到 [min, max] */
+        LOG_NORMAL,
+        /** 泊松过程：min 之后的等待时间服从指数分布，平均间隔与均匀分布相同 */
+        EXPONENTIAL,
+        /** 从直方图文件加载的经验分布，别名法 O(1) 抽样 */
+        EMPIRICAL
+    }
+
+    long sample(ClickRandom random);
+}
@@ -0,0 +1,122 @@
+package com.example.demo;
+
+/**
+ * 参数化的间隔分布，参数都由最小/最大间隔推导，与设置页的两个输入框对应。
+ */
+public final class IntervalDistributions {
+    // 指数分布的上限：超过平均等待时间 20 倍的概率约为 2e-9，只用于防止溢出和异常长的停顿
+    private static final double EXPONENTIAL_CAP = 20;
+
+    private IntervalDistributions() {
+    }
+
+    /**
+     * 按类型构建分布。EMPIRICAL 使用传入的经验分布，为 null 时退回均匀分布。
+     */
+    public static IntervalDistribution create(IntervalDistribution.Kind kind, long min, long max,
+                                              EmpiricalDistribution empirical) {
+        if (kind == null) {
+            return uniform(min, max);
+        }
+        switch (kind) {
+            case GAUSSIAN:
+                return gaussian(min, max);
+            case LOG_NORMAL:
+                return logNormal(min, max);
+            case EXPONENTIAL:
+                return exponential(min, max);
+            case EMPIRICAL:
+                return empirical != null ? empirical : uniform(min, max);
+            case UNIFORM:
+            default:
+                return uniform(min, max);
+        }
+    }
+
+    public static IntervalDistribution uniform(long min, long max) {
+        if (min >= max) {
+            return random -> min;
+        }
+        long range = max - min + 1;
+        return random -> min + random.nextLong(range);
+    }
+
+    public static IntervalDistribution gaussian(long min, long max) {
+        if (min >= max) {
+            return uniform(min, max);
+        }
+        return new Gaussian((min + max) / 2.0, (max - min) / 6.0, min, max, false);
+    }
+
+    public static IntervalDistribution logNormal(long min, long max) {
+        if (min >= max) {
+            return uniform(min, max);
+        }
+        double logMin = Math.log(Math.max(1, min));
+        double logMax = Math.log(max);
+        return new Gaussian((logMin + logMax) / 2, (logMax - logMin) / 6, min, max, true);
+    }
+
+    public static IntervalDistribution exponential(long min, long max) {
+        if (min >= max) {
+            return uniform(min, max);
+        }
+        double mean = (max - min) / 2.0;
+        double cap = mean * EXPONENTIAL_CAP;
+        return random -> {
+            // 1 - u 落在 (0, 1]，避免 log(0)
+            double wait = -mean * Math.log(1 - random.nextDouble());
+            return min + Math.round(Math.min(wait, cap));
+        };
+    }
+
+    /**
+     * 正态（或对数正态）分布，Marsaglia 极坐标法，每次成功的拒绝采样产生两个样本，第二个缓存到下次
+     */
+    private static final class Gaussian implements IntervalDistribution {
+        private final double mean;
+        private final double sigma;
+        private final long min;
+        private final long max;
+        private final boolean logSpace;
+        private boolean hasSpare;
+        private double spare;
+
+        Gaussian(double mean, double sigma, long min, long max, boolean logSpace) {
+            this.mean = mean;
+            this.sigma = sigma;
+            this.min = min;
+            this.max = max;
+            this.logSpace = logSpace;
+        }
+
+        @Override
+        public long sample(ClickRandom random) {
+            double value = mean + sigma * nextStandardNormal(random);
+            if (logSpace) {
+                value = Math.exp(value);
+            }
+            long interval = Math.round(value);
+            return interval < min ? min : interval > max ? max : interval;
+        }
+
+        private double nextStandardNormal(ClickRandom random) {
+            if (hasSpare) {
+                hasSpare = false;
+                return spare;
+            }
+            double u;
+            double v;
+            double s;
+            do {
+                u = random.nextDouble() * 2 - 1;
+                v = random.nextDouble() * 2 - 1;
+                s = u * u + v * v;
+            } while (s >= 1 || s == 0);
+            double factor = Math.sqrt(-2 * Math.log(s) / s);
+            spare = v * factor;
+            hasSpare = true;
+            return u * factor;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.example.demo;
+
+import java.util.List;
+
+/**
+ * 激活位置的均匀网格索引，用于选取模式下的命中测试：几百上千个位置时不再逐个比较距离。
+ *
+ * 按一份不可变的位置列表（通常是 PositionStore 的快照）构建一次，O(n)；位置变化后重新构建。
+ * 每个格子里的位置序号按升序存放（计数排序），查询只检查触摸点圆形范围覆盖的格子，
+ * 结果和 {@link ClickGeometry#hitTest} 相同：多个位置重叠时返回列表中靠前的那个。
+ */
+public final class PositionGrid {
+    private final List<ClickPosition> positions;
+    private final float cellSize;
+    private final float minX;
+    private final float minY;
+    private final int cols;
+    private final int rows;
+    // 第 c 个格子的位置序号是 cellItems[cellStart[c] .. cellStart[c + 1])
+    private final int[] cellStart;
+    private final int[] cellItems;
+
+    private PositionGrid(List<ClickPosition> positions, float cellSize, float minX, float minY,
+                         int cols, int rows, int[] cellStart, int[] cellItems) {
+        this.positions = positions;
+        this.cellSize = cellSize;
+        this.minX = minX;
+        this.minY = minY;
+        this.cols = cols;
+        this.rows = rows;
+        this.cellStart = cellStart;
+        this.cellItems = cellItems;
+    }
+
+    /**
+     * @param positions 构建后不能再修改（快照的 asList() 满足这一点）
+     * @param cellSize  格子边长，取命中半径的两倍左右时每次查询只看 1-4 个格子
+     */
+    public static PositionGrid build(List<ClickPosition> positions, float cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("cellSize must be positive: " + cellSize);
+        }
+        int n = positions.size();
+        int active = 0;
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < n; i++) {
+            ClickPosition pos = positions.get(i);
+            if (pos.isActive()) {
+                active++;
+                minX = Math.min(minX, pos.getX());
+                minY = Math.min(minY, pos.getY());
+                maxX = Math.max(maxX, pos.getX());
+                maxY = Math.max(maxY, pos.getY());
+            }
+        }
+        if (active == 0) {
+            return new PositionGrid(positions, cellSize, 0, 0, 0, 0, new int[1], new int[0]);
+        }
+
+        // 位置很分散时加大格子，格子数不超过位置数的几倍
+        long maxCells = Math.max(64, 4L * active);
+        int cols;
+        int rows;
+        while (true) {
+            cols = (int) ((maxX - minX) / cellSize) + 1;
+            rows = (int) ((maxY - minY) / cellSize) + 1;
+            if ((long) cols * rows <= maxCells) {
+                break;
+            }
+            cellSize *= 2;
+        }
+
+        int[] cellStart = new int[cols * rows + 1];
+        int[] cellOf = new int[n];
+        for (int i = 0; i < n; i++) {
+            ClickPosition pos = positions.get(i);
+            if (pos.isActive()) {
+                int cell = (int) ((pos.getY() - minY) / cellSize) * cols + (int) ((pos.getX() - minX) / cellSize);
+                cellOf[i] = cell;
+                cellStart[cell + 1]++;
+            } else {
+                cellOf[i] = -1;
+            }
+        }
+        for (int c = 0; c < cols * rows; c++) {
+            cellStart[c + 1] += cellStart[c];
+        }
+        int[] fill = new int[cols * rows];
+        int[] cellItems = new int[active];
+        for (int i = 0; i < n; i++) {
+            int cell = cellOf[i];
+            if (cell >= 0) {
+                cellItems[cellStart[cell] + fill[cell]++] = i;
+            }
+        }
+        return new PositionGrid(positions, cellSize, minX, minY, cols, rows, cellStart, cellItems);
+    }
+
+    /** 构建时的位置列表 */
+    public List<ClickPosition> getPositions() {
+        return positions;
+    }
+
+    /**
+     * 查找 (x, y) 落在哪个激活位置的圆形范围内（含边界）
+     *
+     * @return 命中的位置序号（多个命中时取最小的），没有命中返回 -1
+     */
+    public int hitTest(float x, float y, float radius) {
+        if (cols == 0) {
+            return -1;
+        }
+        int col0 = Math.max(0, (int) Math.floor((x - radius - minX) / cellSize));
+        int col1 = Math.min(cols - 1, (int) Math.floor((x + radius - minX) / cellSize));
+        int row0 = Math.max(0, (int) Math.floor((y - radius - minY) / cellSize));
+        int row1 = Math.min(rows - 1, (int) Math.floor((y + radius - minY) / cellSize));
+        float radiusSquared = radius * radius;
+        int best = -1;
+        for (int row = row0; row <= row1; row++) {
+            for (int col = col0; col <= col1; col++) {
+                int cell = row * cols + col;
+                for (int k = cellStart[cell], end = cellStart[cell + 1]; k < end; k++) {
+                    int index = cellItems[k];
+                    if (best >= 0 && index >= best) {
+                        break; // 格子内序号升序，后面的不会更靠前
+                    }
+                    ClickPosition pos = positions.get(index);
+                    float dx = x - pos.getX();
+                    float dy = y - pos.getY();
+                    if (dx * dx + dy * dy <= radiusSquared) {
+                        best = index;
+                        break;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+}
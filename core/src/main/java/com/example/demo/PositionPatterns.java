@@ -0,0 +1,153 @@
+package com.example.demo;
+
+/**
+ * 按模板批量生成点击位置：矩形网格、两点之间的直线、圆周和正多边形。
+ *
+ * 生成结果是交替存放 x, y 的坐标数组（几千个点也只是一个 float[]），再用 {@link #toPositions} 去掉屏幕外的点、
+ * 转成位置，通过 {@link PositionStore#addAll} 或 {@link PositionStore#replaceAll} 一次写入存储，
+ * 点击引擎只重建一次排期。不依赖 Android，可以在后台线程调用。
+ * 相邻两点的距离小于 {@link #MIN_SPACING}（间距或半径为 0 等）时抛出 IllegalArgumentException，不会把多个位置叠在同一个像素上。
+ */
+public final class PositionPatterns {
+    /** 相邻两点的最小距离（像素） */
+    public static final float MIN_SPACING = 1f;
+
+    private PositionPatterns() {
+    }
+
+    /**
+     * cols × rows 的矩形网格，从左上角 (left, top) 开始逐行排列
+     */
+    public static float[] grid(float left, float top, int cols, int rows, float spacingX, float spacingY) {
+        int count = checkCount((long) checkPositive(cols, "cols") * checkPositive(rows, "rows"));
+        if (cols > 1) {
+            checkSpacing(Math.abs(spacingX), "spacingX");
+        }
+        if (rows > 1) {
+            checkSpacing(Math.abs(spacingY), "spacingY");
+        }
+        float[] coords = new float[count * 2];
+        int k = 0;
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                coords[k++] = left + col * spacingX;
+                coords[k++] = top + row * spacingY;
+            }
+        }
+        return coords;
+    }
+
+    /**
+     * 从 (x1, y1) 到 (x2, y2) 等距的 count 个点，含两个端点；count 为 1 时只有起点
+     */
+    public static float[] line(float x1, float y1, float x2, float y2, int count) {
+        checkCount(checkPositive(count, "count"));
+        if (count > 1) {
+            checkSpacing(Math.hypot(x2 - x1, y2 - y1) / (count - 1), "point spacing");
+        }
+        float[] coords = new float[count * 2];
+        for (int i = 0; i < count; i++) {
+            float t = count == 1 ? 0 : (float) i / (count - 1);
+            coords[i * 2] = x1 + (x2 - x1) * t;
+            coords[i * 2 + 1] = y1 + (y2 - y1) * t;
+        }
+        return coords;
+    }
+
+    /**
+     * 圆周上等距的 count 个点，从正上方开始顺时针（屏幕坐标 y 向下）
+     */
+    public static float[] circle(float centerX, float centerY, float radius, int count) {
+        checkCount(checkPositive(count, "count"));
+        if (!(radius > 0)) {
+            throw new IllegalArgumentException("radius must be positive: " + radius);
+        }
+        if (count > 1) {
+            checkSpacing(chord(radius, count), "point spacing");
+        }
+        float[] coords = new float[count * 2];
+        for (int i = 0; i < count; i++) {
+            double angle = 2 * Math.PI * i / count - Math.PI / 2;
+            coords[i * 2] = centerX + (float) (radius * Math.cos(angle));
+            coords[i * 2 + 1] = centerY + (float) (radius * Math.sin(angle));
+        }
+        return coords;
+    }
+
+    /**
+     * 内接于圆 (centerX, centerY, radius) 的正多边形，第一个顶点在正上方，顺时针。
+     * 每条边上取 pointsPerSide 个点（含起点顶点、不含终点顶点），pointsPerSide 为 1 时只有 sides 个顶点。
+     */
+    public static float[] polygon(float centerX, float centerY, float radius, int sides, int pointsPerSide) {
+        if (sides < 3) {
+            throw new IllegalArgumentException("sides must be at least 3: " + sides);
+        }
+        int count = checkCount((long) sides * checkPositive(pointsPerSide, "pointsPerSide"));
+        float[] vertices = circle(centerX, centerY, radius, sides);
+        checkSpacing(chord(radius, sides) / pointsPerSide, "point spacing");
+        float[] coords = new float[count * 2];
+        int k = 0;
+        for (int side = 0; side < sides; side++) {
+            int next = (side + 1) % sides;
+            float x1 = vertices[side * 2];
+            float y1 = vertices[side * 2 + 1];
+            float x2 = vertices[next * 2];
+            float y2 = vertices[next * 2 + 1];
+            for (int i = 0; i < pointsPerSide; i++) {
+                float t = (float) i / pointsPerSide;
+                coords[k++] = x1 + (x2 - x1) * t;
+                coords[k++] = y1 + (y2 - y1) * t;
+            }
+        }
+        return coords;
+    }
+
+    /**
+     * 把坐标转成位置，去掉落在 [0, width) × [0, height) 之外的点
+     */
+    public static ClickPosition[] toPositions(float[] coords, int width, int height) {
+        int inside = 0;
+        for (int i = 0; i < coords.length; i += 2) {
+            if (isInside(coords[i], coords[i + 1], width, height)) {
+                inside++;
+            }
+        }
+        ClickPosition[] positions = new ClickPosition[inside];
+        int k = 0;
+        for (int i = 0; i < coords.length; i += 2) {
+            if (isInside(coords[i], coords[i + 1], width, height)) {
+                positions[k++] = new ClickPosition(coords[i], coords[i + 1]);
+            }
+        }
+        return positions;
+    }
+
+    private static boolean isInside(float x, float y, int width, int height) {
+        return x >= 0 && y >= 0 && x < width && y < height;
+    }
+
+    private static int checkPositive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+        return value;
+    }
+
+    /** 圆上 count 等分点中相邻两点的距离 */
+    private static double chord(float radius, int count) {
+        return 2 * radius * Math.sin(Math.PI / count);
+    }
+
+    private static void checkSpacing(double spacing, String name) {
+        if (!(spacing >= MIN_SPACING)) {
+            throw new IllegalArgumentException(name + " must be at least " + MIN_SPACING + " px: " + spacing);
+        }
+    }
+
+    private static int checkCount(long count) {
+        if (count > PositionStore.MAX_POSITIONS) {
+            throw new IllegalArgumentException("too many points: " + count + " > " + PositionStore.MAX_POSITIONS);
+        }
+        return (int) count;
+    }
+}
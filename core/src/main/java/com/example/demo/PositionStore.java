@@ -0,0 +1,296 @@
+package com.example.demo;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 点击位置的共享存储：浮窗（选取、编辑、绘制）和点击引擎读写同一份位置列表，不再各自维护一份再用命令同步。
+ *
+ * 写时复制：每次修改在锁内复制数组，发布一个新的不可变快照；读取方只做一次 volatile 读，不加锁，
+ * 点击线程在节拍之间换用新快照（见 ClickEngine）。快照中的 ClickPosition 发布后不再修改，读取方不要调用
+ * 它们的 setter。每个位置有存储分配的 id，浮窗按 id 删除和修改，不受并发插入/删除造成的序号变化影响。
+ * 进程内单例（getInstance），测试和模拟器可以各自创建实例。
+ */
+public final class PositionStore {
+    private static final PositionStore INSTANCE = new PositionStore();
+    /** 位置数上限：选取和批量生成都不超过这个数 */
+    public static final int MAX_POSITIONS = 5000;
+
+    /**
+     * 位置变化通知，在执行修改的线程上调用；需要在特定线程处理的监听者自行投递
+     */
+    public interface Listener {
+        void onPositionsChanged(Snapshot snapshot);
+    }
+
+    /**
+     * 某一时刻的位置列表，不可变
+     */
+    public static final class Snapshot {
+        private final ClickPosition[] positions;
+        private final long[] ids;
+        private final long version;
+        private final List<ClickPosition> list;
+
+        Snapshot(ClickPosition[] positions, long[] ids, long version) {
+            this.positions = positions;
+            this.ids = ids;
+            this.version = version;
+            this.list = Collections.unmodifiableList(Arrays.asList(positions));
+        }
+
+        /** 每次修改加 1 */
+        public long getVersion() {
+            return version;
+        }
+
+        public int size() {
+            return positions.length;
+        }
+
+        public boolean isEmpty() {
+            return positions.length == 0;
+        }
+
+        /** 只读，不要修改返回的对象 */
+        public ClickPosition get(int index) {
+            return positions[index];
+        }
+
+        public long getId(int index) {
+            return ids[index];
+        }
+
+        /**
+         * @return id 对应的序号，已被删除时返回 -1
+         */
+        public int indexOf(long id) {
+            // id 按位置顺序递增（只在末尾添加，整体替换时重新分配），二分查找
+            int index = Arrays.binarySearch(ids, id);
+            return index >= 0 ? index : -1;
+        }
+
+        /** 只读列表视图 */
+        public List<ClickPosition> asList() {
+            return list;
+        }
+    }
+
+    private final Object lock = new Object();
+    private final CopyOnWriteArrayList<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile Snapshot snapshot = new Snapshot(new ClickPosition[0], new long[0], 0);
+    private long nextId = 1;
+
+    public static PositionStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 当前快照，任意线程调用，不加锁
+     */
+    public Snapshot snapshot() {
+        return snapshot;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.addIfAbsent(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * 在末尾添加一个位置
+     *
+     * @return 新位置的 id；已有 MAX_POSITIONS 个位置时不添加，返回 -1
+     */
+    public long add(float x, float y) {
+        return add(new ClickPosition(x, y));
+    }
+
+    /**
+     * 在末尾添加一个位置，坐标、激活状态和点击参数从 position 复制
+     *
+     * @return 新位置的 id；已有 MAX_POSITIONS 个位置时不添加，返回 -1
+     */
+    public long add(ClickPosition position) {
+        Snapshot published;
+        long id;
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            int size = current.positions.length;
+            if (size >= MAX_POSITIONS) {
+                return -1;
+            }
+            ClickPosition[] positions = Arrays.copyOf(current.positions, size + 1);
+            long[] ids = Arrays.copyOf(current.ids, size + 1);
+            id = nextId++;
+            positions[size] = new ClickPosition(position);
+            ids[size] = id;
+            published = publish(current, positions, ids);
+        }
+        notifyListeners(published);
+        return id;
+    }
+
+    public boolean remove(long id) {
+        Snapshot published;
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            int index = current.indexOf(id);
+            if (index < 0) {
+                return false;
+            }
+            published = removeLocked(current, index);
+        }
+        notifyListeners(published);
+        return true;
+    }
+
+    /**
+     * 按当前快照中的序号删除
+     */
+    public boolean removeAt(int index) {
+        Snapshot published;
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            if (index < 0 || index >= current.positions.length) {
+                return false;
+            }
+            published = removeLocked(current, index);
+        }
+        notifyListeners(published);
+        return true;
+    }
+
+    /**
+     * 在末尾批量添加 positions 的副本，只发布一个快照；超过 MAX_POSITIONS 的部分不添加
+     *
+     * @return 实际添加的数量
+     */
+    public int addAll(ClickPosition[] positions) {
+        Snapshot published;
+        int added;
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            int size = current.positions.length;
+            added = Math.max(0, Math.min(positions.length, MAX_POSITIONS - size));
+            if (added == 0) {
+                return 0;
+            }
+            ClickPosition[] copies = Arrays.copyOf(current.positions, size + added);
+            long[] ids = Arrays.copyOf(current.ids, size + added);
+            for (int i = 0; i < added; i++) {
+                copies[size + i] = new ClickPosition(positions[i]);
+                ids[size + i] = nextId++;
+            }
+            published = publish(current, copies, ids);
+        }
+        notifyListeners(published);
+        return added;
+    }
+
+    /**
+     * 用 positions 的副本替换全部位置（如切换方案），只发布一个快照；所有位置分配新的 id。
+     * 超过 MAX_POSITIONS 的部分不保留。
+     *
+     * @return 实际保留的位置数
+     */
+    public int replaceAll(ClickPosition[] positions) {
+        Snapshot published;
+        int kept = Math.min(positions.length, MAX_POSITIONS);
+        synchronized (lock) {
+            ClickPosition[] copies = new ClickPosition[kept];
+            long[] ids = new long[kept];
+            for (int i = 0; i < kept; i++) {
+                copies[i] = new ClickPosition(positions[i]);
+                ids[i] = nextId++;
+            }
+            published = publish(snapshot, copies, ids);
+        }
+        notifyListeners(published);
+        return kept;
+    }
+
+    public void clear() {
+        Snapshot published;
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            if (current.positions.length == 0) {
+                return;
+            }
+            published = publish(current, new ClickPosition[0], new long[0]);
+        }
+        notifyListeners(published);
+    }
+
+    /**
+     * 更新位置的点击参数（坐标和激活状态不变）
+     */
+    public boolean updateSpec(long id, ClickPosition spec) {
+        Snapshot published;
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            int index = current.indexOf(id);
+            if (index < 0) {
+                return false;
+            }
+            ClickPosition updated = new ClickPosition(current.positions[index]);
+            updated.copySpecFrom(spec);
+            published = replaceLocked(current, index, updated);
+        }
+        notifyListeners(published);
+        return true;
+    }
+
+    public boolean setActive(long id, boolean active) {
+        Snapshot published;
+        synchronized (lock) {
+            Snapshot current = snapshot;
+            int index = current.indexOf(id);
+            if (index < 0) {
+                return false;
+            }
+            if (current.positions[index].isActive() == active) {
+                return true;
+            }
+            ClickPosition updated = new ClickPosition(current.positions[index]);
+            updated.setActive(active);
+            published = replaceLocked(current, index, updated);
+        }
+        notifyListeners(published);
+        return true;
+    }
+
+    private Snapshot removeLocked(Snapshot current, int index) {
+        int size = current.positions.length;
+        ClickPosition[] positions = new ClickPosition[size - 1];
+        long[] ids = new long[size - 1];
+        System.arraycopy(current.positions, 0, positions, 0, index);
+        System.arraycopy(current.positions, index + 1, positions, index, size - index - 1);
+        System.arraycopy(current.ids, 0, ids, 0, index);
+        System.arraycopy(current.ids, index + 1, ids, index, size - index - 1);
+        return publish(current, positions, ids);
+    }
+
+    private Snapshot replaceLocked(Snapshot current, int index, ClickPosition updated) {
+        ClickPosition[] positions = current.positions.clone();
+        positions[index] = updated;
+        return publish(current, positions, current.ids);
+    }
+
+    private Snapshot publish(Snapshot current, ClickPosition[] positions, long[] ids) {
+        Snapshot next = new Snapshot(positions, ids, current.version + 1);
+        snapshot = next;
+        return next;
+    }
+
+    private void notifyListeners(Snapshot published) {
+        for (Listener listener : listeners) {
+            listener.onPositionsChanged(published);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.example.demo;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+
+/**
+ * 点击方案的文件存储：每个方案一个紧凑的二进制文件（目录下的 "名称.kcp"），读取时内存映射后直接解码。
+ *
+ * 文件格式（小端），版本 1：
+ * <pre>
+ * 头部 48 字节：
+ *   int   魔数 'KCPF'
+ *   short 格式版本
+ *   short 标志位（bit0 固定节拍，bit1 补点，bit2 批量）
+ *   long  最小间隔
+ *   long  最大间隔
+ *   int   随机偏移半径
+ *   int   间隔分布（IntervalDistribution.Kind 的序号）
+ *   int   位置数 n
+ *   int   保留
+ *   long  保留
+ * 位置记录 n × 32 字节：
+ *   float x, float y
+ *   int   按下时长, int 偏移半径, int 最小间隔, int 最大间隔（INHERIT 为 -1）
+ *   byte  每轮次数, byte 标志位（bit0 激活）, short 保留, int 保留
+ * 尾部：int CRC32（覆盖之前的所有字节）
+ * </pre>
+ * 定长记录使解码只是顺序读取（载入耗时见 jmh 的 ProfileLoadBenchmark）。保存先写临时文件再改名，写到一半不会损坏旧方案。
+ * 解码时校验位置数不超过 {@link PositionStore#MAX_POSITIONS}，间隔、按下时长等取值在编辑器允许的范围内，
+ * 否则按格式错误拒绝，不会把越界的值带进点击引擎。
+ */
+public final class ProfileStore {
+    public static final String EXTENSION = ".kcp";
+    static final int MAGIC = 0x4650434B; // "KCPF"
+    static final short VERSION = 1;
+    static final int HEADER_SIZE = 48;
+    static final int RECORD_SIZE = 32;
+    private static final int FLAG_FIXED_RATE = 1;
+    private static final int FLAG_CATCH_UP = 1 << 1;
+    private static final int FLAG_BURST = 1 << 2;
+    private static final int POSITION_ACTIVE = 1;
+
+    private final File directory;
+
+    public ProfileStore(File directory) {
+        this.directory = directory;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * 已保存的方案名称，按名称排序
+     */
+    public List<String> list() {
+        List<String> names = new ArrayList<>();
+        String[] files = directory.list();
+        if (files != null) {
+            for (String file : files) {
+                if (file.endsWith(EXTENSION)) {
+                    names.add(file.substring(0, file.length() - EXTENSION.length()));
+                }
+            }
+        }
+        String[] sorted = names.toArray(new String[0]);
+        Arrays.sort(sorted);
+        return Arrays.asList(sorted);
+    }
+
+    public boolean exists(String name) {
+        return fileFor(name).isFile();
+    }
+
+    public void save(ClickProfile profile) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create profile directory " + directory);
+        }
+        File target = fileFor(profile.getName());
+        File temp = new File(directory, target.getName() + ".tmp");
+        ByteBuffer data = encode(profile);
+        try (RandomAccessFile file = new RandomAccessFile(temp, "rw");
+             FileChannel channel = file.getChannel()) {
+            channel.truncate(0);
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(false);
+        }
+        if (!temp.renameTo(target)) {
+            temp.delete();
+            throw new IOException("Cannot replace profile " + target);
+        }
+    }
+
+    /**
+     * 读取方案：文件内存映射后解码
+     *
+     * @throws IOException 文件不存在、格式或版本不支持、校验失败
+     */
+    public ClickProfile load(String name) throws IOException {
+        File source = fileFor(name);
+        try (RandomAccessFile file = new RandomAccessFile(source, "r");
+             FileChannel channel = file.getChannel()) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return decode(name, data);
+        }
+    }
+
+    public boolean delete(String name) {
+        return fileFor(name).delete();
+    }
+
+    /**
+     * 方案名称是否可用作文件名（非空、不含路径分隔符和控制字符，不以点开头）
+     */
+    public static boolean isValidName(String name) {
+        if (name == null || name.isEmpty() || name.length() > 64 || name.startsWith(".")) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '/' || c == '\\' || c == ':' || c < ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private File fileFor(String name) {
+        if (!isValidName(name)) {
+            throw new IllegalArgumentException("Invalid profile name: " + name);
+        }
+        return new File(directory, name + EXTENSION);
+    }
+
+    static ByteBuffer encode(ClickProfile profile) {
+        int count = profile.getPositionCount();
+        ByteBuffer data = ByteBuffer.allocate(HEADER_SIZE + count * RECORD_SIZE + 4).order(ByteOrder.LITTLE_ENDIAN);
+        int flags = (profile.isFixedRate() ? FLAG_FIXED_RATE : 0)
+                | (profile.isCatchUp() ? FLAG_CATCH_UP : 0)
+                | (profile.isBurst() ? FLAG_BURST : 0);
+        data.putInt(MAGIC);
+        data.putShort(VERSION);
+        data.putShort((short) flags);
+        data.putLong(profile.getMinInterval());
+        data.putLong(profile.getMaxInterval());
+        data.putInt(profile.getRandomOffset());
+        data.putInt(profile.getIntervalKind().ordinal());
+        data.putInt(count);
+        data.putInt(0);
+        data.putLong(0);
+        for (int i = 0; i < count; i++) {
+            ClickPosition pos = profile.getPosition(i);
+            data.putFloat(pos.getX());
+            data.putFloat(pos.getY());
+            data.putInt(clampToInt(pos.getHoldMillis()));
+            data.putInt(pos.getOffsetRadius());
+            data.putInt(clampToInt(pos.getMinInterval()));
+            data.putInt(clampToInt(pos.getMaxInterval()));
+            data.put((byte) pos.getRepeat());
+            data.put((byte) (pos.isActive() ? POSITION_ACTIVE : 0));
+            data.putShort((short) 0);
+            data.putInt(0);
+        }
+        data.putInt((int) crc(data, data.position()));
+        data.flip();
+        return data;
+    }
+
+    static ClickProfile decode(String name, ByteBuffer data) throws IOException {
+        data.order(ByteOrder.LITTLE_ENDIAN);
+        int limit = data.limit();
+        if (limit < HEADER_SIZE + 4 || data.getInt(0) != MAGIC) {
+            throw new IOException("Not a click profile: " + name);
+        }
+        short version = data.getShort(4);
+        if (version != VERSION) {
+            throw new IOException("Unsupported profile version " + version + ": " + name);
+        }
+        int count = data.getInt(32);
+        if (count < 0 || limit != HEADER_SIZE + (long) count * RECORD_SIZE + 4) {
+            throw new IOException("Truncated profile: " + name);
+        }
+        if (data.getInt(limit - 4) != (int) crc(data, limit - 4)) {
+            throw new IOException("Profile checksum mismatch: " + name);
+        }
+        if (count > PositionStore.MAX_POSITIONS) {
+            throw new IOException("Too many positions (" + count + " > " + PositionStore.MAX_POSITIONS + "): " + name);
+        }
+        long minInterval = data.getLong(8);
+        long maxInterval = data.getLong(16);
+        int randomOffset = data.getInt(24);
+        if (!ClickPosition.isValidInterval(minInterval, maxInterval) || randomOffset < 0) {
+            throw new IOException("Invalid profile settings: " + name);
+        }
+
+        int flags = data.getShort(6);
+        IntervalDistribution.Kind[] kinds = IntervalDistribution.Kind.values();
+        int kind = data.getInt(28);
+        ClickPosition[] positions = new ClickPosition[count];
+        for (int i = 0, offset = HEADER_SIZE; i < count; i++, offset += RECORD_SIZE) {
+            float x = data.getFloat(offset);
+            float y = data.getFloat(offset + 4);
+            int hold = data.getInt(offset + 8);
+            int radius = data.getInt(offset + 12);
+            int min = data.getInt(offset + 16);
+            int max = data.getInt(offset + 20);
+            int repeat = data.get(offset + 24);
+            if (!isValidRecord(x, y, hold, radius, min, max, repeat)) {
+                throw new IOException("Invalid position " + i + " in profile: " + name);
+            }
+            ClickPosition pos = new ClickPosition(x, y);
+            pos.setHoldMillis(hold);
+            pos.setOffsetRadius(radius);
+            pos.setInterval(min, max);
+            pos.setRepeat(repeat);
+            pos.setActive((data.get(offset + 25) & POSITION_ACTIVE) != 0);
+            positions[i] = pos;
+        }
+        return new ClickProfile(name, minInterval, maxInterval, randomOffset,
+                kind >= 0 && kind < kinds.length ? kinds[kind] : IntervalDistribution.Kind.UNIFORM,
+                (flags & FLAG_FIXED_RATE) != 0, (flags & FLAG_CATCH_UP) != 0, (flags & FLAG_BURST) != 0,
+                positions);
+    }
+
+    /**
+     * 位置记录的取值是否都是编辑器能产生的：坐标有限，按下时长和间隔为 INHERIT 或在允许范围内
+     */
+    private static boolean isValidRecord(float x, float y, int hold, int radius, int min, int max, int repeat) {
+        boolean intervalInherited = min == ClickPosition.INHERIT && max == ClickPosition.INHERIT;
+        return Float.isFinite(x) && Float.isFinite(y)
+                && (hold == ClickPosition.INHERIT || ClickPosition.isValidHold(hold))
+                && radius >= ClickPosition.INHERIT
+                && (intervalInherited || ClickPosition.isValidInterval(min, max))
+                && repeat >= 1 && repeat <= ClickPosition.MAX_REPEAT;
+    }
+
+    private static long crc(ByteBuffer data, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer view = data.duplicate();
+        view.position(0).limit(length);
+        crc.update(view);
+        return crc.getValue();
+    }
+
+    private static int clampToInt(long value) {
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.demo;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * 预约时间计算：给定时:分:秒，求下一次到达该时刻的墙上时间。
+ */
+public final class ScheduleCalculator {
+    private ScheduleCalculator() {
+    }
+
+    /**
+     * 今天的 hour:minute:second（timeZone 时区），已经过去（或正好是现在）则取明天的同一时刻。
+     *
+     * @return Unix 毫秒时间
+     */
+    public static long nextOccurrence(long nowMillis, TimeZone timeZone, int hour, int minute, int second) {
+        Calendar target = Calendar.getInstance(timeZone);
+        target.setTimeInMillis(nowMillis);
+        target.set(Calendar.HOUR_OF_DAY, hour);
+        target.set(Calendar.MINUTE, minute);
+        target.set(Calendar.SECOND, second);
+        target.set(Calendar.MILLISECOND, 0);
+        if (target.getTimeInMillis() <= nowMillis) {
+            target.add(Calendar.DAY_OF_MONTH, 1);
+        }
+        return target.getTimeInMillis();
+    }
+}
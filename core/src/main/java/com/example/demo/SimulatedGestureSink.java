@@ -0,0 +1,149 @@
+package com.example.demo;
+
+/**
+ * 模拟的手势接收端，按简化的系统行为回调：
+ * 手势在按下时长（批量时为最后一笔的结束时间）+ 注入延迟（基础值 + 随机抖动）后完成；新手势分发时上一个手势仍未结束则被取消
+ * （与 AccessibilityService.dispatchGesture 一致）；可按比例模拟 dispatchGesture 返回 false。
+ *
+ * 所有分发都折算进 getSequenceHash()，相同种子和配置下两次回放的哈希必须一致。
+ */
+public class SimulatedGestureSink implements GestureSink {
+    private final VirtualClock clock;
+    private final ClickRandom random;
+
+    private long burstStagger = 10;
+    private long baseLatency = 15;
+    private int latencyJitter = 10;
+    private double rejectRatio = 0;
+
+    // 最近分发的手势；回调时间保持单调，保证按分发顺序回调
+    private Gesture current;
+    private long lastCallbackTime = Long.MIN_VALUE;
+
+    private long dispatched;
+    private long rejected;
+    private long strokes;
+    private long sequenceHash = 1125899906842597L;
+
+    /** 一个在途手势：到点完成，或被后来的手势取消 */
+    private static final class Gesture implements Runnable {
+        final Callback callback;
+        final long seq;
+        final long end;
+        boolean resolved;
+        boolean cancelled;
+
+        Gesture(Callback callback, long seq, long end) {
+            this.callback = callback;
+            this.seq = seq;
+            this.end = end;
+        }
+
+        @Override
+        public void run() {
+            if (resolved) {
+                return;
+            }
+            resolved = true;
+            if (cancelled) {
+                callback.onGestureCancelled(seq);
+            } else {
+                callback.onGestureCompleted(seq);
+            }
+        }
+    }
+
+    public SimulatedGestureSink(VirtualClock clock, ClickRandom random) {
+        this.clock = clock;
+        this.random = random;
+    }
+
+    /**
+     * @param burstStagger 批量手势相邻笔画的起始间隔（ms）
+     */
+    public void setBurstStagger(long burstStagger) {
+        this.burstStagger = burstStagger;
+    }
+
+    /**
+     * @param baseLatency 手势结束到完成回调的固定延迟（ms）
+     * @param jitter 在固定延迟之上的随机抖动上限（ms）
+     */
+    public void setLatency(long baseLatency, int jitter) {
+        this.baseLatency = baseLatency;
+        this.latencyJitter = jitter;
+    }
+
+    /** dispatchGesture 返回 false 的比例（0 ~ 1） */
+    public void setRejectRatio(double rejectRatio) {
+        this.rejectRatio = rejectRatio;
+    }
+
+    @Override
+    public boolean dispatchClick(int index, float x, float y, long holdMillis, long seq, Callback callback) {
+        mix(index, x, y);
+        return dispatch(1, holdMillis, seq, callback);
+    }
+
+    @Override
+    public boolean dispatchBurst(ClickEngine engine, int count, long seq, Callback callback) {
+        long duration = 0;
+        for (int i = 0; i < count; i++) {
+            int index = engine.getBurstIndex(i);
+            mix(index, engine.getBurstX(i), engine.getBurstY(i));
+            duration = Math.max(duration, burstStagger * i + engine.getHoldDuration(index));
+        }
+        return dispatch(count, duration, seq, callback);
+    }
+
+    private boolean dispatch(int count, long duration, long seq, Callback callback) {
+        long now = clock.uptimeMillis();
+        if (rejectRatio > 0 && random.nextDouble() < rejectRatio) {
+            rejected++;
+            return false;
+        }
+        if (current != null && !current.resolved && current.end > now) {
+            // 上一个手势还没结束，被新手势取消
+            clock.removeCallbacks(current);
+            current.cancelled = true;
+            clock.post(current);
+            lastCallbackTime = Math.max(lastCallbackTime, now);
+        }
+        dispatched++;
+        strokes += count;
+        long end = now + duration;
+        long latency = baseLatency + (latencyJitter > 0 ? random.nextInt(latencyJitter + 1) : 0);
+        long callbackTime = Math.max(end + latency, lastCallbackTime);
+        lastCallbackTime = callbackTime;
+        current = new Gesture(callback, seq, end);
+        clock.postAtTime(current, callbackTime);
+        return true;
+    }
+
+    private void mix(int index, float x, float y) {
+        long h = sequenceHash;
+        h = h * 31 + clock.uptimeMillis();
+        h = h * 31 + index;
+        h = h * 31 + Float.floatToIntBits(x);
+        h = h * 31 + Float.floatToIntBits(y);
+        sequenceHash = h;
+    }
+
+    public long getDispatched() {
+        return dispatched;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    /** 已分发的笔画（点击）数，批量手势按笔画计 */
+    public long getStrokes() {
+        return strokes;
+    }
+
+    /** 所有分发过的（时间、位置、坐标）序列的哈希 */
+    public long getSequenceHash() {
+        return sequenceHash;
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo;
+
+/**
+ * 单位圆盘内均匀分布的点表，用于点击的随机偏移。
+ *
+ * 类加载时用固定种子做拒绝采样（在 [-1, 1]² 中取点，丢弃圆外的点），点击时只需一次随机数取下标、
+ * 乘以半径，不再调用 cos/sin/sqrt。4096 个点在 30px 半径下相邻点间距约 1px，与逐次采样没有可见差别。
+ */
+final class UnitDiscTable {
+    static final int BITS = 12;
+    static final int SIZE = 1 << BITS;
+
+    static final float[] XS = new float[SIZE];
+    static final float[] YS = new float[SIZE];
+
+    static {
+        XoroshiroRandom random = new XoroshiroRandom(0x5EED_D15CL);
+        int n = 0;
+        while (n < SIZE) {
+            double x = random.nextDouble() * 2 - 1;
+            double y = random.nextDouble() * 2 - 1;
+            if (x * x + y * y <= 1) {
+                XS[n] = (float) x;
+                YS[n] = (float) y;
+                n++;
+            }
+        }
+    }
+
+    private UnitDiscTable() {
+    }
+
+    /** 用 64 位随机数的高 BITS 位作为下标 */
+    static int index(long bits) {
+        return (int) (bits >>> (64 - BITS));
+    }
+}
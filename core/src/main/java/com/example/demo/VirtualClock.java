@@ -0,0 +1,177 @@
+package com.example.demo;
+
+import java.util.Arrays;
+
+/**
+ * 虚拟时钟 + 单线程事件队列，用于在普通 JVM 上回放点击循环。
+ *
+ * 时间只在执行事件时跳到事件时刻，不会真的等待，几小时的点击计划在毫秒级 CPU 时间内跑完。
+ * 同一时刻的事件按投递顺序执行，回放结果只取决于输入和随机种子。
+ *
+ * 事件按（时刻, 投递序号）放在数组小顶堆里，事件对象执行后回收复用：队列容量稳定后投递、执行和移除都不分配对象，
+ * 可以用来验证点击循环本身不产生垃圾。
+ */
+public class VirtualClock implements ClickClock, ClickScheduler {
+    private static final class Event {
+        long time;
+        long seq;
+        Runnable task;
+
+        boolean before(Event other) {
+            if (time != other.time) {
+                return time < other.time;
+            }
+            return seq < other.seq;
+        }
+    }
+
+    private Event[] heap = new Event[16];
+    private int size;
+    // 执行或移除后回收的事件对象
+    private Event[] pool = new Event[16];
+    private int pooled;
+
+    private long now;
+    private long seq;
+    private long executed;
+
+    public VirtualClock() {
+        this(0);
+    }
+
+    public VirtualClock(long startMillis) {
+        now = startMillis;
+    }
+
+    @Override
+    public long uptimeMillis() {
+        return now;
+    }
+
+    @Override
+    public void post(Runnable task) {
+        add(now, task);
+    }
+
+    @Override
+    public void postAtTime(Runnable task, long uptimeMillis) {
+        add(Math.max(uptimeMillis, now), task);
+    }
+
+    @Override
+    public void removeCallbacks(Runnable task) {
+        // 从后往前删：删除位置 i 后，移到 i 之后的都是检查过的元素，移到 i 上的可能没检查过，所以 i 要重新检查
+        int i = size - 1;
+        while (i >= 0) {
+            if (i < size && heap[i].task == task) {
+                recycle(removeAt(i));
+            } else {
+                i--;
+            }
+        }
+    }
+
+    /**
+     * 执行下一个事件，时间跳到该事件的时刻
+     *
+     * @return 队列为空时返回 false
+     */
+    public boolean runNext() {
+        if (size == 0) {
+            return false;
+        }
+        Event event = removeAt(0);
+        Runnable task = event.task;
+        now = event.time;
+        recycle(event);
+        executed++;
+        task.run();
+        return true;
+    }
+
+    /**
+     * 执行所有时刻不晚于 endMillis 的事件（包括执行过程中新投递的），然后把时间推进到 endMillis
+     */
+    public void runUntil(long endMillis) {
+        while (size > 0 && heap[0].time <= endMillis) {
+            runNext();
+        }
+        if (endMillis > now) {
+            now = endMillis;
+        }
+    }
+
+    public int getPendingCount() {
+        return size;
+    }
+
+    /** 已执行的事件数 */
+    public long getExecutedCount() {
+        return executed;
+    }
+
+    private void add(long time, Runnable task) {
+        Event event = pooled > 0 ? pool[--pooled] : new Event();
+        event.time = time;
+        event.seq = seq++;
+        event.task = task;
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        heap[size] = event;
+        siftUp(size++);
+    }
+
+    private Event removeAt(int i) {
+        Event removed = heap[i];
+        Event last = heap[--size];
+        heap[size] = null;
+        if (i < size) {
+            heap[i] = last;
+            siftDown(i);
+            if (heap[i] == last) {
+                siftUp(i);
+            }
+        }
+        return removed;
+    }
+
+    private void recycle(Event event) {
+        event.task = null;
+        if (pooled == pool.length) {
+            pool = Arrays.copyOf(pool, pooled * 2);
+        }
+        pool[pooled++] = event;
+    }
+
+    private void siftUp(int i) {
+        Event event = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!event.before(heap[parent])) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = event;
+    }
+
+    private void siftDown(int i) {
+        Event event = heap[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && heap[right].before(heap[child])) {
+                child = right;
+            }
+            if (!heap[child].before(event)) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = event;
+    }
+}
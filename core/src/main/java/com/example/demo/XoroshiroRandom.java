@@ -0,0 +1,45 @@
+package com.example.demo;
+
+/**
+ * xoroshiro128++ 生成器：128 位状态，周期 2^128 - 1，每次抽取只有几次移位、异或和加法。
+ *
+ * 种子经 SplitMix64 展开为初始状态，相同种子在任何 JVM 上得到相同序列。非线程安全。
+ */
+public final class XoroshiroRandom implements ClickRandom {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private long s0;
+    private long s1;
+
+    /** 以当前时间为种子 */
+    public XoroshiroRandom() {
+        this(System.nanoTime() ^ System.identityHashCode(Thread.currentThread()) * GOLDEN_GAMMA);
+    }
+
+    public XoroshiroRandom(long seed) {
+        long x = seed;
+        s0 = mix64(x += GOLDEN_GAMMA);
+        s1 = mix64(x + GOLDEN_GAMMA);
+        if ((s0 | s1) == 0) {
+            // 全零状态不会再产生非零输出
+            s1 = GOLDEN_GAMMA;
+        }
+    }
+
+    @Override
+    public long nextLong() {
+        long a = s0;
+        long b = s1;
+        long result = Long.rotateLeft(a + b, 17) + a;
+        b ^= a;
+        s0 = Long.rotateLeft(a, 49) ^ b ^ (b << 21);
+        s1 = Long.rotateLeft(b, 28);
+        return result;
+    }
+
+    private static long mix64(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
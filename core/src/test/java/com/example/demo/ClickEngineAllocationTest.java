@@ -0,0 +1,145 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+
+import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * 验证点击热路径在稳态下不分配对象：引擎本身（nextClick + scheduleNext），以及整个点击循环
+ * （节拍调度、在途手势跟踪、指标和轨迹记录）。
+ */
+public class ClickEngineAllocationTest {
+    private static final int WARMUP_CLICKS = 20_000;
+    private static final int MEASURED_CLICKS = 100_000;
+    // 给测量本身（MXBean 调用）留一点余量，远小于每次点击分配一个对象的量级
+    private static final long ALLOCATION_TOLERANCE_BYTES = 1024;
+
+    @Test
+    public void steadyStateClick_allocatesNothing() {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(42));
+        engine.updateSettings(50, 150, 10);
+        for (int i = 0; i < 10; i++) {
+            engine.addPosition(100 + i * 50, 200 + i * 30);
+        }
+        engine.start(0);
+
+        long now = runClicks(engine, 0, WARMUP_CLICKS);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        runClicks(engine, now, MEASURED_CLICKS);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertTrue("Click hot path allocated " + allocated + " bytes over " + MEASURED_CLICKS + " clicks",
+                allocated < ALLOCATION_TOLERANCE_BYTES);
+    }
+
+    @Test
+    public void clickLoopTick_allocatesNothing() {
+        com.sun.management.ThreadMXBean threadBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadBean.isThreadAllocatedMemorySupported());
+        threadBean.setThreadAllocatedMemoryEnabled(true);
+
+        VirtualClock clock = new VirtualClock();
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(42));
+        engine.updateSettings(50, 150, 10);
+        for (int i = 0; i < 10; i++) {
+            engine.addPosition(100 + i * 50, 200 + i * 30);
+        }
+        engine.getTrace().setEnabled(true);
+        ClickLoop loop = new ClickLoop(engine, clock, clock, new ImmediateGestureSink(clock));
+        loop.setBackpressureMode(GestureTracker.Mode.WAIT);
+        assertTrue(loop.start());
+
+        runTicks(loop, clock, WARMUP_CLICKS);
+
+        long threadId = Thread.currentThread().getId();
+        long before = threadBean.getThreadAllocatedBytes(threadId);
+        long clicks = runTicks(loop, clock, MEASURED_CLICKS);
+        long allocated = threadBean.getThreadAllocatedBytes(threadId) - before;
+
+        assertEquals(MEASURED_CLICKS, clicks);
+        assertTrue("Click loop allocated " + allocated + " bytes over " + MEASURED_CLICKS + " ticks",
+                allocated < ALLOCATION_TOLERANCE_BYTES);
+        assertEquals(0, loop.getMetrics().getFailed());
+    }
+
+    @Test
+    public void zeroOffset_clicksExactPosition() {
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(1));
+        engine.updateSettings(100, 100, 0);
+        engine.addPosition(10, 20);
+        engine.addPosition(30, 40);
+        engine.start(0);
+
+        assertEquals(0, engine.nextClick(0));
+        assertEquals(10f, engine.getClickX(), 0f);
+        assertEquals(20f, engine.getClickY(), 0f);
+        assertEquals(100, engine.scheduleNext(5));
+
+        assertEquals(1, engine.nextClick(100));
+        assertEquals(30f, engine.getClickX(), 0f);
+        assertEquals(40f, engine.getClickY(), 0f);
+    }
+
+    /**
+     * 手势在下一个事件里完成，回调复用同一个 Runnable
+     */
+    private static final class ImmediateGestureSink implements GestureSink {
+        private final VirtualClock clock;
+        private Callback callback;
+        private long seq;
+        private final Runnable completeTask = () -> callback.onGestureCompleted(seq);
+
+        ImmediateGestureSink(VirtualClock clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public boolean dispatchClick(int index, float x, float y, long holdMillis, long seq, Callback callback) {
+            return complete(seq, callback);
+        }
+
+        @Override
+        public boolean dispatchBurst(ClickEngine engine, int count, long seq, Callback callback) {
+            return complete(seq, callback);
+        }
+
+        private boolean complete(long seq, Callback callback) {
+            this.seq = seq;
+            this.callback = callback;
+            clock.post(completeTask);
+            return true;
+        }
+    }
+
+    /** 执行事件直到分发了 ticks 个节拍，返回实际的节拍数 */
+    private static long runTicks(ClickLoop loop, VirtualClock clock, int ticks) {
+        ClickMetrics metrics = loop.getMetrics();
+        long start = metrics.getTicks();
+        while (metrics.getTicks() - start < ticks && clock.runNext()) {
+            // 节拍和手势回调都在时钟的事件队列里
+        }
+        return metrics.getTicks() - start;
+    }
+
+    private static long runClicks(ClickEngine engine, long now, int clicks) {
+        long checksum = 0;
+        for (int i = 0; i < clicks; i++) {
+            int index = engine.nextClick(now);
+            checksum += index + (long) engine.getClickX();
+            now = engine.scheduleNext(now + 1);
+        }
+        assertTrue(checksum > 0);
+        return now;
+    }
+}
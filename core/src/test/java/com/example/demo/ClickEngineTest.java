@@ -0,0 +1,228 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+
+import static org.junit.Assert.*;
+
+public class ClickEngineTest {
+
+    @Test
+    public void armedStart_usesPrecomputedFirstClick() {
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(7));
+        engine.updateSettings(100, 200, 20);
+        engine.addPosition(300, 400);
+        engine.addPosition(500, 600);
+
+        assertEquals(0, engine.arm());
+        float armedX = engine.getArmedX();
+        float armedY = engine.getArmedY();
+
+        engine.start(1_000);
+        assertEquals(0, engine.nextClick(1_000));
+        assertEquals(armedX, engine.getClickX(), 0f);
+        assertEquals(armedY, engine.getClickY(), 0f);
+        assertFalse(engine.isArmed());
+
+        long next = engine.scheduleNext(1_000);
+        assertTrue(next >= 1_100 && next <= 1_200);
+        assertEquals(1, engine.nextClick(next));
+    }
+
+    @Test
+    public void positionChange_disarms() {
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(7));
+        engine.addPosition(10, 10);
+        engine.arm();
+        engine.addPosition(20, 20);
+        assertFalse(engine.isArmed());
+    }
+
+    @Test
+    public void arm_skipsInactivePositions() {
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(7));
+        engine.updateSettings(100, 100, 0);
+        engine.addPosition(10, 10);
+        engine.addPosition(20, 30);
+        engine.setPositionActive(0, false);
+
+        assertEquals(1, engine.arm());
+        engine.start(0);
+        assertEquals(1, engine.nextClick(0));
+        assertEquals(20f, engine.getClickX(), 0f);
+        assertEquals(30f, engine.getClickY(), 0f);
+    }
+
+    @Test
+    public void arm_withoutPositions_returnsStop() {
+        ClickEngine engine = new ClickEngine();
+        assertEquals(ClickEngine.RESULT_STOP, engine.arm());
+        assertFalse(engine.isArmed());
+    }
+
+    @Test
+    public void nextBurst_takesOneRoundUpToLimit() {
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(7));
+        engine.updateSettings(100, 100, 0);
+        for (int i = 0; i < 5; i++) {
+            engine.addPosition(i * 10, i * 10);
+        }
+        engine.setPositionActive(1, false);
+        engine.start(0);
+
+        // 一轮 5 个位置中 4 个激活，上限 3：取 0、2、3
+        assertEquals(3, engine.nextBurst(0, 3));
+        assertEquals(0, engine.getBurstIndex(0));
+        assertEquals(2, engine.getBurstIndex(1));
+        assertEquals(3, engine.getBurstIndex(2));
+        assertEquals(30f, engine.getBurstX(2), 0f);
+
+        // 下一批从 4 开始，绕回后每个位置最多一次
+        assertEquals(4, engine.nextBurst(100, 10));
+        assertEquals(4, engine.getBurstIndex(0));
+        assertEquals(0, engine.getBurstIndex(1));
+        assertEquals(2, engine.getBurstIndex(2));
+        assertEquals(3, engine.getBurstIndex(3));
+    }
+
+    @Test
+    public void allInactive_returnsIdle() {
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(7));
+        engine.addPosition(10, 10);
+        engine.setPositionActive(0, false);
+        assertEquals(0, engine.getRoundLength());
+        assertEquals(ClickEngine.RESULT_STOP, engine.arm());
+        engine.start(0);
+        assertEquals(ClickEngine.RESULT_IDLE, engine.nextBurst(0, 5));
+        assertEquals(ClickEngine.RESULT_IDLE, engine.nextClick(0));
+    }
+
+    @Test
+    public void inactivePositions_areLeftOutOfSchedule() {
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(7));
+        engine.updateSettings(100, 100, 0);
+        for (int i = 0; i < 4; i++) {
+            engine.addPosition(i * 10, i * 10);
+        }
+        engine.setPositionActive(1, false);
+        engine.setPositionActive(2, false);
+
+        // 每个节拍直接取到激活的位置，没有跳过
+        engine.start(0);
+        int[] expected = {0, 3, 0, 3};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], engine.nextClick(i * 100));
+            engine.scheduleNext(i * 100);
+        }
+        assertEquals(4, engine.getTimer().getTickCount());
+    }
+
+    @Test
+    public void weightedSchedule_interleavesRepeats() {
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(7));
+        engine.updateSettings(100, 100, 0);
+        engine.addPosition(10, 10);
+        engine.addPosition(20, 20);
+        engine.addPosition(30, 30);
+        ClickPosition spec = new ClickPosition(0, 0);
+        spec.setRepeat(3);
+        engine.updatePositionSpec(0, spec);
+
+        assertEquals(5, engine.getRoundLength());
+        engine.start(0);
+        int[] expected = {0, 1, 0, 2, 0, 0, 1, 0, 2, 0};
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], engine.nextClick(i * 100));
+            engine.scheduleNext(i * 100);
+        }
+    }
+
+    @Test
+    public void weightedOrder_matchesStepwiseSmoothRoundRobin() {
+        java.util.Random random = new java.util.Random(42);
+        for (int trial = 0; trial < 200; trial++) {
+            int[] weights = new int[1 + random.nextInt(40)];
+            for (int i = 0; i < weights.length; i++) {
+                // 少数几种 repeat，夹杂未激活（0）的位置
+                weights[i] = random.nextInt(4) == 0 ? 0 : 1 + random.nextInt(1 + trial % ClickPosition.MAX_REPEAT);
+            }
+            assertArrayEquals(stepwiseOrder(weights), ClickEngine.weightedOrder(weights));
+        }
+    }
+
+    /** 逐步累加、逐个比较的原始算法 */
+    private static int[] stepwiseOrder(int[] weights) {
+        int total = 0;
+        for (int weight : weights) {
+            total += weight;
+        }
+        int[] current = new int[weights.length];
+        int[] order = new int[total];
+        for (int n = 0; n < total; n++) {
+            int best = -1;
+            for (int i = 0; i < weights.length; i++) {
+                if (weights[i] == 0) {
+                    continue;
+                }
+                current[i] += weights[i];
+                if (best < 0 || current[i] > current[best]) {
+                    best = i;
+                }
+            }
+            current[best] -= total;
+            order[n] = best;
+        }
+        return order;
+    }
+
+    @Test
+    public void positionSpec_overridesIntervalOffsetAndHold() {
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(7));
+        engine.updateSettings(100, 100, 0);
+        engine.addPosition(10, 10);
+        ClickPosition spec = new ClickPosition(0, 0);
+        spec.setInterval(500, 500);
+        spec.setHoldMillis(200);
+        spec.setOffsetRadius(5);
+        engine.addPosition(spec.getX() + 50, spec.getY() + 50);
+        engine.updatePositionSpec(1, spec);
+
+        assertEquals(ClickEngine.DEFAULT_HOLD_MS, engine.getHoldDuration(0));
+        assertEquals(200, engine.getHoldDuration(1));
+        assertEquals(0, engine.getOffsetRadius(0));
+        assertEquals(5, engine.getOffsetRadius(1));
+        assertTrue(engine.hasRandomOffset());
+
+        engine.start(0);
+        assertEquals(0, engine.nextClick(0));
+        assertEquals(100, engine.scheduleNext(0));
+        assertEquals(1, engine.nextClick(100));
+        float dx = engine.getClickX() - 50;
+        float dy = engine.getClickY() - 50;
+        assertTrue(dx * dx + dy * dy <= 25.01f);
+        assertEquals(600, engine.scheduleNext(100));
+    }
+
+    @Test
+    public void hasRandomOffset_followsSettingsAndSnapshot() {
+        PositionStore store = new PositionStore();
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(7), store);
+        engine.updateSettings(100, 100, 0);
+        engine.addPosition(10, 10);
+        assertFalse(engine.hasRandomOffset());
+
+        engine.updateSettings(100, 100, 5);
+        assertTrue(engine.hasRandomOffset());
+        engine.updateSettings(100, 100, 0);
+        assertFalse(engine.hasRandomOffset());
+
+        // 外部修改在节拍边界换入快照后才生效
+        ClickPosition spec = new ClickPosition(10, 10);
+        spec.setOffsetRadius(3);
+        store.updateSpec(store.snapshot().getId(0), spec);
+        assertFalse(engine.hasRandomOffset());
+        engine.start(0);
+        engine.nextClick(0);
+        assertTrue(engine.hasRandomOffset());
+    }
+}
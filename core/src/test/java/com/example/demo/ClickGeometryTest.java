@@ -0,0 +1,23 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ClickGeometryTest {
+
+    @Test
+    public void hitTest_returnsFirstActiveHitInsideRadius() {
+        List<ClickPosition> positions = new ArrayList<>();
+        positions.add(new ClickPosition(100, 100));
+        positions.add(new ClickPosition(110, 100));
+        positions.get(0).setActive(false);
+
+        assertEquals(1, ClickGeometry.hitTest(positions, 105, 100, 30));
+        assertEquals(1, ClickGeometry.hitTest(positions, 140, 100, 30));
+        assertEquals(-1, ClickGeometry.hitTest(positions, 141, 100, 30));
+    }
+}
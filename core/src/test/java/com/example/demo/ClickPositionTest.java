@@ -0,0 +1,30 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClickPositionTest {
+
+    @Test
+    public void holdAndInterval_areClampedToDispatchableRange() {
+        ClickPosition pos = new ClickPosition(0, 0);
+        pos.setHoldMillis(0);
+        assertEquals(1, pos.getHoldMillis());
+        pos.setHoldMillis(ClickPosition.MAX_HOLD_MILLIS + 1);
+        assertEquals(ClickPosition.MAX_HOLD_MILLIS, pos.getHoldMillis());
+        pos.setHoldMillis(ClickPosition.INHERIT);
+        assertEquals(ClickPosition.INHERIT, pos.getHoldMillis());
+
+        pos.setInterval(0, 0);
+        assertEquals(ClickPosition.MIN_INTERVAL_MILLIS, pos.getMinInterval());
+        assertEquals(ClickPosition.MIN_INTERVAL_MILLIS, pos.getMaxInterval());
+        pos.setInterval(20, 60_000);
+        assertEquals(ClickPosition.MIN_INTERVAL_MILLIS, pos.getMinInterval());
+        assertEquals(ClickPosition.MAX_INTERVAL_MILLIS, pos.getMaxInterval());
+
+        assertFalse(ClickPosition.isValidHold(0));
+        assertFalse(ClickPosition.isValidInterval(0, 0));
+        assertTrue(ClickPosition.isValidInterval(50, 10_000));
+    }
+}
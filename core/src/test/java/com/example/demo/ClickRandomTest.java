@@ -0,0 +1,81 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import java.util.SplittableRandom;
+
+import static org.junit.Assert.*;
+
+public class ClickRandomTest {
+
+    @Test
+    public void sameSeed_sameSequence() {
+        XoroshiroRandom a = new XoroshiroRandom(123);
+        XoroshiroRandom b = new XoroshiroRandom(123);
+        XoroshiroRandom c = new XoroshiroRandom(124);
+        boolean differs = false;
+        for (int i = 0; i < 1000; i++) {
+            long value = a.nextLong();
+            assertEquals(value, b.nextLong());
+            differs |= value != c.nextLong();
+        }
+        assertTrue(differs);
+    }
+
+    @Test
+    public void boundedValues_stayInRangeAndCoverIt() {
+        ClickRandom random = new XoroshiroRandom(1);
+        int[] counts = new int[7];
+        for (int i = 0; i < 70_000; i++) {
+            counts[random.nextInt(7)]++;
+            long value = random.nextLong(151);
+            assertTrue(value >= 0 && value <= 150);
+            double d = random.nextDouble();
+            assertTrue(d >= 0 && d < 1);
+        }
+        for (int count : counts) {
+            assertTrue(Math.abs(count - 10_000) < 500);
+        }
+    }
+
+    @Test
+    public void splittableRandomAdapter_isReproducible() {
+        ClickRandom a = ClickRandom.of(new SplittableRandom(9));
+        ClickRandom b = ClickRandom.of(new SplittableRandom(9));
+        for (int i = 0; i < 100; i++) {
+            assertEquals(a.nextInt(1000), b.nextInt(1000));
+        }
+    }
+
+    @Test
+    public void discTable_isInsideUnitDiscAndAreaUniform() {
+        double sumSquared = 0;
+        int inner = 0;
+        for (int i = 0; i < UnitDiscTable.SIZE; i++) {
+            double r2 = UnitDiscTable.XS[i] * UnitDiscTable.XS[i] + UnitDiscTable.YS[i] * UnitDiscTable.YS[i];
+            assertTrue(r2 <= 1.0001);
+            sumSquared += r2;
+            if (r2 <= 0.25) {
+                inner++;
+            }
+        }
+        // 面积均匀：E[r²] = 1/2，半径 0.5 以内的点约占 1/4
+        assertEquals(0.5, sumSquared / UnitDiscTable.SIZE, 0.02);
+        assertEquals(0.25, (double) inner / UnitDiscTable.SIZE, 0.02);
+    }
+
+    @Test
+    public void engineOffset_staysWithinRadius() {
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(3));
+        engine.updateSettings(100, 100, 20);
+        engine.addPosition(500, 500);
+        engine.start(0);
+        for (int i = 0; i < 1000; i++) {
+            engine.nextClick(i * 100L);
+            float dx = engine.getClickX() - 500;
+            float dy = engine.getClickY() - 500;
+            assertTrue(dx * dx + dy * dy <= 20 * 20 + 0.01f);
+            engine.scheduleNext(i * 100L);
+        }
+    }
+}
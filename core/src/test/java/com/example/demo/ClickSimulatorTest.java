@@ -0,0 +1,152 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClickSimulatorTest {
+    private static final long HOUR = 3_600_000L;
+
+    private static ClickSimulator newSimulator(long seed) {
+        ClickSimulator sim = new ClickSimulator(seed);
+        sim.getEngine().addPosition(100, 200);
+        sim.getEngine().addPosition(300, 400);
+        sim.getEngine().addPosition(500, 600);
+        sim.setSchedulingJitter(4);
+        return sim;
+    }
+
+    @Test
+    public void sameSeed_replaysIdenticalSequence() {
+        ClickSimulator.Result a = newSimulator(7).run(HOUR);
+        ClickSimulator.Result b = newSimulator(7).run(HOUR);
+
+        assertEquals(a.sequenceHash, b.sequenceHash);
+        assertEquals(a.dispatched, b.dispatched);
+        assertEquals(a.metrics.getClicks(), b.metrics.getClicks());
+        assertEquals(a.metrics.getCancelled(), b.metrics.getCancelled());
+        assertEquals(a.maxLateness, b.maxLateness);
+        assertEquals(a.metrics.getLateness().getValueAtPercentile(99),
+                b.metrics.getLateness().getValueAtPercentile(99));
+
+        ClickSimulator.Result c = newSimulator(8).run(HOUR);
+        assertNotEquals(a.sequenceHash, c.sequenceHash);
+    }
+
+    @Test
+    public void multiHourPlan_runsOnVirtualTime() {
+        ClickSimulator.Result result = newSimulator(42).run(4 * HOUR);
+
+        // 150-300ms 的均匀间隔，平均 225ms 一次
+        long expected = 4 * HOUR / 225;
+        assertTrue(result.metrics.getClicks() > expected * 95 / 100);
+        assertTrue(result.metrics.getClicks() < expected * 105 / 100);
+        assertEquals(result.metrics.getClicks(), result.dispatched);
+        assertEquals(result.dispatched, result.metrics.getCompleted() + result.metrics.getCancelled());
+        assertTrue(result.maxLateness <= 4);
+        // 远少于模拟的时长
+        assertTrue(result.cpuNanos < 4 * HOUR * 1_000_000L / 100);
+    }
+
+    @Test
+    public void waitMode_avoidsCancellationsWhenGesturesAreSlow() {
+        ClickSimulator off = newSimulator(3);
+        off.getEngine().updateSettings(20, 40, 0);
+        off.getGestureSink().setLatency(30, 20);
+        ClickSimulator.Result overlapping = off.run(HOUR / 60);
+        assertTrue(overlapping.metrics.getCancelled() > 0);
+
+        ClickSimulator wait = newSimulator(3);
+        wait.getEngine().updateSettings(20, 40, 0);
+        wait.getGestureSink().setLatency(30, 20);
+        wait.getLoop().setBackpressureMode(GestureTracker.Mode.WAIT);
+        ClickSimulator.Result throttled = wait.run(HOUR / 60);
+        assertEquals(0, throttled.metrics.getCancelled());
+        assertEquals(throttled.dispatched, throttled.metrics.getCompleted());
+    }
+
+    @Test
+    public void burstMode_dispatchesWholeRoundPerTick() {
+        ClickSimulator sim = newSimulator(5);
+        sim.getLoop().setBurstMode(true, 10);
+        ClickSimulator.Result result = sim.run(HOUR / 60);
+
+        assertEquals(result.dispatched * 3, result.strokes);
+        assertEquals(result.ticks, result.dispatched);
+        // 点击数按笔画计，成功率仍按手势计
+        assertEquals(result.strokes, result.metrics.getClicks());
+        assertEquals(result.dispatched, result.metrics.getTicks());
+        assertEquals(result.dispatched, result.metrics.getCompleted() + result.metrics.getCancelled());
+    }
+
+    @Test
+    public void noActivePositions_idlesUntilWoken() {
+        ClickSimulator sim = new ClickSimulator(5);
+        ClickEngine engine = sim.getEngine();
+        engine.addPosition(100, 200);
+        engine.setPositionActive(0, false);
+        ClickLoop loop = sim.getLoop();
+        VirtualClock clock = sim.getClock();
+
+        assertTrue(loop.start());
+        assertTrue(loop.isIdle());
+        long events = clock.getExecutedCount();
+        clock.runUntil(clock.uptimeMillis() + HOUR);
+        // 空闲时不投递任何节拍
+        assertEquals(events, clock.getExecutedCount());
+        assertEquals(0, clock.getPendingCount());
+
+        engine.setPositionActive(0, true);
+        assertTrue(loop.wake());
+        assertFalse(loop.isIdle());
+        clock.runUntil(clock.uptimeMillis() + 1000);
+        assertTrue(loop.getMetrics().getClicks() >= 4);
+        // 空闲的一小时不算作节拍延迟，也不算作点击间隔
+        assertTrue(engine.getTimer().getMaxLateness() < 100);
+        assertTrue(loop.getMetrics().getClickInterval().getMax() < HOUR);
+        loop.stop();
+    }
+
+    @Test
+    public void lateCallbackAfterTimeout_countedOnceAsFailed() {
+        VirtualClock clock = new VirtualClock();
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(5));
+        engine.addPosition(100, 200);
+        engine.updateSettings(100, 100, 0);
+        GestureSink.Callback[] callback = new GestureSink.Callback[1];
+        long[] lastSeq = new long[1];
+        ClickLoop loop = new ClickLoop(engine, clock, clock, new GestureSink() {
+            @Override
+            public boolean dispatchClick(int index, float x, float y, long holdMillis, long seq, Callback c) {
+                callback[0] = c;
+                lastSeq[0] = seq;
+                return true;
+            }
+
+            @Override
+            public boolean dispatchBurst(ClickEngine e, int count, long seq, Callback c) {
+                callback[0] = c;
+                lastSeq[0] = seq;
+                return true;
+            }
+        });
+        loop.setBackpressureMode(GestureTracker.Mode.WAIT);
+        loop.setGestureTimeout(500);
+
+        assertTrue(loop.start());
+        // 第一个手势没有回调：100ms 的节拍推迟到 600ms，此时按超时计为失败并分发第二个
+        clock.runUntil(clock.uptimeMillis() + 650);
+        ClickMetrics metrics = loop.getMetrics();
+        assertEquals(1, metrics.getFailed());
+        assertEquals(1, lastSeq[0]);
+        // 第一个手势迟到的完成回调被忽略，不会记到在途的第二个手势上
+        callback[0].onGestureCompleted(0);
+        assertEquals(0, metrics.getCompleted());
+        callback[0].onGestureCancelled(1);
+        loop.stop();
+        assertEquals(1, metrics.getFailed());
+        assertEquals(0, metrics.getCompleted());
+        assertEquals(1, metrics.getCancelled());
+        assertEquals(1, metrics.getCompletionLatency().getCount());
+    }
+}
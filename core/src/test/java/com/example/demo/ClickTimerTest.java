@@ -0,0 +1,110 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClickTimerTest {
+
+    @Test
+    public void fixedRate_doesNotAccumulateExecutionTime() {
+        ClickTimer timer = new ClickTimer();
+        timer.start(1000);
+        long target = 1000;
+        for (int i = 0; i < 100; i++) {
+            assertEquals(3, timer.onTick(target + 3));
+            // 每次点击耗时 30ms，目标时间仍按 100ms 的网格推进
+            target = timer.scheduleNext(target + 33, 100);
+            assertEquals(1000 + (i + 1) * 100L, target);
+        }
+        assertEquals(100, timer.getTickCount());
+        assertEquals(3, timer.getMaxLateness());
+        assertEquals(0, timer.getDroppedTicks());
+    }
+
+    @Test
+    public void fixedDelay_addsExecutionTime() {
+        ClickTimer timer = new ClickTimer();
+        timer.setMode(ClickTimer.Mode.FIXED_DELAY);
+        timer.start(0);
+        timer.onTick(0);
+        assertEquals(130, timer.scheduleNext(30, 100));
+        timer.onTick(130);
+        assertEquals(260, timer.scheduleNext(160, 100));
+    }
+
+    @Test
+    public void drop_skipsMissedTicksKeepingPhase() {
+        ClickTimer timer = new ClickTimer();
+        timer.start(0);
+        timer.onTick(0);
+        // 线程阻塞到 350：100、200、300 三个节拍已错过，对齐到 400
+        assertEquals(400, timer.scheduleNext(350, 100));
+        assertEquals(3, timer.getDroppedTicks());
+        assertEquals(50, timer.onTick(450));
+    }
+
+    @Test
+    public void catchUp_firesMissedTicksThenResyncs() {
+        ClickTimer timer = new ClickTimer();
+        timer.setLatePolicy(ClickTimer.LatePolicy.CATCH_UP);
+        timer.start(0);
+        timer.onTick(0);
+        // 落后 250ms（不到 5 个节拍）：保留错过的节拍，下一个目标已经过去，立即补点
+        assertEquals(100, timer.scheduleNext(350, 100));
+        assertEquals(0, timer.getResyncCount());
+
+        timer.start(0);
+        timer.onTick(0);
+        // 落后超过 5 个节拍：放弃补点，从当前时间重新对齐
+        assertEquals(800, timer.scheduleNext(800, 100));
+        assertEquals(1, timer.getResyncCount());
+    }
+
+    @Test
+    public void minimumInterval_staysOnGridWhenTicksRunLong() {
+        long interval = ClickPosition.MIN_INTERVAL_MILLIS;
+        ClickTimer timer = new ClickTimer();
+        timer.start(0);
+        long target = 0;
+        for (int i = 0; i < 20; i++) {
+            timer.onTick(target);
+            // 点击耗时接近间隔本身，仍然不漂移也不丢节拍
+            target = timer.scheduleNext(target + interval - 1, interval);
+            assertEquals((i + 1) * interval, target);
+        }
+        assertEquals(0, timer.getDroppedTicks());
+    }
+
+    @Test
+    public void zeroInterval_neverSchedulesInThePast() {
+        ClickTimer timer = new ClickTimer();
+        timer.start(0);
+        timer.onTick(0);
+        // 间隔为 0 时 DROP 对齐到当前时间，不会除以 0
+        assertEquals(10, timer.scheduleNext(10, 0));
+        assertEquals(1, timer.getDroppedTicks());
+
+        timer.setLatePolicy(ClickTimer.LatePolicy.CATCH_UP);
+        timer.start(0);
+        timer.onTick(0);
+        assertEquals(10, timer.scheduleNext(10, 0));
+        assertEquals(1, timer.getResyncCount());
+    }
+
+    @Test
+    public void engineIntervalFloor_raisesScheduledInterval() {
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(3));
+        engine.addPosition(10, 10);
+        engine.updateSettings(100, 100, 0);
+        engine.setIntervalFloor(250);
+        engine.start(0);
+        assertEquals(0, engine.nextClick(0));
+        assertEquals(250, engine.scheduleNext(0));
+
+        // 下限低于设置的间隔时不起作用
+        engine.setIntervalFloor(40);
+        assertEquals(0, engine.nextClick(250));
+        assertEquals(350, engine.scheduleNext(250));
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ClockOffsetEstimatorTest {
+
+    @Test
+    public void symmetricRoundTrip_recoversOffset() {
+        ClockOffsetEstimator estimator = new ClockOffsetEstimator();
+        // 参考时钟快 300ms，往返 40ms 且对称
+        assertTrue(estimator.addSample(1_000, 1_320, 1_040));
+        assertEquals(300, estimator.getOffsetMillis());
+        assertEquals(20, estimator.getUncertaintyMillis());
+    }
+
+    @Test
+    public void prefersShortestRoundTripSample() {
+        ClockOffsetEstimator estimator = new ClockOffsetEstimator();
+        // 慢样本：去程 10ms、回程 190ms，单独看会得到 -190ms 的偏差
+        estimator.addSample(0, 10 - 100, 200);
+        assertEquals(-190, estimator.getOffsetMillis());
+        // 快样本：往返 4ms，真实偏差 -100ms，估计应向它靠拢
+        estimator.addSample(1_000, 1_002 - 100, 1_004);
+        long offset = estimator.getOffsetMillis();
+        assertTrue("offset " + offset, offset > -190 && offset <= -100);
+        assertTrue(estimator.getUncertaintyMillis() < 100);
+    }
+
+    @Test
+    public void negativeRoundTrip_isRejected() {
+        ClockOffsetEstimator estimator = new ClockOffsetEstimator();
+        assertFalse(estimator.addSample(100, 500, 50));
+        assertFalse(estimator.hasEstimate());
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DirtyRegionTest {
+
+    @Test
+    public void union_growsBoundingBoxAndIgnoresEmptyRects() {
+        DirtyRegion region = new DirtyRegion();
+        assertTrue(region.isEmpty());
+        region.union(10.5f, 20.5f, 30.2f, 40.2f);
+        region.union(50, 50, 50, 60);
+        assertEquals(10, region.getLeft());
+        assertEquals(20, region.getTop());
+        assertEquals(31, region.getRight());
+        assertEquals(41, region.getBottom());
+
+        region.union(100, 5, 10);
+        assertEquals(110, region.getRight());
+        assertEquals(-5, region.getTop());
+        region.clipTo(105, 1000);
+        assertEquals(0, region.getTop());
+        assertEquals(105, region.getRight());
+        assertEquals(95L * 41, region.area());
+    }
+
+    @Test
+    public void unionChanged_coversOnlyChangedMarkers() {
+        PositionStore store = new PositionStore();
+        store.add(100, 100);
+        long middle = store.add(500, 500);
+        store.add(900, 900);
+        PositionStore.Snapshot before = store.snapshot();
+
+        // 只改最后一个位置的参数：只有它需要重绘
+        ClickPosition spec = new ClickPosition(0, 0);
+        spec.setRepeat(3);
+        store.updateSpec(store.snapshot().getId(2), spec);
+        DirtyRegion region = new DirtyRegion();
+        region.unionChanged(before, store.snapshot(), 0, 0, 10);
+        assertEquals(890, region.getLeft());
+        assertEquals(910, region.getRight());
+
+        // 删除中间的位置：它和后面序号改变的位置都要重绘，前面的不用
+        before = store.snapshot();
+        store.remove(middle);
+        region.reset();
+        region.unionChanged(before, store.snapshot(), 0, 0, 10);
+        assertEquals(490, region.getLeft());
+        assertEquals(910, region.getBottom());
+
+        // 没有变化
+        region.reset();
+        region.unionChanged(store.snapshot(), store.snapshot(), 0, 0, 10);
+        assertTrue(region.isEmpty());
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class GestureTrackerTest {
+
+    @Test
+    public void callbacksResolveInDispatchOrder() {
+        GestureTracker tracker = new GestureTracker();
+        tracker.onDispatched(0);
+        tracker.onDispatched(20);
+        tracker.onRejected();
+        assertEquals(2, tracker.getInFlight());
+
+        assertEquals(60, tracker.onCompleted(60, 0));
+        assertEquals(70, tracker.onCancelled(90, 1));
+        assertEquals(0, tracker.getInFlight());
+        assertEquals(-1, tracker.onCompleted(100, 1));
+
+        assertEquals(3, tracker.getAttempted());
+        assertEquals(1, tracker.getCompleted());
+        assertEquals(1, tracker.getCancelled());
+        assertEquals(1, tracker.getRejected());
+    }
+
+    @Test
+    public void waitMode_defersUntilResolvedOrTimedOut() {
+        GestureTracker tracker = new GestureTracker();
+        tracker.onDispatched(0);
+        assertFalse(tracker.shouldWait(10, 1000));
+
+        tracker.setMode(GestureTracker.Mode.WAIT);
+        assertTrue(tracker.shouldWait(10, 1000));
+        assertFalse(tracker.shouldWait(1000, 1000));
+        assertEquals(1, tracker.getExpired());
+        assertEquals(0, tracker.getInFlight());
+    }
+
+    @Test
+    public void lateCallbackOfExpiredGesture_doesNotResolveNextGesture() {
+        GestureTracker tracker = new GestureTracker();
+        tracker.setMode(GestureTracker.Mode.WAIT);
+        tracker.onDispatched(0);
+        assertFalse(tracker.shouldWait(500, 500));
+        assertEquals(1, tracker.getExpired());
+        tracker.onDispatched(500);
+
+        assertEquals(-1, tracker.onCompleted(520, 0));
+        assertEquals(1, tracker.getInFlight());
+        assertEquals(40, tracker.onCompleted(540, 1));
+        assertEquals(1, tracker.getCompleted());
+    }
+
+    @Test
+    public void offMode_missingCallbackRetiredByLaterOne() {
+        GestureTracker tracker = new GestureTracker();
+        tracker.onDispatched(0);
+        tracker.onDispatched(100);
+        tracker.onDispatched(200);
+
+        // 第一个手势一直没有回调：第二个的回调到达时按丢失计
+        assertEquals(30, tracker.onCompleted(130, 1));
+        assertEquals(1, tracker.getExpired());
+        assertEquals(1, tracker.getInFlight());
+        assertEquals(-1, tracker.onCancelled(140, 0));
+        assertEquals(10, tracker.onCompleted(210, 2));
+        assertEquals(0, tracker.getInFlight());
+    }
+
+    @Test
+    public void adaptiveMode_floorTracksCompletionAndBacksOffOnCancel() {
+        GestureTracker tracker = new GestureTracker();
+        tracker.setMode(GestureTracker.Mode.ADAPTIVE);
+        tracker.onDispatched(0);
+        tracker.onCompleted(70, 0);
+        long floor = tracker.getIntervalFloor();
+        assertEquals(80, floor);
+
+        tracker.onDispatched(100);
+        tracker.onCancelled(120, 1);
+        assertTrue(tracker.getIntervalFloor() > floor);
+
+        tracker.setMode(GestureTracker.Mode.WAIT);
+        assertEquals(0, tracker.getIntervalFloor());
+    }
+}
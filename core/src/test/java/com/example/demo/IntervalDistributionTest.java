@@ -0,0 +1,113 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.Assert.*;
+
+public class IntervalDistributionTest {
+    private static final int SAMPLES = 50_000;
+
+    private static double mean(IntervalDistribution distribution, long min, long max) {
+        ClickRandom random = new XoroshiroRandom(11);
+        double sum = 0;
+        for (int i = 0; i < SAMPLES; i++) {
+            long value = distribution.sample(random);
+            assertTrue("sample " + value, value >= min && value <= max);
+            sum += value;
+        }
+        return sum / SAMPLES;
+    }
+
+    @Test
+    public void parametricKinds_stayInRangeWithExpectedCentre() {
+        assertEquals(225, mean(IntervalDistributions.uniform(150, 300), 150, 300), 2);
+        assertEquals(225, mean(IntervalDistributions.gaussian(150, 300), 150, 300), 2);
+        // 对数正态的中位数为 √(150·300) ≈ 212，均值略高
+        double logNormal = mean(IntervalDistributions.logNormal(150, 300), 150, 300);
+        assertTrue(logNormal > 212 && logNormal < 220);
+        // 指数分布只有下界，平均间隔与均匀分布相同
+        assertEquals(225, mean(IntervalDistributions.exponential(150, 300), 150, 150 + 75 * 20), 3);
+    }
+
+    @Test
+    public void fixedInterval_isConstantForEveryKind() {
+        ClickRandom random = new XoroshiroRandom(1);
+        for (IntervalDistribution.Kind kind : IntervalDistribution.Kind.values()) {
+            IntervalDistribution distribution = IntervalDistributions.create(kind, 200, 200, null);
+            assertEquals(200, distribution.sample(random));
+        }
+    }
+
+    @Test
+    public void aliasTable_matchesWeights() {
+        AliasTable table = new AliasTable(new double[] {1, 0, 3, 6});
+        ClickRandom random = new XoroshiroRandom(5);
+        int[] counts = new int[4];
+        for (int i = 0; i < 100_000; i++) {
+            counts[table.sample(random)]++;
+        }
+        assertEquals(0, counts[1]);
+        assertEquals(10_000, counts[0], 600);
+        assertEquals(30_000, counts[2], 900);
+        assertEquals(60_000, counts[3], 900);
+    }
+
+    @Test
+    public void empirical_parsesMetricsExportAndSamplesInsideBins() throws IOException {
+        String csv = "metric,value\n"
+                + "clicks,100\n"
+                + "histogram,lower_ms,upper_ms,count\n"
+                + "lateness,0,0,90\n"
+                + "interval,160,175,30\n"
+                + "interval,224,239,70\n";
+        EmpiricalDistribution distribution = EmpiricalDistribution.parseCsv(new StringReader(csv));
+        assertEquals(2, distribution.getBinCount());
+        assertEquals(160, distribution.getMin());
+        assertEquals(239, distribution.getMax());
+
+        ClickRandom random = new XoroshiroRandom(3);
+        int low = 0;
+        for (int i = 0; i < 10_000; i++) {
+            long value = distribution.sample(random);
+            assertTrue((value >= 160 && value <= 175) || (value >= 224 && value <= 239));
+            if (value <= 175) {
+                low++;
+            }
+        }
+        assertEquals(3_000, low, 200);
+    }
+
+    @Test
+    public void empirical_acceptsValueAndRangeRows() throws IOException {
+        EmpiricalDistribution distribution = EmpiricalDistribution.parseCsv(
+                new StringReader("interval_ms,weight\n100,1\n200,300,1\n"));
+        assertEquals(2, distribution.getBinCount());
+        assertEquals(175, distribution.getMean(), 0.01);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void empirical_withoutBins_isRejected() throws IOException {
+        EmpiricalDistribution.parseCsv(new StringReader("metric,value\nclicks,10\n"));
+    }
+
+    @Test
+    public void engine_usesSelectedDistribution() {
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(2));
+        engine.updateSettings(100, 400, 0);
+        engine.setIntervalDistribution(IntervalDistribution.Kind.EMPIRICAL,
+                new EmpiricalDistribution(new long[] {250}, new long[] {250}, new double[] {1}));
+        engine.addPosition(10, 10);
+        engine.start(0);
+        engine.nextClick(0);
+        assertEquals(250, engine.scheduleNext(0));
+
+        // 没有经验数据时退回均匀分布
+        engine.setIntervalDistribution(IntervalDistribution.Kind.EMPIRICAL, null);
+        engine.nextClick(250);
+        long next = engine.scheduleNext(250);
+        assertTrue(next >= 350 && next <= 650);
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+public class LogHistogramTest {
+
+    @Test
+    public void bucketBoundsAreContiguous() {
+        long expectedLower = 0;
+        for (int i = 0; i < 200; i++) {
+            assertEquals(expectedLower, LogHistogram.bucketLowerBound(i));
+            assertEquals(i, LogHistogram.bucketIndex(LogHistogram.bucketLowerBound(i)));
+            assertEquals(i, LogHistogram.bucketIndex(LogHistogram.bucketUpperBound(i)));
+            expectedLower = LogHistogram.bucketUpperBound(i) + 1;
+        }
+        assertEquals(LogHistogram.bucketIndex(Long.MAX_VALUE), LogHistogram.bucketIndex(Long.MAX_VALUE - 1));
+    }
+
+    @Test
+    public void percentilesWithinBucketError() {
+        LogHistogram histogram = new LogHistogram();
+        for (int v = 1; v <= 1000; v++) {
+            histogram.record(v);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(500.5, histogram.getMean(), 1e-9);
+        long p50 = histogram.getValueAtPercentile(50);
+        assertTrue("p50 " + p50, p50 >= 500 && p50 <= 500 * 9 / 8 + 1);
+        assertEquals(1000, histogram.getValueAtPercentile(100));
+    }
+
+    @Test
+    public void binarySnapshot_writesOnlyNonEmptyBuckets() throws IOException {
+        LogHistogram histogram = new LogHistogram();
+        histogram.record(3);
+        histogram.record(3);
+        histogram.record(100);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        histogram.writeBinary(new DataOutputStream(bytes));
+        // 桶数 + 2 个桶 *（序号 + 计数）
+        assertEquals(4 + 2 * (2 + 8), bytes.size());
+    }
+}
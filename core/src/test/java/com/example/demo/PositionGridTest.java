@@ -0,0 +1,48 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PositionGridTest {
+
+    @Test
+    public void hitTest_matchesLinearScan() {
+        Random random = new Random(42);
+        List<ClickPosition> positions = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ClickPosition pos = new ClickPosition(random.nextInt(1440), random.nextInt(3200));
+            pos.setActive(random.nextInt(10) != 0);
+            positions.add(pos);
+        }
+        PositionGrid grid = PositionGrid.build(positions, 60);
+        for (int i = 0; i < 20_000; i++) {
+            float x = random.nextFloat() * 1500 - 30;
+            float y = random.nextFloat() * 3260 - 30;
+            assertEquals(ClickGeometry.hitTest(positions, x, y, 30), grid.hitTest(x, y, 30));
+        }
+    }
+
+    @Test
+    public void hitTest_prefersEarlierPositionAndHandlesEdgeCases() {
+        List<ClickPosition> positions = new ArrayList<>();
+        positions.add(new ClickPosition(100, 100));
+        positions.add(new ClickPosition(5000, 100)); // 远处的位置让格子变大
+        positions.add(new ClickPosition(90, 100));
+        positions.get(0).setActive(false);
+        PositionGrid grid = PositionGrid.build(positions, 60);
+        assertEquals(2, grid.hitTest(100, 100, 30));
+        assertEquals(2, grid.hitTest(120, 100, 30));
+        assertEquals(-1, grid.hitTest(121, 100, 30));
+        assertEquals(1, grid.hitTest(5030, 100, 30));
+
+        positions.add(0, new ClickPosition(95, 100));
+        assertEquals(0, PositionGrid.build(positions, 60).hitTest(100, 100, 30));
+
+        assertEquals(-1, PositionGrid.build(new ArrayList<>(), 60).hitTest(0, 0, 30));
+    }
+}
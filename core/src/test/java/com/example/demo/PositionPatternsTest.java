@@ -0,0 +1,77 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PositionPatternsTest {
+
+    @Test
+    public void patterns_produceExpectedPoints() {
+        float[] grid = PositionPatterns.grid(100, 200, 3, 2, 50, 80);
+        assertEquals(12, grid.length);
+        assertEquals(200f, grid[4], 0f);   // 第一行第三个
+        assertEquals(280f, grid[11], 0f);  // 第二行第三个
+
+        float[] line = PositionPatterns.line(0, 0, 90, 30, 4);
+        assertEquals(30f, line[2], 1e-4f);
+        assertEquals(90f, line[6], 1e-4f);
+        assertEquals(30f, line[7], 1e-4f);
+
+        float[] circle = PositionPatterns.circle(500, 500, 100, 4);
+        assertEquals(500f, circle[0], 1e-3f); // 从正上方开始
+        assertEquals(400f, circle[1], 1e-3f);
+        assertEquals(600f, circle[2], 1e-3f); // 顺时针到右侧
+        assertEquals(500f, circle[3], 1e-3f);
+
+        // 正方形每边 2 个点：顶点和边的中点交替
+        float[] square = PositionPatterns.polygon(500, 500, 100, 4, 2);
+        assertEquals(16, square.length);
+        assertEquals(550f, square[2], 1e-3f);
+        assertEquals(450f, square[3], 1e-3f);
+        assertEquals(600f, square[4], 1e-3f);
+    }
+
+    @Test
+    public void toPositions_dropsPointsOutsideScreen() {
+        float[] line = PositionPatterns.line(-50, 100, 1150, 100, 13);
+        ClickPosition[] positions = PositionPatterns.toPositions(line, 1080, 2400);
+        assertEquals(11, positions.length);
+        assertEquals(50f, positions[0].getX(), 1e-3f);
+        assertTrue(positions[0].isActive());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void polygon_rejectsFewerThanThreeSides() {
+        PositionPatterns.polygon(0, 0, 10, 2, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void grid_rejectsMoreThanMaxPositions() {
+        PositionPatterns.grid(0, 0, PositionStore.MAX_POSITIONS, 2, 1, 1);
+    }
+
+    @Test
+    public void patterns_rejectPointsStackedOnOnePixel() {
+        assertRejected(() -> PositionPatterns.grid(0, 0, 3, 3, 0, 10));
+        assertRejected(() -> PositionPatterns.grid(0, 0, 3, 3, 10, 0));
+        assertRejected(() -> PositionPatterns.line(50, 50, 50, 50, 5));
+        assertRejected(() -> PositionPatterns.circle(500, 500, 0, 8));
+        assertRejected(() -> PositionPatterns.circle(500, 500, 10, 1000));
+        assertRejected(() -> PositionPatterns.polygon(500, 500, 0, 6, 1));
+        assertRejected(() -> PositionPatterns.polygon(500, 500, 10, 6, 50));
+
+        // 只有一行、一列或一个点时间距不影响
+        assertEquals(6, PositionPatterns.grid(0, 0, 3, 1, 10, 0).length);
+        assertEquals(2, PositionPatterns.line(50, 50, 50, 50, 1).length);
+    }
+
+    private static void assertRejected(Runnable generate) {
+        try {
+            generate.run();
+            fail("degenerate pattern accepted");
+        } catch (IllegalArgumentException expected) {
+            // 相邻两点距离不足 1 像素
+        }
+    }
+}
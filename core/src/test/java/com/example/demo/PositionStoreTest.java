@@ -0,0 +1,160 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+public class PositionStoreTest {
+
+    @Test
+    public void mutations_publishNewSnapshots() {
+        PositionStore store = new PositionStore();
+        PositionStore.Snapshot empty = store.snapshot();
+        long a = store.add(10, 20);
+        long b = store.add(30, 40);
+        PositionStore.Snapshot two = store.snapshot();
+
+        assertEquals(0, empty.size());
+        assertEquals(2, two.size());
+        assertEquals(2, two.getVersion());
+        assertEquals(1, two.indexOf(b));
+
+        assertTrue(store.remove(a));
+        assertFalse(store.remove(a));
+        // 旧快照不受后续修改影响
+        assertEquals(2, two.size());
+        assertEquals(0, store.snapshot().indexOf(b));
+        assertEquals(30f, store.snapshot().get(0).getX(), 0f);
+    }
+
+    @Test
+    public void updateById_survivesConcurrentIndexShift() {
+        PositionStore store = new PositionStore();
+        long a = store.add(10, 10);
+        long b = store.add(20, 20);
+        ClickPosition spec = new ClickPosition(0, 0);
+        spec.setRepeat(4);
+
+        // 编辑 b 期间 a 被删除，b 的序号从 1 变为 0
+        store.remove(a);
+        assertTrue(store.updateSpec(b, spec));
+        PositionStore.Snapshot snapshot = store.snapshot();
+        assertEquals(4, snapshot.get(0).getRepeat());
+        assertEquals(20f, snapshot.get(0).getX(), 0f);
+    }
+
+    @Test
+    public void listeners_receivePublishedSnapshot() {
+        PositionStore store = new PositionStore();
+        List<Long> versions = new ArrayList<>();
+        PositionStore.Listener listener = snapshot -> versions.add(snapshot.getVersion());
+        store.addListener(listener);
+        long id = store.add(1, 1);
+        store.setActive(id, false);
+        store.setActive(id, false);
+        store.removeListener(listener);
+        store.clear();
+
+        assertEquals(2, versions.size());
+        assertEquals(1L, (long) versions.get(0));
+        assertEquals(2L, (long) versions.get(1));
+    }
+
+    @Test
+    public void addAll_publishesOneSnapshotAndStopsAtLimit() {
+        PositionStore store = new PositionStore();
+        long first = store.add(1, 1);
+        List<Integer> sizes = new ArrayList<>();
+        store.addListener(snapshot -> sizes.add(snapshot.size()));
+
+        ClickPosition[] batch = PositionPatterns.toPositions(PositionPatterns.grid(0, 0, 100, 50, 10, 10), 1080, 2400);
+        assertEquals(PositionStore.MAX_POSITIONS - 1, store.addAll(batch));
+        assertEquals(1, sizes.size());
+        assertEquals(PositionStore.MAX_POSITIONS, (int) sizes.get(0));
+        assertEquals(0, store.snapshot().indexOf(first));
+        // 存的是副本，按顺序追加在原有位置之后
+        assertNotSame(batch[0], store.snapshot().get(1));
+        assertEquals(batch[0].getX(), store.snapshot().get(1).getX(), 0f);
+        assertEquals(0, store.addAll(batch));
+        assertEquals(1, sizes.size());
+    }
+
+    @Test
+    public void replaceAll_keepsAtMostLimit() {
+        PositionStore store = new PositionStore();
+        store.add(1, 1);
+        ClickPosition[] batch = new ClickPosition[PositionStore.MAX_POSITIONS + 10];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new ClickPosition(i, i);
+        }
+        assertEquals(PositionStore.MAX_POSITIONS, store.replaceAll(batch));
+        assertEquals(PositionStore.MAX_POSITIONS, store.snapshot().size());
+        assertEquals(0f, store.snapshot().get(0).getX(), 0f);
+    }
+
+    @Test
+    public void add_rejectedAtLimit() {
+        PositionStore store = new PositionStore();
+        ClickPosition[] batch = new ClickPosition[PositionStore.MAX_POSITIONS];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new ClickPosition(i, i);
+        }
+        store.replaceAll(batch);
+        long version = store.snapshot().getVersion();
+
+        assertEquals(-1, store.add(1, 1));
+        assertEquals(-1, store.add(new ClickPosition(2, 2)));
+        assertEquals(PositionStore.MAX_POSITIONS, store.snapshot().size());
+        assertEquals(version, store.snapshot().getVersion());
+
+        store.removeAt(0);
+        assertTrue(store.add(1, 1) >= 0);
+        assertEquals(PositionStore.MAX_POSITIONS, store.snapshot().size());
+    }
+
+    @Test
+    public void engine_picksUpExternalChangesAtTickBoundary() {
+        PositionStore store = new PositionStore();
+        ClickEngine engine = new ClickEngine(new XoroshiroRandom(7), store);
+        engine.updateSettings(100, 100, 0);
+        store.add(10, 10);
+        engine.start(0);
+        assertEquals(0, engine.nextClick(0));
+        engine.scheduleNext(0);
+
+        // 另一个线程（浮窗）在节拍之间删除并添加位置
+        store.removeAt(0);
+        store.add(50, 60);
+        assertEquals(0, engine.nextClick(100));
+        assertEquals(50f, engine.getClickX(), 0f);
+        assertEquals(store.snapshot().getVersion(), engine.getPositionsVersion());
+    }
+
+    @Test
+    public void concurrentWriters_loseNoUpdates() throws InterruptedException {
+        PositionStore store = new PositionStore();
+        AtomicBoolean failed = new AtomicBoolean();
+        Thread[] writers = new Thread[4];
+        for (int t = 0; t < writers.length; t++) {
+            writers[t] = new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    long id = store.add(i, i);
+                    if (store.snapshot().indexOf(id) < 0) {
+                        failed.set(true);
+                    }
+                }
+            });
+            writers[t].start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertFalse(failed.get());
+        assertEquals(2000, store.snapshot().size());
+        assertEquals(2000, store.snapshot().getVersion());
+    }
+}
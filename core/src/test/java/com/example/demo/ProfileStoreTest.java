@@ -0,0 +1,140 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.*;
+
+public class ProfileStoreTest {
+
+    private static File newDirectory() throws IOException {
+        File dir = Files.createTempDirectory("profiles").toFile();
+        dir.deleteOnExit();
+        return dir;
+    }
+
+    private static ClickProfile sampleProfile(String name, int count) {
+        PositionStore positions = new PositionStore();
+        for (int i = 0; i < count; i++) {
+            ClickPosition pos = new ClickPosition(i * 1.5f, i * 2.25f);
+            pos.setRepeat(1 + i % 3);
+            pos.setActive(i % 5 != 0);
+            if (i % 2 == 0) {
+                pos.setHoldMillis(80);
+                pos.setInterval(200, 400);
+            }
+            positions.add(pos);
+        }
+        return ClickProfile.of(name, positions.snapshot(), 100, 300, 12,
+                IntervalDistribution.Kind.GAUSSIAN, true, false, true);
+    }
+
+    @Test
+    public void saveAndLoad_roundTripsSettingsAndPositions() throws IOException {
+        ProfileStore store = new ProfileStore(newDirectory());
+        ClickProfile saved = sampleProfile("日常", 10);
+        store.save(saved);
+        ClickProfile loaded = store.load("日常");
+
+        assertEquals("日常", loaded.getName());
+        assertEquals(100, loaded.getMinInterval());
+        assertEquals(300, loaded.getMaxInterval());
+        assertEquals(12, loaded.getRandomOffset());
+        assertEquals(IntervalDistribution.Kind.GAUSSIAN, loaded.getIntervalKind());
+        assertTrue(loaded.isFixedRate());
+        assertFalse(loaded.isCatchUp());
+        assertTrue(loaded.isBurst());
+        assertEquals(10, loaded.getPositionCount());
+        for (int i = 0; i < 10; i++) {
+            ClickPosition expected = saved.getPosition(i);
+            ClickPosition actual = loaded.getPosition(i);
+            assertEquals(expected.getX(), actual.getX(), 0f);
+            assertEquals(expected.getY(), actual.getY(), 0f);
+            assertEquals(expected.getRepeat(), actual.getRepeat());
+            assertEquals(expected.isActive(), actual.isActive());
+            assertEquals(expected.getHoldMillis(), actual.getHoldMillis());
+            assertEquals(expected.getMinInterval(), actual.getMinInterval());
+            assertEquals(expected.getMaxInterval(), actual.getMaxInterval());
+        }
+    }
+
+    @Test
+    public void list_isSortedAndIgnoresOtherFiles() throws IOException {
+        File dir = newDirectory();
+        ProfileStore store = new ProfileStore(dir);
+        store.save(sampleProfile("b", 1));
+        store.save(sampleProfile("a", 1));
+        assertTrue(new File(dir, "notes.txt").createNewFile());
+
+        assertEquals(Arrays.asList("a", "b"), store.list());
+        assertTrue(store.delete("a"));
+        assertFalse(store.exists("a"));
+    }
+
+    @Test
+    public void decode_rejectsCorruptedData() {
+        ByteBuffer data = ProfileStore.encode(sampleProfile("x", 3));
+        data.put(ProfileStore.HEADER_SIZE + 1, (byte) (data.get(ProfileStore.HEADER_SIZE + 1) ^ 1));
+        try {
+            ProfileStore.decode("x", data);
+            fail("corrupted profile decoded");
+        } catch (IOException expected) {
+            // 校验失败
+        }
+
+        ByteBuffer future = ProfileStore.encode(sampleProfile("x", 3));
+        future.putShort(4, (short) (ProfileStore.VERSION + 1));
+        try {
+            ProfileStore.decode("x", future);
+            fail("unknown version decoded");
+        } catch (IOException expected) {
+            // 版本不支持
+        }
+    }
+
+    @Test
+    public void decode_rejectsOutOfRangeValues() {
+        ClickPosition[] positions = new ClickPosition[PositionStore.MAX_POSITIONS + 1];
+        Arrays.fill(positions, new ClickPosition(10, 10));
+        assertDecodeFails(ProfileStore.encode(new ClickProfile("x", 100, 300, 0,
+                IntervalDistribution.Kind.UNIFORM, true, false, false, positions)));
+
+        // 按下时长 0（位置 0 设置了按下时长），修改后重新计算校验和，只有取值校验能发现
+        ByteBuffer zeroHold = ProfileStore.encode(sampleProfile("x", 3));
+        zeroHold.putInt(ProfileStore.HEADER_SIZE + 8, 0);
+        assertDecodeFails(withCrc(zeroHold));
+
+        ByteBuffer zeroInterval = ProfileStore.encode(sampleProfile("x", 3));
+        zeroInterval.putInt(ProfileStore.HEADER_SIZE + 16, 0);
+        zeroInterval.putInt(ProfileStore.HEADER_SIZE + 20, 0);
+        assertDecodeFails(withCrc(zeroInterval));
+
+        ByteBuffer globalInterval = ProfileStore.encode(sampleProfile("x", 3));
+        globalInterval.putLong(8, 0);
+        assertDecodeFails(withCrc(globalInterval));
+    }
+
+    private static ByteBuffer withCrc(ByteBuffer data) {
+        CRC32 crc = new CRC32();
+        ByteBuffer view = data.duplicate();
+        view.position(0).limit(data.limit() - 4);
+        crc.update(view);
+        data.putInt(data.limit() - 4, (int) crc.getValue());
+        return data;
+    }
+
+    private static void assertDecodeFails(ByteBuffer data) {
+        try {
+            ProfileStore.decode("x", data);
+            fail("invalid profile decoded");
+        } catch (IOException expected) {
+            // 取值越界
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo;
+
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+import static org.junit.Assert.*;
+
+public class ScheduleCalculatorTest {
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+    // 2024-01-01 10:00:00 UTC
+    private static final long TEN_AM = 1_704_103_200_000L;
+
+    @Test
+    public void laterToday() {
+        long target = ScheduleCalculator.nextOccurrence(TEN_AM, UTC, 10, 0, 30);
+        assertEquals(TEN_AM + 30_000, target);
+    }
+
+    @Test
+    public void pastOrNow_rollsToTomorrow() {
+        assertEquals(TEN_AM + 86_400_000L, ScheduleCalculator.nextOccurrence(TEN_AM, UTC, 10, 0, 0));
+        assertEquals(TEN_AM + 86_400_000L - 3_600_000L, ScheduleCalculator.nextOccurrence(TEN_AM, UTC, 9, 0, 0));
+    }
+}